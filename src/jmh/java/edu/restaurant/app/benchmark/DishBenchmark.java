@@ -0,0 +1,52 @@
+package edu.restaurant.app.benchmark;
+
+import edu.restaurant.app.dao.entity.Dish;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Marge et disponibilité d'un plat à 3 ingrédients selon le nombre de mouvements de stock par ingrédient.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class DishBenchmark {
+
+    @Param({"10", "1000", "100000", "1000000"})
+    public int movements;
+
+    private Dish dish;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        dish = MenuFixture.dish(1L, MenuFixture.ingredients(3, movements, random), random);
+        // Premier appel hors mesure : construction des index de stock et de prix
+        dish.getAvailableQuantity();
+        dish.getGrossMargin();
+    }
+
+    @Benchmark
+    public Double grossMargin() {
+        return dish.getGrossMargin();
+    }
+
+    @Benchmark
+    public Double grossMarginAt() {
+        return dish.getGrossMarginAt(MenuFixture.FIRST_PRICE_DATE.plusDays(
+                ThreadLocalRandom.current().nextInt(MenuFixture.PRICES_PER_INGREDIENT * 30)));
+    }
+
+    @Benchmark
+    public Double availableQuantityAt() {
+        return dish.getAvailableQuantityAt(MenuFixture.START.plusSeconds(
+                ThreadLocalRandom.current().nextLong(movements * 60L)));
+    }
+}
@@ -0,0 +1,67 @@
+package edu.restaurant.app.benchmark;
+
+import edu.restaurant.app.dao.entity.Ingredient;
+import edu.restaurant.app.dao.entity.StockMovement;
+import edu.restaurant.app.dao.entity.StockMovementType;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Instant;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stock d'un ingrédient à une date : index (recherche dichotomique) contre parcours complet des mouvements.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class IngredientStockBenchmark {
+
+    @Param({"10", "1000", "100000", "1000000"})
+    public int movements;
+
+    private Ingredient ingredient;
+
+    @Setup
+    public void setUp() {
+        ingredient = MenuFixture.ingredient(1L, movements, new Random(42));
+        // Premier appel hors mesure : construction de l'index
+        ingredient.getAvailableQuantity();
+    }
+
+    @Benchmark
+    public Double availableQuantity() {
+        return ingredient.getAvailableQuantity();
+    }
+
+    @Benchmark
+    public Double availableQuantityAt() {
+        return ingredient.getAvailableQuantityAt(randomInstant());
+    }
+
+    // Algorithme précédent, conservé comme référence
+    @Benchmark
+    public double fullScanAt() {
+        Instant datetime = randomInstant();
+        double quantity = 0;
+        for (StockMovement stockMovement : ingredient.getStockMovements()) {
+            if (!stockMovement.getCreationDatetime().isAfter(datetime)) {
+                if (StockMovementType.IN.equals(stockMovement.getMovementType())) {
+                    quantity += stockMovement.getQuantity();
+                } else if (StockMovementType.OUT.equals(stockMovement.getMovementType())) {
+                    quantity -= stockMovement.getQuantity();
+                }
+            }
+        }
+        return quantity;
+    }
+
+    private Instant randomInstant() {
+        return MenuFixture.START.plusSeconds(ThreadLocalRandom.current().nextLong(movements * 60L));
+    }
+}
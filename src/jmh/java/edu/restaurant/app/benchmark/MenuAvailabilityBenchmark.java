@@ -0,0 +1,69 @@
+package edu.restaurant.app.benchmark;
+
+import edu.restaurant.app.dao.entity.*;
+import edu.restaurant.app.dao.operations.MenuAvailability;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Disponibilité de tout le menu : plat par plat, en une passe avec {@link MenuAvailability},
+ * et mise à jour incrémentale après un mouvement de stock.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class MenuAvailabilityBenchmark {
+    private static final int INGREDIENTS_PER_DISH = 5;
+
+    @Param({"500"})
+    public int dishes;
+
+    @Param({"100"})
+    public int movements;
+
+    private List<Ingredient> ingredients;
+    private List<Dish> menu;
+    private MenuAvailability availability;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        ingredients = MenuFixture.ingredients(dishes / 2, movements, random);
+        menu = MenuFixture.menu(dishes, INGREDIENTS_PER_DISH, ingredients, random);
+        availability = new MenuAvailability(menu, StockLevelProvider.IN_MEMORY);
+    }
+
+    // What the POS did before: every dish replays the stock of each of its ingredients
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public double perDish() {
+        double total = 0;
+        for (Dish dish : menu) {
+            total += dish.getAvailableQuantity();
+        }
+        return total;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public Map<Dish, Double> refresh() {
+        return availability.refresh();
+    }
+
+    // An order consumes an ingredient, then a delivery brings it back so the stock does not drift
+    @Benchmark
+    public int applyMovement() {
+        Ingredient ingredient = ingredients.get(ThreadLocalRandom.current().nextInt(ingredients.size()));
+        int changed = availability.apply(new StockMovement(null, ingredient, 3.0, Unit.G, StockMovementType.OUT, MenuFixture.START)).size();
+        return changed + availability.apply(new StockMovement(null, ingredient, 3.0, Unit.G, StockMovementType.IN, MenuFixture.START)).size();
+    }
+}
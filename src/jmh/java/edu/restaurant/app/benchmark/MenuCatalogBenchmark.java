@@ -0,0 +1,76 @@
+package edu.restaurant.app.benchmark;
+
+import edu.restaurant.app.dao.entity.Dish;
+import edu.restaurant.app.dao.entity.Ingredient;
+import edu.restaurant.app.dao.operations.MenuCatalog;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Catalogue du menu en mémoire : lecture d'un plat et coût d'un rechargement.
+ * L'empreinte mémoire du catalogue (tas occupé après GC, avant et après chargement) est affichée au démarrage de l'essai.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class MenuCatalogBenchmark {
+    private static final int INGREDIENTS_PER_DISH = 5;
+    private static final int PRICES_PER_INGREDIENT = MenuFixture.PRICES_PER_INGREDIENT;
+
+    @Param({"5000"})
+    public int dishes;
+
+    private List<Dish> menu;
+    private MenuCatalog catalog;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        long before = usedHeapAfterGc();
+        Random random = new Random(42);
+        // Catalog ingredients carry prices but no stock history: a single opening movement each
+        List<Ingredient> ingredients = MenuFixture.ingredients(dishes / 2, 1, random);
+        menu = MenuFixture.menu(dishes, INGREDIENTS_PER_DISH, ingredients, random);
+        catalog = new MenuCatalog(() -> menu);
+        catalog.reload();
+        long footprint = usedHeapAfterGc() - before;
+        System.out.printf("Catalog of %d dishes, %d ingredients, %d prices: %.1f MB retained (%d bytes per dish)%n",
+                dishes, ingredients.size(), ingredients.size() * PRICES_PER_INGREDIENT,
+                footprint / (1024.0 * 1024.0), footprint / dishes);
+    }
+
+    @Benchmark
+    public Dish findById() {
+        return catalog.findById(1L + ThreadLocalRandom.current().nextInt(dishes)).orElseThrow();
+    }
+
+    @Benchmark
+    public Double grossMargin() {
+        return catalog.findById(1L + ThreadLocalRandom.current().nextInt(dishes)).orElseThrow().getGrossMargin();
+    }
+
+    // Rebuilds the read-only lists and the id map of an already loaded menu (no database round trip)
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public int reload() {
+        catalog.reload();
+        return catalog.size();
+    }
+
+    private static long usedHeapAfterGc() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
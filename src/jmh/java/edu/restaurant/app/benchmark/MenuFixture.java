@@ -0,0 +1,93 @@
+package edu.restaurant.app.benchmark;
+
+import edu.restaurant.app.dao.entity.*;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Données synthétiques des benchmarks : ingrédients avec prix et mouvements, plats, commandes.
+ * Tout est généré avec un Random fourni pour que deux exécutions mesurent les mêmes données.
+ */
+final class MenuFixture {
+    static final Instant START = Instant.parse("2025-01-01T00:00:00Z");
+    static final LocalDate FIRST_PRICE_DATE = LocalDate.of(2024, 1, 1);
+    static final int PRICES_PER_INGREDIENT = 12;
+
+    private MenuFixture() {
+    }
+
+    // Un gros stock initial puis des entrées / sorties alternées, une par minute
+    static Ingredient ingredient(long id, int movements, Random random) {
+        List<Price> prices = new ArrayList<>(PRICES_PER_INGREDIENT);
+        for (int i = 0; i < PRICES_PER_INGREDIENT; i++) {
+            prices.add(new Price((long) i, null, 100.0 + random.nextInt(900), FIRST_PRICE_DATE.plusMonths(i)));
+        }
+        List<StockMovement> stockMovements = new ArrayList<>(movements);
+        stockMovements.add(new StockMovement(0L, null, 1_000_000_000.0, Unit.G, StockMovementType.IN, START));
+        for (int i = 1; i < movements; i++) {
+            StockMovementType type = i % 3 == 0 ? StockMovementType.OUT : StockMovementType.IN;
+            stockMovements.add(new StockMovement((long) i, null, (double) random.nextInt(20),
+                    Unit.G, type, START.plusSeconds(i * 60L)));
+        }
+        return new Ingredient(id, "Ingredient-" + id, prices, stockMovements);
+    }
+
+    static List<Ingredient> ingredients(int count, int movements, Random random) {
+        List<Ingredient> ingredients = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ingredients.add(ingredient(i + 1, movements, random));
+        }
+        return ingredients;
+    }
+
+    static Dish dish(long id, List<Ingredient> ingredients, Random random) {
+        List<DishIngredient> dishIngredients = new ArrayList<>(ingredients.size());
+        for (Ingredient ingredient : ingredients) {
+            dishIngredients.add(new DishIngredient(null, ingredient, 1.0 + random.nextInt(3), Unit.G));
+        }
+        return new Dish(id, "Dish-" + id, dishIngredients, 10_000.0 + random.nextInt(20_000));
+    }
+
+    // Chaque plat utilise ingredientsPerDish ingrédients tirés dans le stock commun
+    static List<Dish> menu(int dishes, int ingredientsPerDish, List<Ingredient> ingredients, Random random) {
+        List<Dish> menu = new ArrayList<>(dishes);
+        for (int i = 0; i < dishes; i++) {
+            List<Ingredient> dishIngredients = new ArrayList<>(ingredientsPerDish);
+            for (int j = 0; j < ingredientsPerDish; j++) {
+                dishIngredients.add(ingredients.get(random.nextInt(ingredients.size())));
+            }
+            menu.add(dish(i + 1, dishIngredients, random));
+        }
+        return menu;
+    }
+
+    // Commande au statut CREATED ; les lignes sont posées directement pour ne pas dépendre de addDishOrder
+    static Order order(List<Dish> menu, int lines, Random random) {
+        Order order = new Order("BENCH-" + lines);
+        order.setId(1L);
+        List<DishOrder> dishOrders = new ArrayList<>(lines);
+        for (int i = 0; i < lines; i++) {
+            DishOrder dishOrder = new DishOrder(order.getId(), menu.get(random.nextInt(menu.size())), 1 + random.nextInt(3));
+            dishOrder.setId((long) i + 1);
+            dishOrders.add(dishOrder);
+        }
+        order.setDishOrders(dishOrders);
+        return order;
+    }
+
+    // Annule la confirmation pour que la commande puisse être confirmée à nouveau
+    static void revertConfirmation(Order order) {
+        removeLast(order.getStatusHistory());
+        for (DishOrder dishOrder : order.getDishOrders()) {
+            removeLast(dishOrder.getStatusHistory());
+        }
+    }
+
+    private static void removeLast(List<?> list) {
+        list.remove(list.size() - 1);
+    }
+}
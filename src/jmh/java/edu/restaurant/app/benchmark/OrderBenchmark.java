@@ -0,0 +1,62 @@
+package edu.restaurant.app.benchmark;
+
+import edu.restaurant.app.dao.entity.Ingredient;
+import edu.restaurant.app.dao.entity.Order;
+import edu.restaurant.app.dao.entity.OrderStatus;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Calculs d'une commande selon son nombre de lignes, sur un menu de 50 plats à 5 ingrédients
+ * (200 ingrédients, 100 mouvements chacun).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class OrderBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    public int lines;
+
+    private Order order;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        List<Ingredient> ingredients = MenuFixture.ingredients(200, 100, random);
+        order = MenuFixture.order(MenuFixture.menu(50, 5, ingredients, random), lines, random);
+    }
+
+    // Inclut l'annulation de la confirmation (retrait du dernier statut), linéaire en nombre de lignes
+    @Benchmark
+    public OrderStatus confirm() {
+        order.confirm();
+        OrderStatus status = order.getActualStatus();
+        MenuFixture.revertConfirmation(order);
+        return status;
+    }
+
+    @Benchmark
+    public Double totalAmount() {
+        return order.getTotalAmount();
+    }
+
+    @Benchmark
+    public OrderStatus actualStatus() {
+        return order.getActualStatus();
+    }
+
+    // Aucun changement de statut : mesure le calcul à partir des statuts des plats
+    @Benchmark
+    public OrderStatus updateStatusBasedOnDishes() {
+        order.updateStatusBasedOnDishes();
+        return order.getActualStatus();
+    }
+}
@@ -0,0 +1,121 @@
+package edu.restaurant.app.benchmark;
+
+import edu.restaurant.app.dao.DataSource;
+import edu.restaurant.app.dao.entity.Dish;
+import edu.restaurant.app.dao.entity.DishOrder;
+import edu.restaurant.app.dao.entity.Order;
+import edu.restaurant.app.dao.memory.InMemoryDaoFactory;
+import edu.restaurant.app.dao.operations.BulkSaveResult;
+import edu.restaurant.app.dao.operations.DaoFactory;
+import edu.restaurant.app.dao.operations.JdbcDaoFactory;
+import edu.restaurant.app.dao.operations.OrderOperations;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rejeu de commandes hors ligne : sauvegarde commande par commande contre sauvegarde en lots.
+ * Nécessite la base configurée dans le .env ; le compteur rows donne les lignes écrites par seconde
+ * (commande, plats et statuts). Les commandes créées sont supprimées en fin d'essai.
+ * Avec -p store=memory, les mêmes sauvegardes passent par les DAO en mémoire : le coût hors base.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrderBulkSaveBenchmark {
+    private static final int LINES_PER_ORDER = 3;
+
+    @Param({"2000"})
+    public int orders;
+
+    // 0 : référence, une connexion et une transaction par commande (save)
+    @Param({"0", "1", "100", "1000"})
+    public int chunkSize;
+
+    @Param({"jdbc"})
+    public String store;
+
+    private OrderOperations orderCrudOperations;
+    private Dish dish;
+    private List<Order> batch;
+    private final List<Long> createdOrderIds = new ArrayList<>();
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Rows {
+        public long rows;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        DaoFactory daoFactory;
+        if (store.equals("memory")) {
+            daoFactory = new InMemoryDaoFactory();
+            daoFactory.dishes().saveAll(List.of(new Dish(1L, "Hot dog", null, 15000.0)));
+        } else {
+            daoFactory = new JdbcDaoFactory(new DataSource());
+        }
+        orderCrudOperations = daoFactory.orders();
+        dish = daoFactory.dishes().findById(1L);
+    }
+
+    // Commandes neuves à chaque appel : une commande déjà sauvegardée ne serait plus qu'une mise à jour
+    @Setup(Level.Invocation)
+    public void newBatch() {
+        batch = new ArrayList<>(orders);
+        for (int i = 0; i < orders; i++) {
+            Order order = new Order("BENCH-BULK-" + System.nanoTime() + "-" + i);
+            for (int j = 0; j < LINES_PER_ORDER; j++) {
+                order.addDishOrder(new DishOrder(null, dish, j + 1));
+            }
+            batch.add(order);
+        }
+    }
+
+    @TearDown(Level.Invocation)
+    public void collectIds() {
+        for (Order order : batch) {
+            if (order.getId() != null) {
+                createdOrderIds.add(order.getId());
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        createdOrderIds.forEach(orderCrudOperations::delete);
+    }
+
+    @Benchmark
+    public int save(Rows rows) {
+        List<Order> saved;
+        if (chunkSize == 0) {
+            for (Order order : batch) {
+                orderCrudOperations.save(order);
+            }
+            saved = batch;
+        } else {
+            BulkSaveResult<Order> result = orderCrudOperations.saveAll(batch, chunkSize);
+            saved = result.getSaved();
+        }
+        rows.rows += writtenRows(saved);
+        return saved.size();
+    }
+
+    private static long writtenRows(List<Order> saved) {
+        long rows = 0;
+        for (Order order : saved) {
+            rows += 1 + order.getStatusHistory().size();
+            for (DishOrder dishOrder : order.getDishOrders()) {
+                rows += 1 + dishOrder.getStatusHistory().size();
+            }
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,105 @@
+package edu.restaurant.app.benchmark;
+
+import edu.restaurant.app.dao.DataSource;
+import edu.restaurant.app.dao.entity.Ingredient;
+import edu.restaurant.app.dao.entity.StockMovement;
+import edu.restaurant.app.dao.entity.StockMovementType;
+import edu.restaurant.app.dao.entity.Unit;
+import edu.restaurant.app.dao.operations.StockMovementCrudOperations;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Import de mouvements de stock : INSERT par lot (saveAll) contre COPY (ingest).
+ * Nécessite la base configurée dans le .env ; le compteur rows donne les mouvements insérés par seconde.
+ * Les mouvements sont rattachés à un ingrédient créé pour l'essai et supprimés avec lui.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StockMovementIngestBenchmark {
+    // Au-delà des ids de la séquence, pour que les deux chemins insèrent des ids fournis
+    private static final long FIRST_ID = 1L << 40;
+
+    @Param({"10000", "100000"})
+    public int movements;
+
+    @Param({"10000"})
+    public int chunkSize;
+
+    private DataSource dataSource;
+    private StockMovementCrudOperations stockMovementCrudOperations;
+    private Ingredient ingredient;
+    private long nextId = FIRST_ID;
+    private List<StockMovement> batch;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Rows {
+        public long rows;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        dataSource = new DataSource();
+        stockMovementCrudOperations = new StockMovementCrudOperations();
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                     "insert into ingredient (name) values ('BENCH-INGEST-" + System.nanoTime() + "') returning id");
+             ResultSet resultSet = statement.executeQuery()) {
+            resultSet.next();
+            ingredient = new Ingredient();
+            ingredient.setId(resultSet.getLong("id"));
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void newBatch() {
+        batch = new ArrayList<>(movements);
+        for (int i = 0; i < movements; i++) {
+            StockMovementType type = i % 3 == 0 ? StockMovementType.OUT : StockMovementType.IN;
+            batch.add(new StockMovement(nextId++, ingredient, 1.0 + i % 20, Unit.G, type, MenuFixture.START.plusSeconds(i * 60L)));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            for (String sql : List.of("delete from stock_movement where id_ingredient = ?", "delete from ingredient where id = ?")) {
+                try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                    statement.setLong(1, ingredient.getId());
+                    statement.executeUpdate();
+                }
+            }
+        }
+    }
+
+    // saveAll envoie tout en un seul lot ; on le découpe comme ingest pour comparer à transactions égales
+    @Benchmark
+    public int batchedInsert(Rows rows) {
+        int inserted = 0;
+        for (int from = 0; from < batch.size(); from += chunkSize) {
+            inserted += stockMovementCrudOperations.saveAll(batch.subList(from, Math.min(from + chunkSize, batch.size()))).size();
+        }
+        rows.rows += inserted;
+        return inserted;
+    }
+
+    @Benchmark
+    public long copy(Rows rows) {
+        long inserted = stockMovementCrudOperations.ingest(batch.iterator(), chunkSize);
+        rows.rows += inserted;
+        return inserted;
+    }
+}
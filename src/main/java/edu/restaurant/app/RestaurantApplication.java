@@ -1,10 +1,29 @@
 package edu.restaurant.app;
 
+import edu.restaurant.app.dao.DataSource;
+import edu.restaurant.app.dao.migration.MigrationRunner;
+import edu.restaurant.app.dao.migration.PartitionMaintenance;
+import io.github.cdimascio.dotenv.Dotenv;
+
+import java.util.ArrayList;
+import java.util.List;
 import java.util.logging.Logger;
 
 public class RestaurantApplication {
     public static void main(String[] args) {
         Logger logger = Logger.getLogger("RestaurantApplication");
         logger.info("Starting application");
+
+        // Schema first; sample data only where DATABASE_LOAD_TEST_DATA=true
+        List<String> locations = new ArrayList<>(List.of(MigrationRunner.SCHEMA_LOCATION));
+        if (Boolean.parseBoolean(Dotenv.load().get("DATABASE_LOAD_TEST_DATA", "false"))) {
+            locations.add(MigrationRunner.TEST_DATA_LOCATION);
+        }
+        DataSource dataSource = new DataSource();
+        new MigrationRunner(dataSource, locations).migrate();
+        // History tables are partitioned by month: the coming months must exist before rows reach them.
+        // This process exits once done, so run it again from a scheduled job (e.g. daily cron) to keep them ahead;
+        // long-lived processes call PartitionMaintenance.start() instead
+        new PartitionMaintenance(dataSource).ensureFuturePartitions();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,418 @@
+package edu.restaurant.app.dao;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Pool borné de connexions physiques.
+ * Les connexions rendues à l'appelant sont des proxys dont close() remet la connexion physique dans le pool.
+ */
+public class ConnectionPool implements AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(ConnectionPool.class.getName());
+
+    @FunctionalInterface
+    public interface ConnectionFactory {
+        Connection create() throws SQLException;
+    }
+
+    private final ConnectionFactory connectionFactory;
+    private final ConnectionPoolConfig config;
+    // LIFO: the most recently used connections are borrowed first, the oldest ones age out
+    private final LinkedBlockingDeque<PooledConnection> idleConnections = new LinkedBlockingDeque<>();
+    private final Set<PooledConnection> activeConnections = ConcurrentHashMap.newKeySet();
+    private final Semaphore permits;
+    private final AtomicInteger totalConnections = new AtomicInteger();
+    private final AtomicInteger waitingThreads = new AtomicInteger();
+    private final LongAdder acquiredCount = new LongAdder();
+    private final LongAdder acquireTimeoutCount = new LongAdder();
+    private final LongAdder createdCount = new LongAdder();
+    private final LongAdder destroyedCount = new LongAdder();
+    private final LongAdder leakCount = new LongAdder();
+    private final LongAdder executedStatementCount = new LongAdder();
+    private final LongAdder statementCacheHitCount = new LongAdder();
+    private final LongAdder statementCacheMissCount = new LongAdder();
+    private final LatencyHistogram acquireLatency = new LatencyHistogram();
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed;
+
+    public ConnectionPool(ConnectionFactory connectionFactory, ConnectionPoolConfig config) {
+        if (config.getMaxSize() <= 0 || config.getMinSize() < 0 || config.getMinSize() > config.getMaxSize()) {
+            throw new IllegalArgumentException("Invalid pool sizes: " + config);
+        }
+        this.connectionFactory = connectionFactory;
+        this.config = config;
+        this.permits = new Semaphore(config.getMaxSize(), true);
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "connection-pool-housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        fillToMinimum();
+        long period = config.getHousekeepingPeriodMillis();
+        housekeeper.scheduleWithFixedDelay(this::housekeep, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+        long start = System.nanoTime();
+        boolean acquired;
+        waitingThreads.incrementAndGet();
+        try {
+            acquired = permits.tryAcquire(config.getAcquireTimeoutMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a connection", e);
+        } finally {
+            waitingThreads.decrementAndGet();
+        }
+        if (!acquired) {
+            acquireTimeoutCount.increment();
+            throw new SQLTransientConnectionException("Timed out after " + config.getAcquireTimeoutMillis()
+                    + " ms waiting for a connection (" + getStatistics() + ")");
+        }
+
+        try {
+            PooledConnection pooledConnection = takeIdleOrCreate();
+            pooledConnection.markBorrowed(config.getLeakDetectionThresholdMillis() > 0);
+            activeConnections.add(pooledConnection);
+            acquiredCount.increment();
+            acquireLatency.record(System.nanoTime() - start);
+            return pooledConnection.newHandle();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    public int getMaxSize() {
+        return config.getMaxSize();
+    }
+
+    public PoolStatistics getStatistics() {
+        return new PoolStatistics(
+                activeConnections.size(),
+                idleConnections.size(),
+                totalConnections.get(),
+                waitingThreads.get(),
+                acquiredCount.sum(),
+                acquireTimeoutCount.sum(),
+                createdCount.sum(),
+                destroyedCount.sum(),
+                leakCount.sum(),
+                executedStatementCount.sum(),
+                statementCacheHitCount.sum(),
+                statementCacheMissCount.sum(),
+                acquireLatency
+        );
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        housekeeper.shutdownNow();
+        PooledConnection idle;
+        while ((idle = idleConnections.pollFirst()) != null) {
+            destroy(idle);
+        }
+    }
+
+    private PooledConnection takeIdleOrCreate() throws SQLException {
+        PooledConnection candidate;
+        while ((candidate = idleConnections.pollFirst()) != null) {
+            if (isValid(candidate)) {
+                return candidate;
+            }
+            LOGGER.fine(() -> "Discarding broken pooled connection");
+            destroy(candidate);
+        }
+        return create();
+    }
+
+    private boolean isValid(PooledConnection pooledConnection) {
+        try {
+            return pooledConnection.physicalConnection.isValid(config.getValidationTimeoutSeconds());
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private PooledConnection create() throws SQLException {
+        totalConnections.incrementAndGet();
+        try {
+            PooledConnection pooledConnection = new PooledConnection(connectionFactory.create());
+            createdCount.increment();
+            return pooledConnection;
+        } catch (SQLException | RuntimeException e) {
+            totalConnections.decrementAndGet();
+            throw e;
+        }
+    }
+
+    private void destroy(PooledConnection pooledConnection) {
+        totalConnections.decrementAndGet();
+        destroyedCount.increment();
+        if (pooledConnection.statementCache != null) {
+            pooledConnection.statementCache.close();
+        }
+        try {
+            pooledConnection.physicalConnection.close();
+        } catch (SQLException e) {
+            LOGGER.log(Level.FINE, "Error while closing physical connection", e);
+        }
+    }
+
+    private void release(PooledConnection pooledConnection) {
+        if (!activeConnections.remove(pooledConnection)) {
+            return;
+        }
+        try {
+            if (pooledConnection.statementCache != null) {
+                pooledConnection.statementCache.releaseAll();
+            }
+            if (!closed && totalConnections.get() <= config.getMaxSize() && pooledConnection.reset()) {
+                pooledConnection.lastReleasedAt = System.currentTimeMillis();
+                idleConnections.offerFirst(pooledConnection);
+                // close() may have drained the idle deque in the meantime
+                if (closed && idleConnections.remove(pooledConnection)) {
+                    destroy(pooledConnection);
+                }
+            } else {
+                destroy(pooledConnection);
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void fillToMinimum() {
+        while (!closed && totalConnections.get() < config.getMinSize()) {
+            try {
+                PooledConnection pooledConnection = create();
+                pooledConnection.lastReleasedAt = System.currentTimeMillis();
+                idleConnections.offerLast(pooledConnection);
+            } catch (SQLException | RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Unable to open pooled connection: " + e.getMessage(), e);
+                return;
+            }
+        }
+    }
+
+    private void housekeep() {
+        try {
+            evictIdleConnections();
+            detectLeaks();
+            fillToMinimum();
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Connection pool housekeeping failed", e);
+        }
+    }
+
+    private void evictIdleConnections() {
+        long now = System.currentTimeMillis();
+        Iterator<PooledConnection> oldestFirst = idleConnections.descendingIterator();
+        while (oldestFirst.hasNext() && totalConnections.get() > config.getMinSize()) {
+            PooledConnection idle = oldestFirst.next();
+            if (now - idle.lastReleasedAt > config.getIdleTimeoutMillis() && idleConnections.remove(idle)) {
+                destroy(idle);
+            }
+        }
+    }
+
+    private void detectLeaks() {
+        long threshold = config.getLeakDetectionThresholdMillis();
+        if (threshold <= 0) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        for (PooledConnection active : activeConnections) {
+            if (!active.leakReported && now - active.borrowedAt > threshold) {
+                active.leakReported = true;
+                leakCount.increment();
+                LOGGER.log(Level.WARNING, "Connection held for more than " + threshold
+                        + " ms, possible leak. Borrowed at:", active.borrowStackTrace);
+            }
+        }
+    }
+
+    private class PooledConnection {
+        private final Connection physicalConnection;
+        // Null when statement caching is disabled
+        private final StatementCache statementCache;
+        private volatile long borrowedAt;
+        private volatile long lastReleasedAt;
+        private volatile Throwable borrowStackTrace;
+        private volatile boolean leakReported;
+
+        private PooledConnection(Connection physicalConnection) {
+            this.physicalConnection = physicalConnection;
+            this.statementCache = config.getStatementCacheSize() > 0
+                    ? new StatementCache(config.getStatementCacheSize(), statementCacheHitCount, statementCacheMissCount)
+                    : null;
+        }
+
+        private void markBorrowed(boolean captureStackTrace) {
+            borrowedAt = System.currentTimeMillis();
+            leakReported = false;
+            borrowStackTrace = captureStackTrace ? new Throwable("Connection borrowed here") : null;
+        }
+
+        // Puts the physical connection back in its default state before reuse
+        private boolean reset() {
+            try {
+                if (!physicalConnection.getAutoCommit()) {
+                    physicalConnection.rollback();
+                    physicalConnection.setAutoCommit(true);
+                }
+                physicalConnection.clearWarnings();
+                return !physicalConnection.isClosed();
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        private Connection newHandle() {
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    new Handle());
+        }
+
+        // One handle per borrow, so that closing a stale handle twice cannot release someone else's connection
+        private class Handle implements InvocationHandler {
+            private boolean handleClosed;
+
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                switch (method.getName()) {
+                    case "close":
+                        if (!handleClosed) {
+                            handleClosed = true;
+                            release(PooledConnection.this);
+                        }
+                        return null;
+                    case "isClosed":
+                        return handleClosed || physicalConnection.isClosed();
+                    case "equals":
+                        return proxy == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    case "toString":
+                        return "PooledConnection{" + physicalConnection + '}';
+                    default:
+                        break;
+                }
+                if (handleClosed) {
+                    throw new SQLException("Connection is closed");
+                }
+                String cacheKey = statementCache != null ? statementCacheKey(method, args) : null;
+                if (cacheKey != null) {
+                    StatementCache.Entry entry = statementCache.borrow(cacheKey, () -> prepare(method, args));
+                    if (entry != null) {
+                        return wrapStatement(entry.getStatement(), method.getReturnType(), (Connection) proxy, entry);
+                    }
+                }
+                Object result;
+                try {
+                    result = method.invoke(physicalConnection, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+                if (result instanceof Statement) {
+                    return wrapStatement((Statement) result, method.getReturnType(), (Connection) proxy, null);
+                }
+                return result;
+            }
+        }
+
+        private PreparedStatement prepare(Method method, Object[] args) throws SQLException {
+            try {
+                return (PreparedStatement) method.invoke(physicalConnection, args);
+            } catch (InvocationTargetException e) {
+                if (e.getCause() instanceof SQLException sqlException) {
+                    throw sqlException;
+                }
+                throw new SQLException(e.getCause());
+            } catch (IllegalAccessException e) {
+                throw new SQLException(e);
+            }
+        }
+
+        // Only the common prepareStatement variants are cached; the key includes the generated-keys option
+        private String statementCacheKey(Method method, Object[] args) {
+            if (!method.getName().equals("prepareStatement")) {
+                return null;
+            }
+            Class<?>[] parameterTypes = method.getParameterTypes();
+            if (parameterTypes.length == 1) {
+                return (String) args[0];
+            }
+            if (parameterTypes.length == 2 && parameterTypes[1] == int.class) {
+                return args[0] + "\u0000keys=" + args[1];
+            }
+            if (parameterTypes.length == 2 && parameterTypes[1] == String[].class) {
+                return args[0] + "\u0000columns=" + String.join(",", (String[]) args[1]);
+            }
+            return null;
+        }
+
+        // Counts round trips and keeps statement.getConnection() on the pooled handle.
+        // A cached statement is given back to the cache on close() instead of being closed.
+        private Object wrapStatement(Statement statement, Class<?> statementType, Connection handle, StatementCache.Entry cachedEntry) {
+            boolean[] statementClosed = new boolean[1];
+            return Proxy.newProxyInstance(
+                    statementType.getClassLoader(),
+                    new Class<?>[]{statementType},
+                    (proxy, method, args) -> {
+                        String name = method.getName();
+                        if (name.equals("getConnection")) {
+                            return handle;
+                        }
+                        if (cachedEntry != null) {
+                            if (name.equals("close")) {
+                                if (!statementClosed[0]) {
+                                    statementClosed[0] = true;
+                                    cachedEntry.giveBack();
+                                }
+                                return null;
+                            }
+                            if (name.equals("isClosed")) {
+                                return statementClosed[0] || statement.isClosed();
+                            }
+                            if (statementClosed[0]) {
+                                throw new SQLException("Statement is closed");
+                            }
+                        }
+                        if (name.startsWith("execute")) {
+                            executedStatementCount.increment();
+                        }
+                        try {
+                            return method.invoke(statement, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    });
+        }
+    }
+}
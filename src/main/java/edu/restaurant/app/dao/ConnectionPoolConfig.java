@@ -0,0 +1,92 @@
+package edu.restaurant.app.dao;
+
+public class ConnectionPoolConfig {
+    private int minSize = 2;
+    private int maxSize = 10;
+    private long acquireTimeoutMillis = 30_000;
+    private long idleTimeoutMillis = 600_000;
+    private int validationTimeoutSeconds = 5;
+    // 0 disables leak detection
+    private long leakDetectionThresholdMillis = 0;
+    private long housekeepingPeriodMillis = 30_000;
+    // Prepared statements kept open per physical connection, 0 disables the cache
+    private int statementCacheSize = 64;
+
+    public int getMinSize() {
+        return minSize;
+    }
+
+    public void setMinSize(int minSize) {
+        this.minSize = minSize;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public long getAcquireTimeoutMillis() {
+        return acquireTimeoutMillis;
+    }
+
+    public void setAcquireTimeoutMillis(long acquireTimeoutMillis) {
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+    }
+
+    public long getIdleTimeoutMillis() {
+        return idleTimeoutMillis;
+    }
+
+    public void setIdleTimeoutMillis(long idleTimeoutMillis) {
+        this.idleTimeoutMillis = idleTimeoutMillis;
+    }
+
+    public int getValidationTimeoutSeconds() {
+        return validationTimeoutSeconds;
+    }
+
+    public void setValidationTimeoutSeconds(int validationTimeoutSeconds) {
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+    }
+
+    public long getLeakDetectionThresholdMillis() {
+        return leakDetectionThresholdMillis;
+    }
+
+    public void setLeakDetectionThresholdMillis(long leakDetectionThresholdMillis) {
+        this.leakDetectionThresholdMillis = leakDetectionThresholdMillis;
+    }
+
+    public long getHousekeepingPeriodMillis() {
+        return housekeepingPeriodMillis;
+    }
+
+    public void setHousekeepingPeriodMillis(long housekeepingPeriodMillis) {
+        this.housekeepingPeriodMillis = housekeepingPeriodMillis;
+    }
+
+    public int getStatementCacheSize() {
+        return statementCacheSize;
+    }
+
+    public void setStatementCacheSize(int statementCacheSize) {
+        this.statementCacheSize = statementCacheSize;
+    }
+
+    @Override
+    public String toString() {
+        return "ConnectionPoolConfig{" +
+                "minSize=" + minSize +
+                ", maxSize=" + maxSize +
+                ", acquireTimeoutMillis=" + acquireTimeoutMillis +
+                ", idleTimeoutMillis=" + idleTimeoutMillis +
+                ", validationTimeoutSeconds=" + validationTimeoutSeconds +
+                ", leakDetectionThresholdMillis=" + leakDetectionThresholdMillis +
+                ", housekeepingPeriodMillis=" + housekeepingPeriodMillis +
+                ", statementCacheSize=" + statementCacheSize +
+                '}';
+    }
+}
@@ -4,14 +4,21 @@ import io.github.cdimascio.dotenv.Dotenv;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class DataSource {
     private static final int DEFAULT_PORT = 5432;
+    private static final int DEFAULT_PREPARE_THRESHOLD = 3;
+    // Every DAO builds its own DataSource: pools are shared per database so the handshake is paid once
+    private static final Map<String, ConnectionPool> POOLS = new ConcurrentHashMap<>();
     private final String host;
     private final String user;
     private final String password;
     private final String database;
     private final String jdbcUrl;
+    private final ConnectionPool pool;
 
     static {
         try {
@@ -35,13 +42,48 @@ public class DataSource {
         System.out.println("🔍 DATABASE_NAME: " + database);
 
         this.jdbcUrl = "jdbc:postgresql://" + host + ":" + DEFAULT_PORT + "/" + database;
+
+        String url = jdbcUrl;
+        Properties connectionProperties = new Properties();
+        connectionProperties.setProperty("user", user);
+        connectionProperties.setProperty("password", password);
+        // Executions of the same SQL on a connection before the driver switches to a named server-side statement.
+        // Pooled connections keep their prepared statements (see StatementCache), so hot queries reach it quickly.
+        connectionProperties.setProperty("prepareThreshold",
+                dotenv.get("DATABASE_PREPARE_THRESHOLD", String.valueOf(DEFAULT_PREPARE_THRESHOLD)));
+        this.pool = POOLS.computeIfAbsent(user + "@" + jdbcUrl, key -> new ConnectionPool(
+                () -> DriverManager.getConnection(url, connectionProperties),
+                poolConfig(dotenv)));
+    }
+
+    private static ConnectionPoolConfig poolConfig(Dotenv dotenv) {
+        ConnectionPoolConfig config = new ConnectionPoolConfig();
+        config.setMinSize(Integer.parseInt(dotenv.get("DATABASE_POOL_MIN_SIZE", String.valueOf(config.getMinSize()))));
+        config.setMaxSize(Integer.parseInt(dotenv.get("DATABASE_POOL_MAX_SIZE", String.valueOf(config.getMaxSize()))));
+        config.setAcquireTimeoutMillis(Long.parseLong(
+                dotenv.get("DATABASE_POOL_ACQUIRE_TIMEOUT_MS", String.valueOf(config.getAcquireTimeoutMillis()))));
+        config.setIdleTimeoutMillis(Long.parseLong(
+                dotenv.get("DATABASE_POOL_IDLE_TIMEOUT_MS", String.valueOf(config.getIdleTimeoutMillis()))));
+        config.setLeakDetectionThresholdMillis(Long.parseLong(
+                dotenv.get("DATABASE_POOL_LEAK_DETECTION_MS", String.valueOf(config.getLeakDetectionThresholdMillis()))));
+        config.setStatementCacheSize(Integer.parseInt(
+                dotenv.get("DATABASE_STATEMENT_CACHE_SIZE", String.valueOf(config.getStatementCacheSize()))));
+        return config;
     }
 
     public Connection getConnection() {
         try {
-            return DriverManager.getConnection(jdbcUrl, user, password);
+            return pool.getConnection();
         } catch (SQLException e) {
             throw new RuntimeException("❌ Erreur de connexion à PostgreSQL", e);
         }
     }
+
+    public int getMaxPoolSize() {
+        return pool.getMaxSize();
+    }
+
+    public PoolStatistics getPoolStatistics() {
+        return pool.getStatistics();
+    }
 }
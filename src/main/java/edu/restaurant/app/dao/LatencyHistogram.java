@@ -0,0 +1,69 @@
+package edu.restaurant.app.dao;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogramme de latences à buckets fixes (bornes supérieures en microsecondes), sans verrou.
+ */
+public class LatencyHistogram {
+    private static final long[] BUCKET_UPPER_BOUNDS_MICROS = {
+            50, 100, 250, 500, 1_000, 2_500, 5_000, 10_000, 25_000, 50_000, 100_000, 250_000, 500_000, 1_000_000
+    };
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_UPPER_BOUNDS_MICROS.length + 1);
+    private final LongAdder totalNanos = new LongAdder();
+
+    public void record(long elapsedNanos) {
+        long micros = elapsedNanos / 1_000;
+        int bucket = 0;
+        while (bucket < BUCKET_UPPER_BOUNDS_MICROS.length && micros > BUCKET_UPPER_BOUNDS_MICROS[bucket]) {
+            bucket++;
+        }
+        counts.incrementAndGet(bucket);
+        totalNanos.add(elapsedNanos);
+    }
+
+    public long[] getBucketUpperBoundsMicros() {
+        return BUCKET_UPPER_BOUNDS_MICROS.clone();
+    }
+
+    // The last count is the overflow bucket (above the last bound)
+    public long[] getCounts() {
+        long[] snapshot = new long[counts.length()];
+        for (int i = 0; i < snapshot.length; i++) {
+            snapshot[i] = counts.get(i);
+        }
+        return snapshot;
+    }
+
+    public long getCount() {
+        long count = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            count += counts.get(i);
+        }
+        return count;
+    }
+
+    public double getMeanMicros() {
+        long count = getCount();
+        return count == 0 ? 0.0 : totalNanos.sum() / 1_000.0 / count;
+    }
+
+    @Override
+    public String toString() {
+        long[] snapshot = getCounts();
+        StringBuilder builder = new StringBuilder("LatencyHistogram{");
+        for (int i = 0; i < snapshot.length; i++) {
+            if (snapshot[i] == 0) {
+                continue;
+            }
+            if (builder.charAt(builder.length() - 1) != '{') {
+                builder.append(", ");
+            }
+            builder.append(i < BUCKET_UPPER_BOUNDS_MICROS.length ? "<=" + BUCKET_UPPER_BOUNDS_MICROS[i] + "us" : ">1s")
+                    .append('=').append(snapshot[i]);
+        }
+        return builder.append('}').toString();
+    }
+}
@@ -0,0 +1,125 @@
+package edu.restaurant.app.dao;
+
+/**
+ * Photo instantanée de l'état du pool de connexions, pour le dimensionner.
+ */
+public class PoolStatistics {
+    private final int activeConnections;
+    private final int idleConnections;
+    private final int totalConnections;
+    private final int waitingThreads;
+    private final long acquiredCount;
+    private final long acquireTimeoutCount;
+    private final long createdCount;
+    private final long destroyedCount;
+    private final long leakCount;
+    private final long executedStatementCount;
+    private final long statementCacheHitCount;
+    private final long statementCacheMissCount;
+    private final long[] acquireLatencyBucketUpperBoundsMicros;
+    private final long[] acquireLatencyCounts;
+    private final double meanAcquireLatencyMicros;
+
+    public PoolStatistics(int activeConnections, int idleConnections, int totalConnections, int waitingThreads,
+                          long acquiredCount, long acquireTimeoutCount, long createdCount, long destroyedCount,
+                          long leakCount, long executedStatementCount, long statementCacheHitCount,
+                          long statementCacheMissCount, LatencyHistogram acquireLatency) {
+        this.activeConnections = activeConnections;
+        this.idleConnections = idleConnections;
+        this.totalConnections = totalConnections;
+        this.waitingThreads = waitingThreads;
+        this.acquiredCount = acquiredCount;
+        this.acquireTimeoutCount = acquireTimeoutCount;
+        this.createdCount = createdCount;
+        this.destroyedCount = destroyedCount;
+        this.leakCount = leakCount;
+        this.executedStatementCount = executedStatementCount;
+        this.statementCacheHitCount = statementCacheHitCount;
+        this.statementCacheMissCount = statementCacheMissCount;
+        this.acquireLatencyBucketUpperBoundsMicros = acquireLatency.getBucketUpperBoundsMicros();
+        this.acquireLatencyCounts = acquireLatency.getCounts();
+        this.meanAcquireLatencyMicros = acquireLatency.getMeanMicros();
+    }
+
+    public int getActiveConnections() {
+        return activeConnections;
+    }
+
+    public int getIdleConnections() {
+        return idleConnections;
+    }
+
+    public int getTotalConnections() {
+        return totalConnections;
+    }
+
+    public int getWaitingThreads() {
+        return waitingThreads;
+    }
+
+    public long getAcquiredCount() {
+        return acquiredCount;
+    }
+
+    public long getAcquireTimeoutCount() {
+        return acquireTimeoutCount;
+    }
+
+    public long getCreatedCount() {
+        return createdCount;
+    }
+
+    public long getDestroyedCount() {
+        return destroyedCount;
+    }
+
+    public long getLeakCount() {
+        return leakCount;
+    }
+
+    // Number of statement executions (round trips) issued through pooled connections
+    public long getExecutedStatementCount() {
+        return executedStatementCount;
+    }
+
+    // prepareStatement calls served by an already prepared statement of the connection
+    public long getStatementCacheHitCount() {
+        return statementCacheHitCount;
+    }
+
+    public long getStatementCacheMissCount() {
+        return statementCacheMissCount;
+    }
+
+    public long[] getAcquireLatencyBucketUpperBoundsMicros() {
+        return acquireLatencyBucketUpperBoundsMicros.clone();
+    }
+
+    // One more entry than the bounds: the last one counts acquisitions slower than the last bound
+    public long[] getAcquireLatencyCounts() {
+        return acquireLatencyCounts.clone();
+    }
+
+    public double getMeanAcquireLatencyMicros() {
+        return meanAcquireLatencyMicros;
+    }
+
+    @Override
+    public String toString() {
+        return "PoolStatistics{" +
+                "active=" + activeConnections +
+                ", idle=" + idleConnections +
+                ", total=" + totalConnections +
+                ", waiting=" + waitingThreads +
+                ", acquired=" + acquiredCount +
+                ", acquireTimeouts=" + acquireTimeoutCount +
+                ", created=" + createdCount +
+                ", destroyed=" + destroyedCount +
+                ", leaks=" + leakCount +
+                ", executedStatements=" + executedStatementCount +
+                ", statementCacheHits=" + statementCacheHitCount +
+                ", statementCacheMisses=" + statementCacheMissCount +
+                ", meanAcquireLatencyMicros=" + String.format("%.1f", meanAcquireLatencyMicros) +
+                '}';
+    }
+}
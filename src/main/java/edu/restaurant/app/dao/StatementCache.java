@@ -0,0 +1,151 @@
+package edu.restaurant.app.dao;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Cache LRU des PreparedStatement d'une connexion physique, indexé par le SQL et les options de clés générées.
+ * Il n'est utilisé que par le fil qui a emprunté la connexion.
+ */
+class StatementCache {
+    private static final Logger LOGGER = Logger.getLogger(StatementCache.class.getName());
+
+    @FunctionalInterface
+    interface StatementFactory {
+        PreparedStatement prepare() throws SQLException;
+    }
+
+    private final int maxSize;
+    private final LongAdder hitCount;
+    private final LongAdder missCount;
+    private final LinkedHashMap<String, Entry> entries;
+
+    StatementCache(int maxSize, LongAdder hitCount, LongAdder missCount) {
+        this.maxSize = maxSize;
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        // Access order: the least recently borrowed statement is evicted first
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() <= StatementCache.this.maxSize) {
+                    return false;
+                }
+                eldest.getValue().evict();
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Statement prêt à l'emploi pour cette clé, ou null s'il est déjà emprunté (requête imbriquée sur le même SQL) :
+     * l'appelant prépare alors un statement hors cache.
+     */
+    Entry borrow(String key, StatementFactory factory) throws SQLException {
+        Entry entry = entries.get(key);
+        if (entry != null && entry.statement.isClosed()) {
+            entries.remove(key);
+            entry = null;
+        }
+        if (entry == null) {
+            missCount.increment();
+            PreparedStatement statement = factory.prepare();
+            try {
+                entry = new Entry(statement);
+            } catch (SQLException e) {
+                statement.close();
+                throw e;
+            }
+            entries.put(key, entry);
+        } else if (entry.borrowed) {
+            missCount.increment();
+            return null;
+        } else {
+            hitCount.increment();
+        }
+        entry.borrowed = true;
+        return entry;
+    }
+
+    // Handles that were never closed by their caller: their statements become available again
+    void releaseAll() {
+        for (Entry entry : new ArrayList<>(entries.values())) {
+            if (entry.borrowed) {
+                entry.giveBack();
+            }
+        }
+    }
+
+    void close() {
+        List<Entry> cached = new ArrayList<>(entries.values());
+        entries.clear();
+        cached.forEach(Entry::closeQuietly);
+    }
+
+    static class Entry {
+        private final PreparedStatement statement;
+        // Settings a borrower may change, restored when the statement goes back to the cache
+        private final int defaultFetchSize;
+        private final int defaultMaxRows;
+        private final int defaultQueryTimeout;
+        private boolean borrowed;
+        private boolean evicted;
+
+        private Entry(PreparedStatement statement) throws SQLException {
+            this.statement = statement;
+            this.defaultFetchSize = statement.getFetchSize();
+            this.defaultMaxRows = statement.getMaxRows();
+            this.defaultQueryTimeout = statement.getQueryTimeout();
+        }
+
+        PreparedStatement getStatement() {
+            return statement;
+        }
+
+        // Logical close: the statement stays prepared on the connection, only its state is cleared
+        void giveBack() {
+            borrowed = false;
+            if (evicted) {
+                closeQuietly();
+                return;
+            }
+            try {
+                ResultSet resultSet = statement.getResultSet();
+                if (resultSet != null) {
+                    resultSet.close();
+                }
+                statement.clearParameters();
+                statement.clearBatch();
+                statement.clearWarnings();
+                statement.setFetchSize(defaultFetchSize);
+                statement.setMaxRows(defaultMaxRows);
+                statement.setQueryTimeout(defaultQueryTimeout);
+            } catch (SQLException e) {
+                closeQuietly();
+            }
+        }
+
+        private void evict() {
+            evicted = true;
+            if (!borrowed) {
+                closeQuietly();
+            }
+        }
+
+        private void closeQuietly() {
+            try {
+                statement.close();
+            } catch (SQLException e) {
+                LOGGER.log(Level.FINE, "Error while closing cached statement", e);
+            }
+        }
+    }
+}
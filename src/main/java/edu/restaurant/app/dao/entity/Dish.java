@@ -105,6 +105,20 @@ public class Dish {
         return allQuantitiesPossible.stream().min(Double::compare).orElse(0.0);
     }
 
+    // Deux instances du même plat en base sont égales ; sans id, une instance n'est égale qu'à elle-même.
+    // Le hashCode change quand l'id est attribué : ne pas modifier l'id d'une clé de Map.
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Dish that)) return false;
+        return id != null && id.equals(that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return id != null ? id.hashCode() : System.identityHashCode(this);
+    }
+
     @Override
     public String toString() {
         return "Dish{" +
@@ -2,7 +2,6 @@ package edu.restaurant.app.dao.entity;
 
 import java.time.Instant;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
 
 public class DishOrder {
@@ -12,6 +11,13 @@ public class DishOrder {
     private Integer quantity;
     private List<OrderDishStatusEntry> statusHistory;
 
+    // Dernier statut connu, tenu à jour comme dans Order
+    private List<OrderDishStatusEntry> indexedStatusHistory;
+    private int indexedStatusCount;
+    private OrderDishStatusEntry latestStatusEntry;
+    // Commandes qui comptent ce plat par statut, une entrée par occurrence dans leurs listes
+    private final List<DishStatusListener> statusListeners = new ArrayList<>(1);
+
     public DishOrder() {
         this.statusHistory = new ArrayList<>();
     }
@@ -72,14 +78,51 @@ public class DishOrder {
     }
 
     public void setStatusHistory(List<OrderDishStatusEntry> statusHistory) {
+        OrderDishStatus previousStatus = getActualStatus();
         this.statusHistory = statusHistory;
+        notifyStatusChange(previousStatus);
     }
 
     public OrderDishStatus getActualStatus() {
-        return statusHistory.stream()
-                .max(Comparator.comparing(OrderDishStatusEntry::getStatusDatetime))
-                .map(OrderDishStatusEntry::getStatus)
-                .orElse(OrderDishStatus.CREATED);
+        OrderDishStatusEntry latestEntry = findLatestStatusEntry();
+        return latestEntry == null ? OrderDishStatus.CREATED : latestEntry.getStatus();
+    }
+
+    private OrderDishStatusEntry findLatestStatusEntry() {
+        if (statusHistory != indexedStatusHistory || statusHistory == null || statusHistory.size() < indexedStatusCount) {
+            indexedStatusHistory = statusHistory;
+            indexedStatusCount = 0;
+            latestStatusEntry = null;
+            if (statusHistory == null) {
+                return null;
+            }
+        }
+        int size = statusHistory.size();
+        for (int i = indexedStatusCount; i < size; i++) {
+            OrderDishStatusEntry entry = statusHistory.get(i);
+            if (latestStatusEntry == null || entry.getStatusDatetime().isAfter(latestStatusEntry.getStatusDatetime())) {
+                latestStatusEntry = entry;
+            }
+        }
+        indexedStatusCount = size;
+        return latestStatusEntry;
+    }
+
+    void addStatusListener(DishStatusListener listener) {
+        statusListeners.add(listener);
+    }
+
+    void removeStatusListener(DishStatusListener listener) {
+        statusListeners.remove(listener);
+    }
+
+    private void notifyStatusChange(OrderDishStatus previousStatus) {
+        OrderDishStatus newStatus = getActualStatus();
+        if (newStatus != previousStatus) {
+            for (DishStatusListener listener : statusListeners) {
+                listener.dishStatusChanged(previousStatus, newStatus);
+            }
+        }
     }
 
     public void addStatus(OrderDishStatus status) {
@@ -92,6 +135,7 @@ public class DishOrder {
         
         OrderDishStatusEntry statusEntry = new OrderDishStatusEntry(this.id, status);
         this.statusHistory.add(statusEntry);
+        notifyStatusChange(currentStatus);
     }
 
     private boolean isValidStatusTransition(OrderDishStatus currentStatus, OrderDishStatus newStatus) {
@@ -0,0 +1,9 @@
+package edu.restaurant.app.dao.entity;
+
+/**
+ * Prévenu quand le statut courant d'un plat commandé change, via addStatus ou setStatusHistory.
+ */
+interface DishStatusListener {
+
+    void dishStatusChanged(OrderDishStatus previousStatus, OrderDishStatus newStatus);
+}
@@ -2,18 +2,17 @@ package edu.restaurant.app.dao.entity;
 
 import java.time.Instant;
 import java.time.LocalDate;
-import java.util.Comparator;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
-import static edu.restaurant.app.dao.entity.StockMovementType.IN;
-import static edu.restaurant.app.dao.entity.StockMovementType.OUT;
-
 public class Ingredient {
     private Long id;
     private String name;
     private List<Price> prices;
     private List<StockMovement> stockMovements;
+    private final StockLevelIndex stockLevelIndex = new StockLevelIndex();
+    private final PriceIndex priceIndex = new PriceIndex();
 
     // Constructeur par défaut
     public Ingredient() {
@@ -63,18 +62,19 @@ public class Ingredient {
     // Méthodes de gestion des mouvements de stock
     public List<StockMovement> addStockMovements(List<StockMovement> stockMovements) {
         stockMovements.forEach(stockMovement -> stockMovement.setIngredient(this));
-        if (getStockMovements() == null || getStockMovements().isEmpty()) {
-            return stockMovements;
+        if (getStockMovements() == null) {
+            setStockMovements(new ArrayList<>());
         }
+        // The index picks up the appended tail on the next read
         getStockMovements().addAll(stockMovements);
         return getStockMovements();
     }
 
     public List<Price> addPrices(List<Price> prices) {
-        if (getPrices() == null || getPrices().isEmpty()) {
-            return prices;
-        }
         prices.forEach(price -> price.setIngredient(this));
+        if (getPrices() == null) {
+            setPrices(new ArrayList<>());
+        }
         getPrices().addAll(prices);
         return getPrices();
     }
@@ -88,35 +88,35 @@ public class Ingredient {
         return getAvailableQuantityAt(Instant.now());
     }
 
+    // Prix en vigueur à la date donnée : le dernier prix fixé à cette date ou avant
     public Double getPriceAt(LocalDate dateValue) {
         return findPriceAt(dateValue).orElse(new Price(0.0)).getAmount();
     }
 
     public Double getAvailableQuantityAt(Instant datetime) {
-        List<StockMovement> stockMovementsBeforeToday = stockMovements.stream()
-                .filter(stockMovement ->
-                        stockMovement.getCreationDatetime().isBefore(datetime)
-                                || stockMovement.getCreationDatetime().equals(datetime))
-                .toList();
-        double quantity = 0;
-        for (StockMovement stockMovement : stockMovementsBeforeToday) {
-            if (IN.equals(stockMovement.getMovementType())) {
-                quantity += stockMovement.getQuantity();
-            } else if (OUT.equals(stockMovement.getMovementType())) {
-                quantity -= stockMovement.getQuantity();
-            }
-        }
-        return quantity;
+        return stockLevelIndex.quantityAt(stockMovements, datetime);
     }
 
     private Optional<Price> findPriceAt(LocalDate dateValue) {
-        return prices.stream()
-                .filter(price -> price.getDateValue().equals(dateValue))
-                .findFirst();
+        return Optional.ofNullable(priceIndex.priceAt(prices, dateValue));
     }
 
     private Optional<Price> findActualPrice() {
-        return prices.stream().max(Comparator.comparing(Price::getDateValue));
+        return Optional.ofNullable(priceIndex.actualPrice(prices));
+    }
+
+    // Deux instances du même ingrédient en base sont égales ; sans id, une instance n'est égale qu'à elle-même.
+    // Le hashCode change quand l'id est attribué : ne pas modifier l'id d'une clé de Map.
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Ingredient that)) return false;
+        return id != null && id.equals(that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return id != null ? id.hashCode() : System.identityHashCode(this);
     }
 
     @Override
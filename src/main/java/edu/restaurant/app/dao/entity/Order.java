@@ -1,22 +1,40 @@
 package edu.restaurant.app.dao.entity;
 
 import java.time.Instant;
+import java.util.AbstractList;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.logging.Logger;
 import java.util.HashMap;
 
 public class Order {
+    private static final Logger LOGGER = Logger.getLogger(Order.class.getName());
+
     private Long id;
     private String reference;
     private Instant creationDatetime;
     private List<DishOrder> dishOrders;
     private List<OrderStatusEntry> statusHistory;
 
+    // Dernier statut connu, tenu à jour à partir des entrées ajoutées à statusHistory depuis la dernière lecture
+    private List<OrderStatusEntry> indexedStatusHistory;
+    private int indexedStatusCount;
+    private OrderStatusEntry latestStatusEntry;
+
+    // Nombre de plats commandés par statut courant, tenu à jour par la liste dishOrders et par les plats eux-mêmes
+    private final int[] dishStatusCounts = new int[OrderDishStatus.values().length];
+    private final DishStatusListener dishStatusCounter = (previousStatus, newStatus) -> {
+        dishStatusCounts[previousStatus.ordinal()]--;
+        dishStatusCounts[newStatus.ordinal()]++;
+    };
+
     public Order() {
-        this.dishOrders = new ArrayList<>();
+        this.dishOrders = new DishOrderList(List.of());
         this.statusHistory = new ArrayList<>();
         this.creationDatetime = Instant.now();
     }
@@ -25,14 +43,14 @@ public class Order {
         this.id = id;
         this.reference = reference;
         this.creationDatetime = creationDatetime != null ? creationDatetime : Instant.now();
-        this.dishOrders = dishOrders != null ? dishOrders : new ArrayList<>();
+        this.dishOrders = new DishOrderList(dishOrders != null ? dishOrders : List.of());
         this.statusHistory = statusHistory != null ? statusHistory : new ArrayList<>();
     }
 
     public Order(String reference) {
         this.reference = reference;
         this.creationDatetime = Instant.now();
-        this.dishOrders = new ArrayList<>();
+        this.dishOrders = new DishOrderList(List.of());
         this.statusHistory = new ArrayList<>();
         
         // Initialisation directe du statut CREATED sans vérification de transition
@@ -69,8 +87,15 @@ public class Order {
         return dishOrders;
     }
 
+    /**
+     * Les plats sont recopiés dans une liste propre à la commande, qui tient à jour les compteurs par statut.
+     */
     public void setDishOrders(List<DishOrder> dishOrders) {
-        this.dishOrders = dishOrders;
+        DishOrderList previousDishOrders = (DishOrderList) this.dishOrders;
+        this.dishOrders = new DishOrderList(dishOrders != null ? dishOrders : List.of());
+        if (previousDishOrders != null) {
+            previousDishOrders.detachAll();
+        }
     }
 
     public List<OrderStatusEntry> getStatusHistory() {
@@ -81,35 +106,41 @@ public class Order {
         this.statusHistory = statusHistory;
     }
 
+    /**
+     * Statut le plus récent de l'historique, en O(1) : seules les entrées ajoutées depuis la dernière lecture
+     * sont examinées. Un historique remplacé ou raccourci est relu en entier ; modifier la date d'une entrée
+     * déjà présente n'est pas détecté. À date égale, l'entrée la plus ancienne dans la liste l'emporte.
+     */
     public OrderStatus getActualStatus() {
-        System.out.println("Getting actual status, history size: " + (statusHistory != null ? statusHistory.size() : 0));
-        if (statusHistory == null || statusHistory.isEmpty()) {
-            return OrderStatus.CREATED;
-        }
+        OrderStatusEntry latestEntry = findLatestStatusEntry();
+        return latestEntry == null ? OrderStatus.CREATED : latestEntry.getStatus();
+    }
 
-        for (OrderStatusEntry entry : statusHistory) {
-            System.out.println("Status entry: " + entry.getStatus() + " at " + entry.getStatusDatetime());
+    private OrderStatusEntry findLatestStatusEntry() {
+        if (statusHistory != indexedStatusHistory || statusHistory == null || statusHistory.size() < indexedStatusCount) {
+            indexedStatusHistory = statusHistory;
+            indexedStatusCount = 0;
+            latestStatusEntry = null;
+            if (statusHistory == null) {
+                return null;
+            }
         }
-        
-        OrderStatusEntry latestEntry = statusHistory.stream()
-                .max(Comparator.comparing(OrderStatusEntry::getStatusDatetime))
-                .orElse(null);
-        
-        if (latestEntry == null) {
-            return OrderStatus.CREATED;
+        int size = statusHistory.size();
+        for (int i = indexedStatusCount; i < size; i++) {
+            OrderStatusEntry entry = statusHistory.get(i);
+            if (latestStatusEntry == null || entry.getStatusDatetime().isAfter(latestStatusEntry.getStatusDatetime())) {
+                latestStatusEntry = entry;
+            }
         }
-        
-        System.out.println("Latest status found: " + latestEntry.getStatus() + " at " + latestEntry.getStatusDatetime());
-        return latestEntry.getStatus();
+        indexedStatusCount = size;
+        return latestStatusEntry;
     }
 
     public void addStatus(OrderStatus status) {
-        System.out.println("Adding status: " + status + " to order " + getId());
         OrderStatus actualStatus = getActualStatus();
-        System.out.println("Current status: " + actualStatus);
-        
+        LOGGER.fine(() -> "Adding status " + status + " to order " + getId() + ", current status: " + actualStatus);
+
         if (!isValidStatusTransition(actualStatus, status)) {
-            System.err.println("Invalid status transition from " + actualStatus + " to " + status);
             throw new IllegalStateException("Invalid status transition from " + actualStatus + " to " + status);
         }
 
@@ -122,14 +153,9 @@ public class Order {
         }
         statusHistory.add(statusEntry);
         
-        System.out.println("Status successfully updated from " + actualStatus + " to " + status);
-        System.out.println("Current status entries: " + statusHistory.size());
-        
         // Update dish statuses accordingly (but not for FINISHED or SERVED status)
         if (status != OrderStatus.FINISHED && status != OrderStatus.SERVED) {
             updateDishStatuses(status);
-        } else {
-            System.out.println("Skipping dish status update for " + status + " status");
         }
     }
     
@@ -142,13 +168,10 @@ public class Order {
                     dishOrder.addStatus(dishStatus);
                 } catch (IllegalStateException e) {
                     // Log but don't fail the main status transition if dish status update fails
-                    System.err.println("Failed to update dish status: " + e.getMessage());
+                    LOGGER.warning(() -> "Failed to update dish status: " + e.getMessage());
                 }
             }
         }
-        
-        // Debug output
-        System.out.println("After updateDishStatuses, order status is: " + getActualStatus());
     }
 
     private boolean isValidStatusTransition(OrderStatus currentStatus, OrderStatus newStatus) {
@@ -177,9 +200,6 @@ public class Order {
         }
         
         if (dishOrder != null) {
-            if (dishOrders == null) {
-                dishOrders = new ArrayList<>();
-            }
             // Associer le plat à cette commande
             dishOrder.setOrderId(getId());
             dishOrders.add(dishOrder);
@@ -194,6 +214,13 @@ public class Order {
     
     
     public void confirm() {
+        confirm(StockLevelProvider.IN_MEMORY);
+    }
+
+    /**
+     * Confirme la commande en vérifiant le stock des ingrédients auprès du fournisseur donné.
+     */
+    public void confirm(StockLevelProvider stockLevelProvider) {
         // Vérifier la disponibilité des ingrédients
         Map<Ingredient, Double> requiredIngredients = new HashMap<>();
         
@@ -211,11 +238,14 @@ public class Order {
         }
         
         // Vérifier la disponibilité pour chaque ingrédient
+        Map<Ingredient, Double> availableQuantities = requiredIngredients.isEmpty()
+                ? Map.of()
+                : stockLevelProvider.getAvailableQuantities(requiredIngredients.keySet());
         StringBuilder missingIngredientsMessage = new StringBuilder();
         for (Map.Entry<Ingredient, Double> entry : requiredIngredients.entrySet()) {
             Ingredient ingredient = entry.getKey();
             double requiredQuantity = entry.getValue();
-            double availableQuantity = getAvailableStock(ingredient);
+            double availableQuantity = availableQuantities.getOrDefault(ingredient, 0.0);
             
             if (availableQuantity < requiredQuantity) {
                 double missing = requiredQuantity - availableQuantity;
@@ -250,51 +280,27 @@ public class Order {
     }
     
     /**
-     * Calcule la quantité disponible d'un ingrédient.
+     * Déduit le statut de la commande de celui de ses plats, en O(1) grâce aux compteurs par statut.
      */
-    private double getAvailableStock(Ingredient ingredient) {
-        if (ingredient == null || ingredient.getStockMovements() == null) {
-            return 0.0;
-        }
-        
-        double totalIn = ingredient.getStockMovements().stream()
-            .filter(m -> m.getMovementType() == StockMovementType.IN)
-            .mapToDouble(StockMovement::getQuantity)
-            .sum();
-        
-        double totalOut = ingredient.getStockMovements().stream()
-            .filter(m -> m.getMovementType() == StockMovementType.OUT)
-            .mapToDouble(StockMovement::getQuantity)
-            .sum();
-        
-        return totalIn - totalOut;
-    }
-    
     public void updateStatusBasedOnDishes() {
-        // Get current statuses of all dishes
-        List<OrderDishStatus> dishStatuses = dishOrders.stream()
-                .map(DishOrder::getActualStatus)
-                .collect(Collectors.toList());
-        
-        System.out.println("Updating order status based on dishes. Current dish statuses: " + dishStatuses);
         OrderStatus currentStatus = getActualStatus();
-        System.out.println("Current order status: " + currentStatus);
+        int dishCount = dishOrders.size();
+        LOGGER.fine(() -> "Updating order status based on dishes, order status: " + currentStatus
+                + ", dishes: " + dishCount + ", by status: " + Arrays.toString(dishStatusCounts));
         
         // Check if all dishes are in a particular status
-        boolean allFinished = dishStatuses.stream().allMatch(s -> s == OrderDishStatus.FINISHED);
-        boolean allServed = dishStatuses.stream().allMatch(s -> s == OrderDishStatus.SERVED);
-        boolean anyInPreparation = dishStatuses.stream().anyMatch(s -> s == OrderDishStatus.IN_PREPARATION);
-        
-        System.out.println("All finished: " + allFinished + ", All served: " + allServed + ", Any in preparation: " + anyInPreparation);
+        boolean allFinished = dishStatusCount(OrderDishStatus.FINISHED) == dishCount;
+        boolean allServed = dishStatusCount(OrderDishStatus.SERVED) == dishCount;
+        boolean anyInPreparation = dishStatusCount(OrderDishStatus.IN_PREPARATION) > 0;
         
         // All dishes are SERVED -> Order is SERVED
         if (allServed && currentStatus == OrderStatus.FINISHED) {
-            System.out.println("All dishes are SERVED, transitioning order to SERVED");
+            LOGGER.fine("All dishes are SERVED, transitioning order to SERVED");
             addStatus(OrderStatus.SERVED);
         }
         // All dishes are FINISHED -> Order is FINISHED
         else if (allFinished && currentStatus == OrderStatus.IN_PREPARATION) {
-            System.out.println("All dishes are FINISHED, transitioning order to FINISHED");
+            LOGGER.fine("All dishes are FINISHED, transitioning order to FINISHED");
             addStatus(OrderStatus.FINISHED);
         }
         // Some dishes are still in preparation -> Order is IN_PREPARATION
@@ -302,12 +308,87 @@ public class Order {
         else if (anyInPreparation && 
                  currentStatus != OrderStatus.FINISHED && 
                  currentStatus != OrderStatus.SERVED) {
-            System.out.println("Some dishes are IN_PREPARATION, setting order as IN_PREPARATION");
+            LOGGER.fine("Some dishes are IN_PREPARATION, setting order as IN_PREPARATION");
             if (currentStatus != OrderStatus.IN_PREPARATION) {
                 addStatus(OrderStatus.IN_PREPARATION);
             }
         } else {
-            System.out.println("No status change needed based on dish statuses");
+            LOGGER.fine("No status change needed based on dish statuses");
+        }
+    }
+
+    /**
+     * Nombre de plats commandés dont le statut courant est celui donné.
+     */
+    public int dishStatusCount(OrderDishStatus status) {
+        return dishStatusCounts[status.ordinal()];
+    }
+
+    /**
+     * Liste des plats de la commande : chaque ajout ou retrait met à jour les compteurs par statut
+     * et abonne / désabonne la commande aux changements de statut du plat.
+     */
+    private final class DishOrderList extends AbstractList<DishOrder> implements RandomAccess {
+        private final List<DishOrder> elements;
+
+        private DishOrderList(Collection<DishOrder> dishOrders) {
+            this.elements = new ArrayList<>(dishOrders.size());
+            dishOrders.forEach(dishOrder -> elements.add(attach(dishOrder)));
+        }
+
+        @Override
+        public DishOrder get(int index) {
+            return elements.get(index);
+        }
+
+        @Override
+        public int size() {
+            return elements.size();
+        }
+
+        @Override
+        public DishOrder set(int index, DishOrder dishOrder) {
+            DishOrder previous = elements.set(index, attach(dishOrder));
+            detach(previous);
+            return previous;
+        }
+
+        @Override
+        public void add(int index, DishOrder dishOrder) {
+            elements.add(index, attach(dishOrder));
+            modCount++;
+        }
+
+        @Override
+        public DishOrder remove(int index) {
+            DishOrder previous = elements.remove(index);
+            detach(previous);
+            modCount++;
+            return previous;
+        }
+
+        @Override
+        protected void removeRange(int fromIndex, int toIndex) {
+            List<DishOrder> range = elements.subList(fromIndex, toIndex);
+            range.forEach(this::detach);
+            range.clear();
+            modCount++;
+        }
+
+        private void detachAll() {
+            elements.forEach(this::detach);
+        }
+
+        private DishOrder attach(DishOrder dishOrder) {
+            Objects.requireNonNull(dishOrder, "dishOrder");
+            dishStatusCounts[dishOrder.getActualStatus().ordinal()]++;
+            dishOrder.addStatusListener(dishStatusCounter);
+            return dishOrder;
+        }
+
+        private void detach(DishOrder dishOrder) {
+            dishStatusCounts[dishOrder.getActualStatus().ordinal()]--;
+            dishOrder.removeStatusListener(dishStatusCounter);
         }
     }
 
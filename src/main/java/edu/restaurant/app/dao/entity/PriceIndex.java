@@ -0,0 +1,53 @@
+package edu.restaurant.app.dao.entity;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Index des prix d'un ingrédient par date : prix en vigueur à une date (dernier prix dont la date
+ * est inférieure ou égale) en O(log n), prix actuel en O(1).
+ * <p>
+ * Comme {@link StockLevelIndex}, l'index suit la liste de prix : les ajouts en fin de liste sont
+ * indexés incrémentalement, une liste remplacée ou raccourcie est réindexée.
+ * À date égale, le premier prix de la liste l'emporte.
+ */
+class PriceIndex {
+    private final TreeMap<LocalDate, Price> pricesByDate = new TreeMap<>();
+    private List<Price> source;
+    private int indexedCount;
+    private Price actualPrice;
+
+    synchronized Price priceAt(List<Price> prices, LocalDate dateValue) {
+        sync(prices);
+        Map.Entry<LocalDate, Price> entry = pricesByDate.floorEntry(dateValue);
+        return entry == null ? null : entry.getValue();
+    }
+
+    synchronized Price actualPrice(List<Price> prices) {
+        sync(prices);
+        return actualPrice;
+    }
+
+    private void sync(List<Price> prices) {
+        if (prices != source || prices == null || prices.size() < indexedCount) {
+            source = prices;
+            indexedCount = 0;
+            pricesByDate.clear();
+            actualPrice = null;
+            if (prices == null) {
+                return;
+            }
+        }
+        int size = prices.size();
+        for (int i = indexedCount; i < size; i++) {
+            Price price = prices.get(i);
+            if (pricesByDate.putIfAbsent(price.getDateValue(), price) == null
+                    && (actualPrice == null || price.getDateValue().isAfter(actualPrice.getDateValue()))) {
+                actualPrice = price;
+            }
+        }
+        indexedCount = size;
+    }
+}
@@ -0,0 +1,120 @@
+package edu.restaurant.app.dao.entity;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import static edu.restaurant.app.dao.entity.StockMovementType.IN;
+import static edu.restaurant.app.dao.entity.StockMovementType.OUT;
+
+/**
+ * Index des mouvements de stock d'un ingrédient : dates triées et sommes cumulées.
+ * Le stock à une date est une recherche dichotomique, le stock courant est en O(1).
+ * <p>
+ * L'index suit la liste de mouvements de l'ingrédient : les ajouts en fin de liste dans l'ordre
+ * chronologique sont indexés incrémentalement, un ajout antérieur au dernier mouvement indexé
+ * ou une liste remplacée / raccourcie provoque une reconstruction complète.
+ * Modifier un mouvement déjà indexé (quantité, type, date) n'est pas détecté.
+ */
+class StockLevelIndex {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private List<StockMovement> source;
+    private int indexedCount;
+    private long[] times = new long[INITIAL_CAPACITY];
+    // sums[i] = stock après les i premiers mouvements dans l'ordre chronologique
+    private double[] sums = new double[INITIAL_CAPACITY + 1];
+
+    synchronized double quantityAt(List<StockMovement> movements, Instant datetime) {
+        sync(movements);
+        long key = toKey(datetime);
+        if (indexedCount == 0 || times[indexedCount - 1] <= key) {
+            return sums[indexedCount];
+        }
+        return sums[upperBound(key)];
+    }
+
+    private void sync(List<StockMovement> movements) {
+        if (movements != source || movements == null || movements.size() < indexedCount) {
+            rebuild(movements);
+            return;
+        }
+        int size = movements.size();
+        for (int i = indexedCount; i < size; i++) {
+            StockMovement movement = movements.get(i);
+            long key = toKey(movement.getCreationDatetime());
+            if (indexedCount > 0 && key < times[indexedCount - 1]) {
+                rebuild(movements);
+                return;
+            }
+            append(key, signedQuantity(movement));
+        }
+    }
+
+    private void rebuild(List<StockMovement> movements) {
+        source = movements;
+        indexedCount = 0;
+        if (movements == null || movements.isEmpty()) {
+            return;
+        }
+        List<StockMovement> sorted = new ArrayList<>(movements);
+        sorted.sort(Comparator.comparing(StockMovement::getCreationDatetime));
+        ensureCapacity(sorted.size());
+        for (StockMovement movement : sorted) {
+            append(toKey(movement.getCreationDatetime()), signedQuantity(movement));
+        }
+    }
+
+    private void append(long key, double quantity) {
+        ensureCapacity(indexedCount + 1);
+        times[indexedCount] = key;
+        sums[indexedCount + 1] = sums[indexedCount] + quantity;
+        indexedCount++;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > times.length) {
+            int newCapacity = Math.max(capacity, times.length * 2);
+            times = Arrays.copyOf(times, newCapacity);
+            sums = Arrays.copyOf(sums, newCapacity + 1);
+        }
+    }
+
+    // Nombre de mouvements dont la date est inférieure ou égale à key
+    private int upperBound(long key) {
+        int low = 0;
+        int high = indexedCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (times[mid] <= key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static double signedQuantity(StockMovement movement) {
+        if (IN.equals(movement.getMovementType())) {
+            return movement.getQuantity();
+        } else if (OUT.equals(movement.getMovementType())) {
+            return -movement.getQuantity();
+        }
+        return 0;
+    }
+
+    // Nanosecondes depuis l'epoch, saturées pour les dates hors de la plage d'un long (~ 1677-2262)
+    private static long toKey(Instant instant) {
+        long seconds = instant.getEpochSecond();
+        if (seconds >= Long.MAX_VALUE / 1_000_000_000L) {
+            return Long.MAX_VALUE;
+        }
+        if (seconds <= Long.MIN_VALUE / 1_000_000_000L) {
+            return Long.MIN_VALUE;
+        }
+        return seconds * 1_000_000_000L + instant.getNano();
+    }
+}
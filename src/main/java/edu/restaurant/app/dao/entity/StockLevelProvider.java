@@ -0,0 +1,29 @@
+package edu.restaurant.app.dao.entity;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Source du stock disponible utilisée par {@link Order#confirm(StockLevelProvider)}.
+ * Par défaut le stock est calculé à partir des mouvements chargés sur chaque ingrédient ;
+ * une implémentation côté base évite de charger l'historique des mouvements.
+ */
+@FunctionalInterface
+public interface StockLevelProvider {
+
+    StockLevelProvider IN_MEMORY = ingredients -> {
+        Map<Ingredient, Double> availableQuantities = new HashMap<>();
+        for (Ingredient ingredient : ingredients) {
+            availableQuantities.put(ingredient, ingredient.getAvailableQuantityAt(Instant.MAX));
+        }
+        return availableQuantities;
+    };
+
+    /**
+     * Stock disponible de chaque ingrédient, tous mouvements confondus.
+     * Un ingrédient absent du résultat est considéré sans stock.
+     */
+    Map<Ingredient, Double> getAvailableQuantities(Collection<Ingredient> ingredients);
+}
@@ -0,0 +1,48 @@
+package edu.restaurant.app.dao.memory;
+
+import edu.restaurant.app.dao.operations.DaoFactory;
+
+/**
+ * DAO sans base de données, pour les tests unitaires et les benchmarks : chaque fabrique a ses propres tables,
+ * vides à la création, et ses propres séquences d'ids. Les tables sont sûres en accès concurrent.
+ * Les lectures renvoient des entités neuves, relues depuis les tables, comme le font les DAO JDBC.
+ */
+public class InMemoryDaoFactory implements DaoFactory {
+    private final InMemoryPriceOperations priceOperations = new InMemoryPriceOperations();
+    private final InMemoryStockMovementOperations stockMovementOperations = new InMemoryStockMovementOperations();
+    private final InMemoryIngredientOperations ingredientOperations =
+            new InMemoryIngredientOperations(priceOperations, stockMovementOperations);
+    private final InMemoryDishOperations dishOperations = new InMemoryDishOperations(ingredientOperations);
+    private final InMemoryDishOrderOperations dishOrderOperations = new InMemoryDishOrderOperations(dishOperations);
+    private final InMemoryOrderOperations orderOperations = new InMemoryOrderOperations(dishOrderOperations);
+
+    @Override
+    public InMemoryOrderOperations orders() {
+        return orderOperations;
+    }
+
+    @Override
+    public InMemoryDishOrderOperations dishOrders() {
+        return dishOrderOperations;
+    }
+
+    @Override
+    public InMemoryDishOperations dishes() {
+        return dishOperations;
+    }
+
+    @Override
+    public InMemoryIngredientOperations ingredients() {
+        return ingredientOperations;
+    }
+
+    @Override
+    public InMemoryPriceOperations prices() {
+        return priceOperations;
+    }
+
+    @Override
+    public InMemoryStockMovementOperations stockMovements() {
+        return stockMovementOperations;
+    }
+}
@@ -0,0 +1,88 @@
+package edu.restaurant.app.dao.memory;
+
+import edu.restaurant.app.dao.entity.Dish;
+import edu.restaurant.app.dao.operations.Page;
+import edu.restaurant.app.dao.operations.PageCursor;
+import edu.restaurant.app.dao.operations.PagedCrudOperations;
+
+import java.util.*;
+
+/**
+ * Plats en mémoire, relus avec leur recette. Contrairement à la base, où les recettes sont écrites par les
+ * migrations, un plat sauvegardé avec ses ingrédients enregistre aussi sa recette.
+ */
+public class InMemoryDishOperations extends InMemoryStore implements PagedCrudOperations<Dish> {
+    private final InMemoryIngredientOperations ingredientOperations;
+    private final IdSequence dishIds = new IdSequence();
+    // Rows of the dish table, without recipe
+    private final NavigableMap<Long, Dish> dishes = new TreeMap<>();
+
+    public InMemoryDishOperations(InMemoryIngredientOperations ingredientOperations) {
+        this.ingredientOperations = ingredientOperations;
+    }
+
+    @Override
+    public List<Dish> getAll(int page, int size) {
+        return hydrate(read(() -> page(new ArrayList<>(dishes.values()), page, size)));
+    }
+
+    // Keyset pagination on the primary key
+    @Override
+    public Page<Dish> getPageAfter(PageCursor cursor, int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Page size must be positive: " + size);
+        }
+        List<Dish> rows = read(() -> {
+            Collection<Dish> following = cursor == null ? dishes.values() : dishes.tailMap(cursor.getId(), false).values();
+            // One extra row tells whether a next page exists
+            return new ArrayList<>(following.stream().limit(size + 1L).toList());
+        });
+        PageCursor nextCursor = null;
+        if (rows.size() > size) {
+            rows.remove(size);
+            nextCursor = PageCursor.afterId(rows.get(size - 1).getId());
+        }
+        return new Page<>(hydrate(rows), nextCursor);
+    }
+
+    @Override
+    public Dish findById(Long id) {
+        Dish row = read(() -> dishes.get(id));
+        if (row == null) {
+            throw new RuntimeException("Dish.id=" + id + " not found");
+        }
+        return hydrate(row);
+    }
+
+    // Upsert on id, like the database DAO; a dish without id gets a generated one
+    @Override
+    public List<Dish> saveAll(List<Dish> entities) {
+        write(() -> {
+            for (Dish dish : entities) {
+                if (dish.getDishIngredients() != null) {
+                    ingredientOperations.requireIngredients(dish.getId(), dish.getDishIngredients());
+                }
+            }
+            for (Dish dish : entities) {
+                dish.setId(dishIds.assign(dish.getId()));
+                dishes.put(dish.getId(), new Dish(dish.getId(), dish.getName(), null, dish.getPrice()));
+                if (dish.getDishIngredients() != null) {
+                    ingredientOperations.saveRecipe(dish.getId(), dish.getDishIngredients());
+                }
+            }
+        });
+        List<Dish> dishes = new ArrayList<>(entities.size());
+        entities.forEach(dish -> dishes.add(findById(dish.getId())));
+        return dishes;
+    }
+
+    private List<Dish> hydrate(List<Dish> rows) {
+        List<Dish> hydrated = new ArrayList<>(rows.size());
+        rows.forEach(row -> hydrated.add(hydrate(row)));
+        return hydrated;
+    }
+
+    private Dish hydrate(Dish row) {
+        return new Dish(row.getId(), row.getName(), ingredientOperations.findByDishId(row.getId()), row.getPrice());
+    }
+}
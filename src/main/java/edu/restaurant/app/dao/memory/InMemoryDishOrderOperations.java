@@ -0,0 +1,179 @@
+package edu.restaurant.app.dao.memory;
+
+import edu.restaurant.app.dao.entity.*;
+import edu.restaurant.app.dao.operations.CrudOperations;
+import edu.restaurant.app.dao.operations.DishOrderOperations;
+
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * Plats de commande en mémoire. Les lignes et leurs statuts sont recopiés à l'écriture et à la lecture :
+ * comme avec la base, une modification n'est visible qu'une fois sauvegardée.
+ */
+public class InMemoryDishOrderOperations extends InMemoryStore implements DishOrderOperations {
+    private final CrudOperations<Dish> dishOperations;
+    private final IdSequence dishOrderIds = new IdSequence();
+    private final IdSequence statusIds = new IdSequence();
+    private final Map<Long, Line> lines = new HashMap<>();
+    private final Map<Long, NavigableSet<Long>> lineIdsByOrder = new HashMap<>();
+    private final Map<Long, List<OrderDishStatusEntry>> statusesByLine = new HashMap<>();
+
+    // Row of order_dish
+    private static final class Line {
+        private final Long id;
+        private final Long orderId;
+        private final Long dishId;
+        private final Integer quantity;
+
+        private Line(Long id, Long orderId, Long dishId, Integer quantity) {
+            this.id = id;
+            this.orderId = orderId;
+            this.dishId = dishId;
+            this.quantity = quantity;
+        }
+    }
+
+    public InMemoryDishOrderOperations(CrudOperations<Dish> dishOperations) {
+        this.dishOperations = dishOperations;
+    }
+
+    @Override
+    public DishOrder create(DishOrder dishOrder) {
+        write(() -> {
+            requireDishes(List.of(dishOrder));
+            dishOrder.setId(dishOrderIds.next());
+            putLine(dishOrder);
+            if (dishOrder.getStatusHistory() == null || dishOrder.getStatusHistory().isEmpty()) {
+                insertStatus(new OrderDishStatusEntry(null, dishOrder.getId(), OrderDishStatus.CREATED, Instant.now()));
+            } else {
+                insertNewStatuses(dishOrder);
+            }
+        });
+        return findById(dishOrder.getId()).orElse(dishOrder);
+    }
+
+    @Override
+    public Optional<DishOrder> findById(Long id) {
+        return read(() -> Optional.ofNullable(lines.get(id)).map(line -> toDishOrder(line, new HashMap<>())));
+    }
+
+    @Override
+    public List<DishOrder> findByOrderId(Long orderId) {
+        return read(() -> {
+            List<DishOrder> dishOrders = new ArrayList<>();
+            // Lines sharing a dish get the same instance, loaded once
+            Map<Long, Dish> dishes = new HashMap<>();
+            for (Long id : lineIdsByOrder.getOrDefault(orderId, Collections.emptyNavigableSet())) {
+                dishOrders.add(toDishOrder(lines.get(id), dishes));
+            }
+            return dishOrders;
+        });
+    }
+
+    @Override
+    public void updateDishOrderStatus(Long dishOrderId, OrderDishStatus status) {
+        write(() -> {
+            if (!lines.containsKey(dishOrderId)) {
+                throw new RuntimeException("Error creating dish order status: DishOrder.id=" + dishOrderId + " not found");
+            }
+            insertStatus(new OrderDishStatusEntry(null, dishOrderId, status, Instant.now()));
+        });
+    }
+
+    @Override
+    public DishOrder save(DishOrder dishOrder) {
+        saveAll(List.of(dishOrder));
+        return dishOrder;
+    }
+
+    // Every line or none: the lines are checked before any of them is written
+    @Override
+    public List<DishOrder> saveAll(List<DishOrder> dishOrders) {
+        return write(() -> {
+            requireSavable(dishOrders);
+            return saveAllChecked(dishOrders);
+        });
+    }
+
+    /**
+     * Vérifie, sans rien écrire, que les lignes peuvent être sauvegardées : plat existant,
+     * et ligne existante pour une mise à jour. Appelée sous le verrou d'écriture.
+     */
+    void requireSavable(List<DishOrder> dishOrders) {
+        for (DishOrder dishOrder : dishOrders) {
+            if (dishOrder.getId() != null && !lines.containsKey(dishOrder.getId())) {
+                throw new RuntimeException("Updating dish order failed, no rows affected for id " + dishOrder.getId());
+            }
+        }
+        requireDishes(dishOrders);
+    }
+
+    // Foreign key of order_dish: findById throws when the dish does not exist
+    void requireDishes(List<DishOrder> dishOrders) {
+        for (DishOrder dishOrder : dishOrders) {
+            dishOperations.findById(dishOrder.getDish().getId());
+        }
+    }
+
+    // Lines already checked by requireSavable, under the write lock; only status entries without id are new
+    List<DishOrder> saveAllChecked(List<DishOrder> dishOrders) {
+        for (DishOrder dishOrder : dishOrders) {
+            if (dishOrder.getId() == null) {
+                dishOrder.setId(dishOrderIds.next());
+            }
+            putLine(dishOrder);
+        }
+        dishOrders.forEach(this::insertNewStatuses);
+        return dishOrders;
+    }
+
+    // Cascade of the order deletion, under the write lock
+    void deleteByOrderId(Long orderId) {
+        NavigableSet<Long> lineIds = lineIdsByOrder.remove(orderId);
+        if (lineIds != null) {
+            for (Long id : lineIds) {
+                lines.remove(id);
+                statusesByLine.remove(id);
+            }
+        }
+    }
+
+    private void putLine(DishOrder dishOrder) {
+        Line previous = lines.put(dishOrder.getId(),
+                new Line(dishOrder.getId(), dishOrder.getOrderId(), dishOrder.getDish().getId(), dishOrder.getQuantity()));
+        if (previous != null && !Objects.equals(previous.orderId, dishOrder.getOrderId())) {
+            lineIdsByOrder.get(previous.orderId).remove(previous.id);
+        }
+        lineIdsByOrder.computeIfAbsent(dishOrder.getOrderId(), orderId -> new TreeSet<>()).add(dishOrder.getId());
+    }
+
+    private void insertNewStatuses(DishOrder dishOrder) {
+        if (dishOrder.getStatusHistory() == null) {
+            return;
+        }
+        for (OrderDishStatusEntry statusEntry : dishOrder.getStatusHistory()) {
+            if (statusEntry.getId() == null) {
+                statusEntry.setOrderDishId(dishOrder.getId());
+                statusEntry.setId(insertStatus(statusEntry));
+            }
+        }
+    }
+
+    private Long insertStatus(OrderDishStatusEntry statusEntry) {
+        Long id = statusIds.next();
+        statusesByLine.computeIfAbsent(statusEntry.getOrderDishId(), dishOrderId -> new ArrayList<>())
+                .add(new OrderDishStatusEntry(id, statusEntry.getOrderDishId(), statusEntry.getStatus(), statusEntry.getStatusDatetime()));
+        return id;
+    }
+
+    // Called under the read or write lock
+    private DishOrder toDishOrder(Line line, Map<Long, Dish> dishes) {
+        List<OrderDishStatusEntry> statusHistory = new ArrayList<>();
+        for (OrderDishStatusEntry row : statusesByLine.getOrDefault(line.id, List.of())) {
+            statusHistory.add(new OrderDishStatusEntry(row.getId(), row.getOrderDishId(), row.getStatus(), row.getStatusDatetime()));
+        }
+        statusHistory.sort(Comparator.comparing(OrderDishStatusEntry::getStatusDatetime));
+        return new DishOrder(line.id, line.orderId, dishes.computeIfAbsent(line.dishId, dishOperations::findById), line.quantity, statusHistory);
+    }
+}
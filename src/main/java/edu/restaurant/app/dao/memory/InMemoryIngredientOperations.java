@@ -0,0 +1,120 @@
+package edu.restaurant.app.dao.memory;
+
+import edu.restaurant.app.dao.entity.DishIngredient;
+import edu.restaurant.app.dao.entity.Ingredient;
+import edu.restaurant.app.dao.entity.Unit;
+import edu.restaurant.app.dao.operations.IngredientOperations;
+
+import java.util.*;
+
+/**
+ * Ingrédients et recettes en mémoire. Chaque lecture construit des ingrédients neufs portant leurs prix
+ * et leurs mouvements de stock, lus dans les tables de prix et de mouvements de la même fabrique.
+ */
+public class InMemoryIngredientOperations extends InMemoryStore implements IngredientOperations {
+    private final InMemoryPriceOperations priceOperations;
+    private final InMemoryStockMovementOperations stockMovementOperations;
+    private final IdSequence ingredientIds = new IdSequence();
+    private final IdSequence dishIngredientIds = new IdSequence();
+    private final NavigableMap<Long, String> ingredientNames = new TreeMap<>();
+    private final Map<Long, List<RecipeLine>> recipes = new HashMap<>();
+
+    // Row of dish_ingredient
+    private static final class RecipeLine {
+        private final Long id;
+        private final Long idIngredient;
+        private final Double requiredQuantity;
+        private final Unit unit;
+
+        private RecipeLine(Long id, Long idIngredient, Double requiredQuantity, Unit unit) {
+            this.id = id;
+            this.idIngredient = idIngredient;
+            this.requiredQuantity = requiredQuantity;
+            this.unit = unit;
+        }
+    }
+
+    public InMemoryIngredientOperations(InMemoryPriceOperations priceOperations,
+                                        InMemoryStockMovementOperations stockMovementOperations) {
+        this.priceOperations = priceOperations;
+        this.stockMovementOperations = stockMovementOperations;
+    }
+
+    @Override
+    public List<Ingredient> getAll(int page, int size) {
+        List<Long> idIngredients = read(() -> page(new ArrayList<>(ingredientNames.keySet()), page, size));
+        List<Ingredient> ingredients = new ArrayList<>(idIngredients.size());
+        idIngredients.forEach(idIngredient -> ingredients.add(findById(idIngredient)));
+        return ingredients;
+    }
+
+    @Override
+    public Ingredient findById(Long id) {
+        String name = read(() -> ingredientNames.get(id));
+        if (name == null) {
+            throw new RuntimeException("Ingredient.id=" + id + " not found");
+        }
+        Ingredient ingredient = new Ingredient();
+        ingredient.setId(id);
+        ingredient.setName(name);
+        ingredient.setPrices(priceOperations.findByIdIngredient(id));
+        ingredient.setStockMovements(stockMovementOperations.findByIdIngredient(id));
+        return ingredient;
+    }
+
+    // Only the names are stored here: prices and stock movements are saved through their own DAO
+    @Override
+    public List<Ingredient> saveAll(List<Ingredient> entities) {
+        write(() -> {
+            for (Ingredient ingredient : entities) {
+                ingredient.setId(ingredientIds.assign(ingredient.getId()));
+                ingredientNames.put(ingredient.getId(), ingredient.getName());
+            }
+        });
+        List<Ingredient> ingredients = new ArrayList<>(entities.size());
+        entities.forEach(ingredient -> ingredients.add(findById(ingredient.getId())));
+        return ingredients;
+    }
+
+    @Override
+    public List<DishIngredient> findByDishId(Long dishId) {
+        List<RecipeLine> recipe = read(() -> recipes.getOrDefault(dishId, List.of()));
+        List<DishIngredient> dishIngredients = new ArrayList<>(recipe.size());
+        // Lines sharing an ingredient get the same instance, as within a unit of work of the database DAO
+        Map<Long, Ingredient> ingredients = new HashMap<>();
+        for (RecipeLine line : recipe) {
+            Ingredient ingredient = ingredients.computeIfAbsent(line.idIngredient, this::findById);
+            dishIngredients.add(new DishIngredient(line.id, ingredient, line.requiredQuantity, line.unit));
+        }
+        return dishIngredients;
+    }
+
+    // Foreign key of dish_ingredient: checked for every dish before any recipe is written
+    void requireIngredients(Long dishId, List<DishIngredient> dishIngredients) {
+        read(() -> {
+            for (DishIngredient dishIngredient : dishIngredients) {
+                Long idIngredient = dishIngredient.getIngredient().getId();
+                if (idIngredient == null || !ingredientNames.containsKey(idIngredient)) {
+                    throw new RuntimeException("Ingredient.id=" + idIngredient + " not found for dish " + dishId);
+                }
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Remplace la recette d'un plat, dont les ingrédients ont été vérifiés par {@link #requireIngredients}.
+     * Les ids générés sont reportés sur les lignes de la recette.
+     */
+    void saveRecipe(Long dishId, List<DishIngredient> dishIngredients) {
+        write(() -> {
+            List<RecipeLine> recipe = new ArrayList<>(dishIngredients.size());
+            for (DishIngredient dishIngredient : dishIngredients) {
+                dishIngredient.setId(dishIngredientIds.assign(dishIngredient.getId()));
+                recipe.add(new RecipeLine(dishIngredient.getId(), dishIngredient.getIngredient().getId(),
+                        dishIngredient.getRequiredQuantity(), dishIngredient.getUnit()));
+            }
+            recipes.put(dishId, List.copyOf(recipe));
+        });
+    }
+}
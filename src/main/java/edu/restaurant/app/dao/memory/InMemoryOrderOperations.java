@@ -0,0 +1,260 @@
+package edu.restaurant.app.dao.memory;
+
+import edu.restaurant.app.dao.entity.DishOrder;
+import edu.restaurant.app.dao.entity.Order;
+import edu.restaurant.app.dao.entity.OrderStatus;
+import edu.restaurant.app.dao.entity.OrderStatusEntry;
+import edu.restaurant.app.dao.operations.BulkSaveResult;
+import edu.restaurant.app.dao.operations.OrderOperations;
+import edu.restaurant.app.dao.operations.Page;
+import edu.restaurant.app.dao.operations.PageCursor;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.logging.Logger;
+
+/**
+ * Commandes en mémoire, avec les mêmes règles que {@link edu.restaurant.app.dao.operations.OrderCrudOperations} :
+ * ids générés reportés sur la commande, ses plats et ses statuts, statut CREATED ajouté à une nouvelle commande
+ * sans historique, suppression en cascade. Commandes et plats partagent un verrou : une sauvegarde est
+ * entièrement visible ou pas du tout, et un lot en erreur ne laisse rien derrière lui.
+ */
+public class InMemoryOrderOperations extends InMemoryStore implements OrderOperations {
+    private static final Logger LOGGER = Logger.getLogger(InMemoryOrderOperations.class.getName());
+    private static final Comparator<Order> BY_CREATION =
+            Comparator.comparing(Order::getCreationDatetime).thenComparing(Order::getId);
+
+    private final InMemoryDishOrderOperations dishOrderOperations;
+    private final IdSequence orderIds = new IdSequence();
+    private final IdSequence statusIds = new IdSequence();
+    // Rows of the order table, without lines nor statuses
+    private final Map<Long, Order> orders = new HashMap<>();
+    private final Map<Long, List<OrderStatusEntry>> statusesByOrder = new HashMap<>();
+
+    public InMemoryOrderOperations(InMemoryDishOrderOperations dishOrderOperations) {
+        super(dishOrderOperations.lock);
+        this.dishOrderOperations = dishOrderOperations;
+    }
+
+    @Override
+    public Order create(Order order) {
+        write(() -> {
+            List<DishOrder> dishOrders = order.getDishOrders() != null ? order.getDishOrders() : List.of();
+            dishOrderOperations.requireDishes(dishOrders);
+            order.setId(orderIds.next());
+            putOrder(order);
+            insertStatus(new OrderStatusEntry(null, order.getId(), OrderStatus.CREATED, order.getCreationDatetime()));
+            dishOrders.forEach(dishOrder -> dishOrder.setOrderId(order.getId()));
+            dishOrders.forEach(dishOrderOperations::create);
+        });
+        return findOptionalById(order.getId()).orElse(order);
+    }
+
+    @Override
+    public Optional<Order> findOptionalById(Long id) {
+        return read(() -> Optional.ofNullable(orders.get(id)).map(this::toOrder));
+    }
+
+    // The oldest order carrying the reference
+    @Override
+    public Optional<Order> findByReference(String reference) {
+        return read(() -> orders.values().stream()
+                .filter(order -> Objects.equals(order.getReference(), reference))
+                .min(Comparator.comparing(Order::getId))
+                .map(this::toOrder));
+    }
+
+    @Override
+    public List<Order> findAll() {
+        return read(() -> toOrders(sortedOrders()));
+    }
+
+    @Override
+    public void delete(Long id) {
+        write(() -> {
+            orders.remove(id);
+            statusesByOrder.remove(id);
+            dishOrderOperations.deleteByOrderId(id);
+        });
+    }
+
+    @Override
+    public void updateOrderStatus(Long orderId, OrderStatus status) {
+        write(() -> {
+            if (!orders.containsKey(orderId)) {
+                throw new RuntimeException("Error creating order status: Order.id=" + orderId + " not found");
+            }
+            insertStatus(new OrderStatusEntry(null, orderId, status, Instant.now()));
+        });
+    }
+
+    @Override
+    public Order save(Order order) {
+        try {
+            return write(() -> saveAllChecked(List.of(order))).get(0);
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Erreur lors de la sauvegarde de la commande: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public List<Order> getAll(int page, int size) {
+        return read(() -> toOrders(page(sortedOrders(), page, size)));
+    }
+
+    // Keyset pagination on (creation_datetime, id)
+    @Override
+    public Page<Order> getPageAfter(PageCursor cursor, int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Page size must be positive: " + size);
+        }
+        return read(() -> {
+            List<Order> following = new ArrayList<>();
+            for (Order order : sortedOrders()) {
+                if (cursor == null || isAfter(order, cursor)) {
+                    following.add(order);
+                    // One extra row tells whether a next page exists
+                    if (following.size() > size) {
+                        break;
+                    }
+                }
+            }
+            PageCursor nextCursor = null;
+            if (following.size() > size) {
+                following.remove(size);
+                Order last = following.get(size - 1);
+                nextCursor = new PageCursor(last.getCreationDatetime(), last.getId());
+            }
+            return new Page<>(toOrders(following), nextCursor);
+        });
+    }
+
+    private static boolean isAfter(Order order, PageCursor cursor) {
+        int byDatetime = order.getCreationDatetime().compareTo(cursor.getDatetime());
+        return byDatetime > 0 || byDatetime == 0 && order.getId() > cursor.getId();
+    }
+
+    @Override
+    public Order findById(Long id) {
+        return findOptionalById(id).orElseThrow(() -> new RuntimeException("Order with ID " + id + " not found"));
+    }
+
+    @Override
+    public List<Order> saveAll(List<Order> entities) {
+        if (entities == null || entities.isEmpty()) {
+            return new ArrayList<>();
+        }
+        BulkSaveResult<Order> result = saveChunks(entities, DEFAULT_CHUNK_SIZE, true);
+        if (result.hasFailures()) {
+            Exception cause = result.getFailures().get(0).getCause();
+            throw new RuntimeException("Erreur lors de la sauvegarde des commandes: " + cause.getMessage(), cause);
+        }
+        return result.getSaved();
+    }
+
+    @Override
+    public BulkSaveResult<Order> saveAll(List<Order> orders, int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+        }
+        return saveChunks(orders, chunkSize, false);
+    }
+
+    private BulkSaveResult<Order> saveChunks(List<Order> orders, int chunkSize, boolean stopAtFirstFailure) {
+        List<Order> saved = new ArrayList<>(orders.size());
+        List<BulkSaveResult.ChunkFailure<Order>> failures = new ArrayList<>();
+        for (int from = 0; from < orders.size(); from += chunkSize) {
+            List<Order> chunk = orders.subList(from, Math.min(from + chunkSize, orders.size()));
+            try {
+                saved.addAll(write(() -> saveAllChecked(chunk)));
+            } catch (RuntimeException e) {
+                failures.add(new BulkSaveResult.ChunkFailure<>(from, List.copyOf(chunk), e));
+                int firstIndex = from;
+                LOGGER.warning(() -> "Chunk of " + chunk.size() + " orders starting at " + firstIndex
+                        + " rejected: " + e.getMessage());
+                if (stopAtFirstFailure) {
+                    break;
+                }
+            }
+        }
+        return new BulkSaveResult<>(saved, failures);
+    }
+
+    // Under the write lock: every check runs before the first write, so a rejected chunk changes nothing
+    private List<Order> saveAllChecked(List<Order> chunk) {
+        List<DishOrder> dishOrders = new ArrayList<>();
+        for (Order order : chunk) {
+            if (order.getId() != null && !orders.containsKey(order.getId())) {
+                throw new RuntimeException("Updating order failed, no rows affected for id " + order.getId());
+            }
+            if (order.getDishOrders() != null) {
+                dishOrders.addAll(order.getDishOrders());
+            }
+        }
+        dishOrderOperations.requireSavable(dishOrders);
+
+        for (Order order : chunk) {
+            if (order.getId() == null) {
+                order.setId(orderIds.next());
+                // Initial status, saved with the others if the history does not already hold one
+                if (order.getStatusHistory() == null) {
+                    order.setStatusHistory(new ArrayList<>());
+                }
+                if (order.getStatusHistory().isEmpty()) {
+                    order.getStatusHistory().add(new OrderStatusEntry(null, order.getId(), OrderStatus.CREATED, order.getCreationDatetime()));
+                }
+            }
+            putOrder(order);
+            if (order.getDishOrders() != null) {
+                order.getDishOrders().forEach(dishOrder -> dishOrder.setOrderId(order.getId()));
+            }
+        }
+        dishOrderOperations.saveAllChecked(dishOrders);
+
+        for (Order order : chunk) {
+            if (order.getStatusHistory() != null) {
+                for (OrderStatusEntry statusEntry : order.getStatusHistory()) {
+                    if (statusEntry.getId() == null) {
+                        statusEntry.setOrderId(order.getId());
+                        statusEntry.setId(insertStatus(statusEntry));
+                    }
+                }
+            }
+        }
+        return chunk;
+    }
+
+    private void putOrder(Order order) {
+        orders.put(order.getId(), new Order(order.getId(), order.getReference(), order.getCreationDatetime(), null, null));
+    }
+
+    private Long insertStatus(OrderStatusEntry statusEntry) {
+        Long id = statusIds.next();
+        statusesByOrder.computeIfAbsent(statusEntry.getOrderId(), orderId -> new ArrayList<>())
+                .add(new OrderStatusEntry(id, statusEntry.getOrderId(), statusEntry.getStatus(), statusEntry.getStatusDatetime()));
+        return id;
+    }
+
+    private List<Order> sortedOrders() {
+        List<Order> sorted = new ArrayList<>(orders.values());
+        sorted.sort(BY_CREATION);
+        return sorted;
+    }
+
+    private List<Order> toOrders(List<Order> rows) {
+        List<Order> hydrated = new ArrayList<>(rows.size());
+        rows.forEach(row -> hydrated.add(toOrder(row)));
+        return hydrated;
+    }
+
+    // Called under the read or write lock
+    private Order toOrder(Order row) {
+        List<OrderStatusEntry> statusHistory = new ArrayList<>();
+        for (OrderStatusEntry entry : statusesByOrder.getOrDefault(row.getId(), List.of())) {
+            statusHistory.add(new OrderStatusEntry(entry.getId(), entry.getOrderId(), entry.getStatus(), entry.getStatusDatetime()));
+        }
+        statusHistory.sort(Comparator.comparing(OrderStatusEntry::getStatusDatetime));
+        return new Order(row.getId(), row.getReference(), row.getCreationDatetime(),
+                dishOrderOperations.findByOrderId(row.getId()), statusHistory);
+    }
+}
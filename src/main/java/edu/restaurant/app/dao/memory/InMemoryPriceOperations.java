@@ -0,0 +1,63 @@
+package edu.restaurant.app.dao.memory;
+
+import edu.restaurant.app.dao.entity.Price;
+import edu.restaurant.app.dao.operations.PriceOperations;
+
+import java.util.*;
+
+// Price rows are copied without their ingredient, as read from the price table
+public class InMemoryPriceOperations extends InMemoryStore implements PriceOperations {
+    private final IdSequence priceIds = new IdSequence();
+    private final NavigableMap<Long, Price> prices = new TreeMap<>();
+    private final Map<Long, List<Price>> pricesByIngredient = new HashMap<>();
+
+    @Override
+    public List<Price> getAll(int page, int size) {
+        return read(() -> page(copies(prices.values()), page, size));
+    }
+
+    @Override
+    public Price findById(Long id) {
+        return read(() -> {
+            Price price = prices.get(id);
+            if (price == null) {
+                throw new RuntimeException("Price.id=" + id + " not found");
+            }
+            return copy(price);
+        });
+    }
+
+    // Like ON CONFLICT (id) DO NOTHING: an existing price is kept and not returned
+    @Override
+    public List<Price> saveAll(List<Price> entities) {
+        return write(() -> {
+            List<Price> saved = new ArrayList<>();
+            for (Price price : entities) {
+                if (price.getId() != null && prices.containsKey(price.getId())) {
+                    continue;
+                }
+                price.setId(priceIds.assign(price.getId()));
+                Price row = copy(price);
+                prices.put(row.getId(), row);
+                pricesByIngredient.computeIfAbsent(price.getIngredient().getId(), idIngredient -> new ArrayList<>()).add(row);
+                saved.add(copy(row));
+            }
+            return saved;
+        });
+    }
+
+    @Override
+    public List<Price> findByIdIngredient(Long idIngredient) {
+        return read(() -> copies(pricesByIngredient.getOrDefault(idIngredient, List.of())));
+    }
+
+    private static List<Price> copies(Collection<Price> rows) {
+        List<Price> copies = new ArrayList<>(rows.size());
+        rows.forEach(row -> copies.add(copy(row)));
+        return copies;
+    }
+
+    private static Price copy(Price price) {
+        return new Price(price.getId(), null, price.getAmount(), price.getDateValue());
+    }
+}
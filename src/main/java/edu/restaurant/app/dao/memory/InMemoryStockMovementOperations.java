@@ -0,0 +1,130 @@
+package edu.restaurant.app.dao.memory;
+
+import edu.restaurant.app.dao.entity.Ingredient;
+import edu.restaurant.app.dao.entity.StockMovement;
+import edu.restaurant.app.dao.entity.StockMovementType;
+import edu.restaurant.app.dao.operations.StockMovementOperations;
+
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * Mouvements de stock en mémoire, rangés par ingrédient et par date. Il n'y a ni point de stock ni archive :
+ * le stock d'un ingrédient est la somme signée de tous ses mouvements jusqu'à la date demandée.
+ */
+public class InMemoryStockMovementOperations extends InMemoryStore implements StockMovementOperations {
+    private static final Comparator<StockMovement> BY_DATETIME =
+            Comparator.comparing(StockMovement::getCreationDatetime).thenComparing(StockMovement::getId);
+
+    private final IdSequence stockMovementIds = new IdSequence();
+    private final NavigableMap<Long, StockMovement> stockMovements = new TreeMap<>();
+    private final Map<Long, NavigableSet<StockMovement>> stockMovementsByIngredient = new HashMap<>();
+
+    @Override
+    public List<StockMovement> getAll(int page, int size) {
+        return read(() -> page(copies(stockMovements.values()), page, size));
+    }
+
+    @Override
+    public StockMovement findById(Long id) {
+        return read(() -> {
+            StockMovement stockMovement = stockMovements.get(id);
+            if (stockMovement == null) {
+                throw new RuntimeException("StockMovement.id=" + id + " not found");
+            }
+            return copy(stockMovement);
+        });
+    }
+
+    // Like the conflict clause of the table: a movement whose id already exists is skipped and not returned
+    @Override
+    public List<StockMovement> saveAll(List<StockMovement> entities) {
+        return write(() -> {
+            List<StockMovement> saved = new ArrayList<>();
+            for (StockMovement stockMovement : entities) {
+                if (stockMovement.getId() != null && stockMovements.containsKey(stockMovement.getId())) {
+                    continue;
+                }
+                stockMovement.setId(stockMovementIds.assign(stockMovement.getId()));
+                StockMovement row = copy(stockMovement);
+                if (row.getCreationDatetime() == null) {
+                    row.setCreationDatetime(Instant.now());
+                }
+                stockMovements.put(row.getId(), row);
+                stockMovementsByIngredient.computeIfAbsent(stockMovement.getIngredient().getId(),
+                        idIngredient -> new TreeSet<>(BY_DATETIME)).add(row);
+                saved.add(stockMovement);
+            }
+            return saved;
+        });
+    }
+
+    @Override
+    public List<StockMovement> findByIdIngredient(Long idIngredient) {
+        return read(() -> copies(stockMovementsByIngredient.getOrDefault(idIngredient, Collections.emptyNavigableSet())));
+    }
+
+    @Override
+    public Double getStockLevel(Long idIngredient) {
+        return getStockLevels(List.of(idIngredient)).get(idIngredient);
+    }
+
+    @Override
+    public Double getStockLevel(Long idIngredient, Instant datetime) {
+        return getStockLevels(List.of(idIngredient), datetime).get(idIngredient);
+    }
+
+    @Override
+    public Map<Long, Double> getStockLevels(Collection<Long> idIngredients) {
+        return findStockLevels(idIngredients, Instant.MAX);
+    }
+
+    @Override
+    public Map<Long, Double> getStockLevels(Collection<Long> idIngredients, Instant datetime) {
+        return findStockLevels(idIngredients, Objects.requireNonNull(datetime));
+    }
+
+    @Override
+    public Map<Ingredient, Double> getAvailableQuantities(Collection<Ingredient> ingredients) {
+        Set<Long> idIngredients = new HashSet<>();
+        ingredients.forEach(ingredient -> idIngredients.add(ingredient.getId()));
+        Map<Long, Double> stockLevels = getStockLevels(idIngredients);
+
+        Map<Ingredient, Double> availableQuantities = new HashMap<>();
+        ingredients.forEach(ingredient -> availableQuantities.put(ingredient, stockLevels.get(ingredient.getId())));
+        return availableQuantities;
+    }
+
+    private Map<Long, Double> findStockLevels(Collection<Long> idIngredients, Instant datetime) {
+        return read(() -> {
+            Map<Long, Double> stockLevels = new HashMap<>();
+            for (Long idIngredient : idIngredients) {
+                double quantity = 0;
+                for (StockMovement stockMovement : stockMovementsByIngredient.getOrDefault(idIngredient, Collections.emptyNavigableSet())) {
+                    if (stockMovement.getCreationDatetime().isAfter(datetime)) {
+                        break;
+                    }
+                    if (stockMovement.getMovementType() == StockMovementType.IN) {
+                        quantity += stockMovement.getQuantity();
+                    } else if (stockMovement.getMovementType() == StockMovementType.OUT) {
+                        quantity -= stockMovement.getQuantity();
+                    }
+                }
+                stockLevels.put(idIngredient, quantity);
+            }
+            return stockLevels;
+        });
+    }
+
+    private static List<StockMovement> copies(Collection<StockMovement> rows) {
+        List<StockMovement> copies = new ArrayList<>(rows.size());
+        rows.forEach(row -> copies.add(copy(row)));
+        return copies;
+    }
+
+    // Rows are copied without their ingredient, as read from the stock_movement table
+    private static StockMovement copy(StockMovement stockMovement) {
+        return new StockMovement(stockMovement.getId(), null, stockMovement.getQuantity(), stockMovement.getUnit(),
+                stockMovement.getMovementType(), stockMovement.getCreationDatetime());
+    }
+}
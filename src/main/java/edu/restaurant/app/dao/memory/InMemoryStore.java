@@ -0,0 +1,82 @@
+package edu.restaurant.app.dao.memory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Tables en mémoire protégées par un verrou lecture-écriture : les lectures sont parallèles,
+ * une écriture est exclusive et n'est visible qu'une fois terminée, comme une transaction validée.
+ * Les DAO qui s'écrivent ensemble (commandes et plats de commande) partagent le même verrou.
+ */
+abstract class InMemoryStore {
+    final ReadWriteLock lock;
+
+    InMemoryStore() {
+        this(new ReentrantReadWriteLock());
+    }
+
+    InMemoryStore(ReadWriteLock lock) {
+        this.lock = lock;
+    }
+
+    <T> T read(Supplier<T> query) {
+        lock.readLock().lock();
+        try {
+            return query.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    <T> T write(Supplier<T> update) {
+        lock.writeLock().lock();
+        try {
+            return update.get();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void write(Runnable update) {
+        write(() -> {
+            update.run();
+            return null;
+        });
+    }
+
+    // Same offset semantics as LIMIT ? OFFSET ?
+    static <T> List<T> page(List<T> rows, int page, int size) {
+        if (page < 0 || size <= 0) {
+            throw new IllegalArgumentException("Invalid page " + page + " of size " + size);
+        }
+        long from = (long) page * size;
+        if (from >= rows.size()) {
+            return new ArrayList<>();
+        }
+        return new ArrayList<>(rows.subList((int) from, (int) Math.min(from + size, rows.size())));
+    }
+
+    /**
+     * Séquence d'ids d'une table. Un id fourni par l'appelant (jeu de données de test) fait avancer la séquence
+     * au-delà de lui, pour que les ids générés ensuite ne le rencontrent jamais.
+     */
+    static final class IdSequence {
+        private final AtomicLong lastId = new AtomicLong();
+
+        Long next() {
+            return lastId.incrementAndGet();
+        }
+
+        Long assign(Long id) {
+            if (id == null) {
+                return next();
+            }
+            lastId.accumulateAndGet(id, Math::max);
+            return id;
+        }
+    }
+}
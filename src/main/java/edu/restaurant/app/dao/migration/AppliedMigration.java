@@ -0,0 +1,27 @@
+package edu.restaurant.app.dao.migration;
+
+/**
+ * Migration appliquée par un passage du {@link MigrationRunner}, avec sa durée.
+ */
+public final class AppliedMigration {
+    private final Migration migration;
+    private final long executionTimeMillis;
+
+    public AppliedMigration(Migration migration, long executionTimeMillis) {
+        this.migration = migration;
+        this.executionTimeMillis = executionTimeMillis;
+    }
+
+    public Migration getMigration() {
+        return migration;
+    }
+
+    public long getExecutionTimeMillis() {
+        return executionTimeMillis;
+    }
+
+    @Override
+    public String toString() {
+        return migration + " in " + executionTimeMillis + " ms";
+    }
+}
@@ -0,0 +1,85 @@
+package edu.restaurant.app.dao.migration;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Script de migration nommé {@code <version>_<description>.sql}, par exemple {@code 3_create_table_dish_ingredient.sql}.
+ * Son empreinte SHA-256 permet de repérer un script modifié après avoir été appliqué.
+ */
+public final class Migration implements Comparable<Migration> {
+    private static final Pattern SCRIPT_NAME = Pattern.compile("(\\d+)_(.+)\\.sql");
+
+    private final String location;
+    private final int version;
+    private final String description;
+    private final String script;
+    private final String sql;
+    private final String checksum;
+
+    public Migration(String location, String script, String sql) {
+        Matcher matcher = SCRIPT_NAME.matcher(script);
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Migration script name must be <version>_<description>.sql: " + script);
+        }
+        this.location = location;
+        this.version = Integer.parseInt(matcher.group(1));
+        this.description = matcher.group(2).replace('_', ' ');
+        this.script = script;
+        this.sql = sql;
+        this.checksum = sha256(sql);
+    }
+
+    static boolean isScript(String fileName) {
+        return SCRIPT_NAME.matcher(fileName).matches();
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public String getScript() {
+        return script;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    public String getChecksum() {
+        return checksum;
+    }
+
+    // Numeric order: 10_... comes after 9_...
+    @Override
+    public int compareTo(Migration other) {
+        return Integer.compare(version, other.version);
+    }
+
+    @Override
+    public String toString() {
+        return location + "/" + script;
+    }
+
+    private static String sha256(String sql) {
+        try {
+            // Line endings do not change the checksum, so a checkout on Windows matches the history
+            byte[] normalized = sql.replace("\r\n", "\n").getBytes(StandardCharsets.UTF_8);
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(normalized));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
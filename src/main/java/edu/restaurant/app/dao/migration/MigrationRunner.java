@@ -0,0 +1,208 @@
+package edu.restaurant.app.dao.migration;
+
+import edu.restaurant.app.dao.DataSource;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.*;
+import java.sql.*;
+import java.util.*;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * Applique au démarrage les scripts SQL du classpath qui ne l'ont pas encore été.
+ * <p>
+ * Les versions appliquées sont tenues, avec l'empreinte de leur script, dans la table {@value #HISTORY_TABLE} ;
+ * un script modifié après coup fait échouer le passage plutôt que d'être ignoré. Chaque script en attente
+ * est appliqué dans sa propre transaction, avec sa ligne d'historique. Un verrou consultatif tenu pendant
+ * tout le passage sérialise les instances qui démarrent en même temps : les suivantes attendent,
+ * puis ne trouvent plus rien à appliquer.
+ * <p>
+ * Les scripts ne doivent donc pas contenir d'instruction interdite en transaction ({@code create index concurrently}...).
+ */
+public class MigrationRunner {
+    private static final Logger LOGGER = Logger.getLogger(MigrationRunner.class.getName());
+
+    public static final String SCHEMA_LOCATION = "db.migration";
+    public static final String TEST_DATA_LOCATION = "db.testdata";
+    static final String HISTORY_TABLE = "schema_migration_history";
+    // Application-wide key of the session advisory lock ("restomig")
+    private static final long LOCK_KEY = 0x7265_7374_6f6d_6967L;
+
+    private static final String CREATE_HISTORY_TABLE_SQL = "create table if not exists " + HISTORY_TABLE + " ("
+            + " location varchar not null,"
+            + " version integer not null,"
+            + " description varchar not null,"
+            + " script varchar not null,"
+            + " checksum char(64) not null,"
+            + " execution_time_ms bigint not null,"
+            + " installed_on timestamp without time zone not null default now(),"
+            + " primary key (location, version))";
+
+    private final DataSource dataSource;
+    private final List<String> locations;
+
+    public MigrationRunner(DataSource dataSource, List<String> locations) {
+        this.dataSource = dataSource;
+        this.locations = List.copyOf(locations);
+    }
+
+    /**
+     * Applique les migrations en attente, emplacement par emplacement et par version croissante.
+     * @return les migrations appliquées par ce passage, avec leur durée (vide si la base était à jour)
+     */
+    public List<AppliedMigration> migrate() {
+        List<Migration> migrations = new ArrayList<>();
+        for (String location : locations) {
+            migrations.addAll(discover(location));
+        }
+
+        long start = System.nanoTime();
+        try (Connection connection = dataSource.getConnection()) {
+            lock(connection);
+            try {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute(CREATE_HISTORY_TABLE_SQL);
+                }
+                Map<String, String> appliedChecksums = appliedChecksums(connection);
+
+                List<AppliedMigration> applied = new ArrayList<>();
+                for (Migration migration : migrations) {
+                    String checksum = appliedChecksums.get(historyKey(migration.getLocation(), migration.getVersion()));
+                    if (checksum == null) {
+                        applied.add(apply(connection, migration));
+                    } else if (!checksum.equals(migration.getChecksum())) {
+                        throw new IllegalStateException("Migration " + migration
+                                + " was modified after being applied (checksum " + checksum + " in " + HISTORY_TABLE + ")");
+                    }
+                }
+
+                long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+                LOGGER.info(() -> applied.isEmpty()
+                        ? "Database schema up to date (" + migrations.size() + " migrations checked in " + elapsedMillis + " ms)"
+                        : "Applied " + applied.size() + " of " + migrations.size() + " migrations in " + elapsedMillis + " ms");
+                return applied;
+            } finally {
+                unlock(connection);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error while migrating database: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Scripts d'un emplacement du classpath (dossier ou jar), triés par version.
+     */
+    public static List<Migration> discover(String location) {
+        URL url = MigrationRunner.class.getClassLoader().getResource(location);
+        if (url == null) {
+            throw new IllegalArgumentException("Migration location not found on the classpath: " + location);
+        }
+        try {
+            URI uri = url.toURI();
+            if (!"jar".equals(uri.getScheme())) {
+                return readScripts(location, Paths.get(uri));
+            }
+            try (FileSystem jar = FileSystems.newFileSystem(uri, Map.of())) {
+                return readScripts(location, jar.getPath(location));
+            } catch (FileSystemAlreadyExistsException e) {
+                return readScripts(location, FileSystems.getFileSystem(uri).getPath(location));
+            }
+        } catch (URISyntaxException | IOException e) {
+            throw new RuntimeException("Error while reading migrations from " + location + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static List<Migration> readScripts(String location, Path directory) throws IOException {
+        List<Migration> migrations = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files.sorted()::iterator) {
+                String fileName = file.getFileName().toString();
+                if (Migration.isScript(fileName)) {
+                    migrations.add(new Migration(location, fileName, Files.readString(file)));
+                }
+            }
+        }
+        Collections.sort(migrations);
+        for (int i = 1; i < migrations.size(); i++) {
+            if (migrations.get(i).getVersion() == migrations.get(i - 1).getVersion()) {
+                throw new IllegalStateException("Duplicate migration version: " + migrations.get(i - 1) + " and " + migrations.get(i));
+            }
+        }
+        return migrations;
+    }
+
+    private AppliedMigration apply(Connection connection, Migration migration) throws SQLException {
+        long start = System.nanoTime();
+        connection.setAutoCommit(false);
+        try {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(migration.getSql());
+            }
+            long executionTimeMillis = (System.nanoTime() - start) / 1_000_000;
+            try (PreparedStatement statement = connection.prepareStatement("insert into " + HISTORY_TABLE
+                    + " (location, version, description, script, checksum, execution_time_ms) values (?, ?, ?, ?, ?, ?)")) {
+                statement.setString(1, migration.getLocation());
+                statement.setInt(2, migration.getVersion());
+                statement.setString(3, migration.getDescription());
+                statement.setString(4, migration.getScript());
+                statement.setString(5, migration.getChecksum());
+                statement.setLong(6, executionTimeMillis);
+                statement.executeUpdate();
+            }
+            connection.commit();
+
+            AppliedMigration applied = new AppliedMigration(migration, executionTimeMillis);
+            LOGGER.info(() -> "Applied migration " + applied);
+            return applied;
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback();
+            throw new SQLException("Migration " + migration + " failed, rolled back: " + e.getMessage(), e);
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    private static Map<String, String> appliedChecksums(Connection connection) throws SQLException {
+        Map<String, String> checksums = new HashMap<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("select location, version, checksum from " + HISTORY_TABLE)) {
+            while (resultSet.next()) {
+                checksums.put(historyKey(resultSet.getString("location"), resultSet.getInt("version")),
+                        resultSet.getString("checksum"));
+            }
+        }
+        return checksums;
+    }
+
+    private static String historyKey(String location, int version) {
+        return location + "/" + version;
+    }
+
+    // Session lock: held across the per-migration transactions, released before the connection goes back to the pool
+    private static void lock(Connection connection) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("select pg_try_advisory_lock(?)")) {
+            statement.setLong(1, LOCK_KEY);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                if (resultSet.next() && resultSet.getBoolean(1)) {
+                    return;
+                }
+            }
+        }
+        LOGGER.info("Waiting for another instance to finish migrating the database");
+        try (PreparedStatement statement = connection.prepareStatement("select pg_advisory_lock(?)")) {
+            statement.setLong(1, LOCK_KEY);
+            statement.execute();
+        }
+    }
+
+    private static void unlock(Connection connection) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("select pg_advisory_unlock(?)")) {
+            statement.setLong(1, LOCK_KEY);
+            statement.execute();
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package edu.restaurant.app.dao.migration;
+
+import edu.restaurant.app.dao.DataSource;
+
+import java.sql.*;
+import java.time.Duration;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Entretien des partitions mensuelles des tables d'historique (migration 14) : création à l'avance
+ * des partitions des mois à venir, et suppression des mois sortis de la durée de conservation.
+ */
+public class PartitionMaintenance implements AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(PartitionMaintenance.class.getName());
+    private static final int DEFAULT_MONTHS_AHEAD = 3;
+    private static final Duration DEFAULT_PERIOD = Duration.ofDays(1);
+
+    public enum PartitionedTable {
+        ORDER_STATUS("order_status", "status_datetime"),
+        ORDER_DISH_STATUS("order_dish_status", "status_datetime"),
+        // Stock levels are computed from every live movement: only compacted months can be dropped
+        STOCK_MOVEMENT("stock_movement", "creation_datetime");
+
+        private final String tableName;
+        private final String keyColumn;
+
+        PartitionedTable(String tableName, String keyColumn) {
+            this.tableName = tableName;
+            this.keyColumn = keyColumn;
+        }
+
+        public String getTableName() {
+            return tableName;
+        }
+    }
+
+    private final DataSource dataSource;
+    private final int monthsAhead;
+    private ScheduledExecutorService scheduler;
+
+    public PartitionMaintenance(DataSource dataSource) {
+        this(dataSource, DEFAULT_MONTHS_AHEAD);
+    }
+
+    public PartitionMaintenance(DataSource dataSource, int monthsAhead) {
+        if (monthsAhead < 1) {
+            throw new IllegalArgumentException("At least the next month must be created ahead: " + monthsAhead);
+        }
+        this.dataSource = dataSource;
+        this.monthsAhead = monthsAhead;
+    }
+
+    /**
+     * Crée les partitions manquantes du mois courant et des monthsAhead mois suivants, pour chaque table.
+     * @return le nombre de partitions créées
+     */
+    public int ensureFuturePartitions() {
+        YearMonth current = YearMonth.now();
+        int created = 0;
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("select ensure_monthly_partitions(?, ?, ?, ?)")) {
+            for (PartitionedTable table : PartitionedTable.values()) {
+                statement.setString(1, table.tableName);
+                statement.setString(2, table.keyColumn);
+                statement.setObject(3, current.atDay(1));
+                statement.setObject(4, current.plusMonths(monthsAhead).atDay(1));
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    resultSet.next();
+                    created += resultSet.getInt(1);
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error while creating history partitions: " + e.getMessage(), e);
+        }
+        if (created > 0) {
+            int createdPartitions = created;
+            LOGGER.info(() -> "Created " + createdPartitions + " history partitions up to " + current.plusMonths(monthsAhead));
+        }
+        return created;
+    }
+
+    /**
+     * Crée tout de suite les partitions manquantes, puis relance {@link #ensureFuturePartitions()} à chaque période
+     * tant que le processus tourne : les mois suivants existent avant que des lignes les atteignent.
+     * Le fil est un démon : il ne garde pas le processus en vie. Un processus qui s'arrête après le démarrage
+     * (RestaurantApplication) appelle plutôt {@link #ensureFuturePartitions()} et est relancé par une tâche planifiée.
+     * Une erreur au démarrage est levée ; une erreur d'une relance est journalisée et retentée à la suivante.
+     */
+    public synchronized void start(Duration period) {
+        if (scheduler != null) {
+            throw new IllegalStateException("Partition maintenance already started");
+        }
+        ensureFuturePartitions();
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "history-partition-maintenance");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                ensureFuturePartitions();
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.WARNING, "History partitions not created, retrying at the next run", e);
+            }
+        }, period.toMillis(), period.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public void start() {
+        start(DEFAULT_PERIOD);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    /**
+     * Supprime les partitions mensuelles antérieures au mois donné : la rétention coûte un DROP par mois, sans DELETE.
+     * Pour les mouvements de stock, seules les partitions déjà vidées par le compactage sont supprimées.
+     * @return les partitions supprimées
+     */
+    public List<String> dropPartitionsBefore(PartitionedTable table, YearMonth month) {
+        List<String> dropped = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection()) {
+            for (String partition : monthlyPartitions(connection, table)) {
+                if (monthOf(table, partition).isBefore(month) && dropPartition(connection, table, partition)) {
+                    dropped.add(partition);
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error while dropping partitions of " + table.tableName + ": " + e.getMessage(), e);
+        }
+        LOGGER.info(() -> "Dropped " + dropped.size() + " partitions of " + table.tableName + " before " + month);
+        return dropped;
+    }
+
+    /**
+     * Vérifie et supprime une partition dans une même transaction, sous verrou exclusif : une ligne antidatée
+     * ne peut pas y arriver entre la vérification et la suppression.
+     * @return false si la partition est gardée
+     */
+    private static boolean dropPartition(Connection connection, PartitionedTable table, String partition) throws SQLException {
+        connection.setAutoCommit(false);
+        try (Statement statement = connection.createStatement()) {
+            // Parent first, then the partition: the order in which inserts take their locks
+            statement.execute("lock table only " + table.tableName + ", " + partition + " in access exclusive mode");
+            if (table == PartitionedTable.STOCK_MOVEMENT && !isEmpty(connection, partition)) {
+                connection.rollback();
+                LOGGER.warning(() -> "Keeping " + partition + ": its movements are not compacted yet");
+                return false;
+            }
+            statement.execute("drop table " + partition);
+            connection.commit();
+            return true;
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    private static List<String> monthlyPartitions(Connection connection, PartitionedTable table) throws SQLException {
+        List<String> partitions = new ArrayList<>();
+        try (PreparedStatement statement = connection.prepareStatement(
+                "select c.relname from pg_inherits i join pg_class c on c.oid = i.inhrelid"
+                        + " where i.inhparent = cast(? as regclass) order by c.relname")) {
+            statement.setString(1, table.tableName);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    String partition = resultSet.getString(1);
+                    if (monthOf(table, partition) != null) {
+                        partitions.add(partition);
+                    }
+                }
+            }
+        }
+        return partitions;
+    }
+
+    // Month of a <table>_pYYYY_MM partition, null for the default partition
+    static YearMonth monthOf(PartitionedTable table, String partition) {
+        Matcher matcher = Pattern.compile(Pattern.quote(table.tableName) + "_p(\\d{4})_(\\d{2})").matcher(partition);
+        if (!matcher.matches()) {
+            return null;
+        }
+        return YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)));
+    }
+
+    private static boolean isEmpty(Connection connection, String partition) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("select not exists (select 1 from " + partition + ")")) {
+            resultSet.next();
+            return resultSet.getBoolean(1);
+        }
+    }
+}
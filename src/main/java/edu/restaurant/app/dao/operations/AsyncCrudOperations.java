@@ -0,0 +1,15 @@
+package edu.restaurant.app.dao.operations;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+// Non-blocking companion of CrudOperations: same semantics, results delivered through futures (see AsyncExecution)
+public interface AsyncCrudOperations<E> {
+    // Completes exceptionally when the entity does not exist
+    CompletableFuture<E> findByIdAsync(Long id);
+
+    CompletableFuture<List<E>> saveAllAsync(List<E> entities);
+
+    // Executor and default timeout of the async calls
+    void setAsyncExecution(AsyncExecution asyncExecution);
+}
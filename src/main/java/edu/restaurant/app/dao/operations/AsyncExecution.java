@@ -0,0 +1,76 @@
+package edu.restaurant.app.dao.operations;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Exécution des appels asynchrones des DAO : chaque appel bloquant part sur l'exécuteur et rend
+ * un {@link CompletableFuture}.
+ * <p>
+ * Annuler le futur ({@code cancel}) ou le voir expirer ({@code orTimeout}, ou le délai par défaut)
+ * interrompt l'appel en cours : l'attente d'une connexion du pool s'arrête, une requête déjà partie
+ * échoue et sa connexion est écartée par le pool. Un appel pas encore démarré ne démarre plus.
+ * Seul le futur rendu par le DAO propage l'annulation, pas ceux qui en dérivent ({@code thenApply}...).
+ */
+public class AsyncExecution {
+    // One virtual thread per call: a blocked call costs no platform thread
+    public static final AsyncExecution DEFAULT = new AsyncExecution(Executors.newVirtualThreadPerTaskExecutor(), null);
+
+    private final ExecutorService executor;
+    private final Duration timeout;
+
+    /**
+     * @param timeout délai appliqué à chaque appel, null pour aucun
+     */
+    public AsyncExecution(ExecutorService executor, Duration timeout) {
+        if (timeout != null && (timeout.isNegative() || timeout.isZero())) {
+            throw new IllegalArgumentException("Timeout must be positive: " + timeout);
+        }
+        this.executor = executor;
+        this.timeout = timeout;
+    }
+
+    public AsyncExecution withTimeout(Duration timeout) {
+        return new AsyncExecution(executor, timeout);
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    public <T> CompletableFuture<T> supply(Supplier<T> call) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Future<?> running = executor.submit(() -> {
+            if (result.isDone()) {
+                return;
+            }
+            try {
+                result.complete(call.get());
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        });
+        // Cancellation and timeouts complete the future first: the worker is then interrupted
+        result.whenComplete((value, failure) -> {
+            if (failure != null) {
+                running.cancel(true);
+            }
+        });
+        if (timeout != null) {
+            result.orTimeout(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        }
+        return result;
+    }
+
+    public CompletableFuture<Void> run(Runnable call) {
+        return supply(() -> {
+            call.run();
+            return null;
+        });
+    }
+}
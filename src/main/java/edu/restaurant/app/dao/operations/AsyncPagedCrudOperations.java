@@ -0,0 +1,11 @@
+package edu.restaurant.app.dao.operations;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+// Non-blocking companion of PagedCrudOperations: the listing calls of the DAOs that page (dishes, orders)
+public interface AsyncPagedCrudOperations<E> extends AsyncCrudOperations<E> {
+    CompletableFuture<List<E>> getAllAsync(int page, int size);
+
+    CompletableFuture<Page<E>> getPageAfterAsync(PageCursor cursor, int size);
+}
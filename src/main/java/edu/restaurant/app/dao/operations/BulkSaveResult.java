@@ -0,0 +1,73 @@
+package edu.restaurant.app.dao.operations;
+
+import java.util.List;
+
+/**
+ * Résultat d'une sauvegarde en lots : les entités enregistrées et, pour chaque lot annulé, ses entités et la cause.
+ */
+public class BulkSaveResult<E> {
+    private final List<E> saved;
+    private final List<ChunkFailure<E>> failures;
+
+    public BulkSaveResult(List<E> saved, List<ChunkFailure<E>> failures) {
+        this.saved = saved;
+        this.failures = failures;
+    }
+
+    public List<E> getSaved() {
+        return saved;
+    }
+
+    public List<ChunkFailure<E>> getFailures() {
+        return failures;
+    }
+
+    public boolean hasFailures() {
+        return !failures.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "BulkSaveResult{" +
+                "saved=" + saved.size() +
+                ", failures=" + failures +
+                '}';
+    }
+
+    /**
+     * Lot annulé : aucune de ses entités n'a été enregistrée et leurs ids générés ont été remis à null.
+     */
+    public static class ChunkFailure<E> {
+        private final int firstIndex;
+        private final List<E> entities;
+        private final Exception cause;
+
+        public ChunkFailure(int firstIndex, List<E> entities, Exception cause) {
+            this.firstIndex = firstIndex;
+            this.entities = entities;
+            this.cause = cause;
+        }
+
+        // Position du premier élément du lot dans la liste sauvegardée
+        public int getFirstIndex() {
+            return firstIndex;
+        }
+
+        public List<E> getEntities() {
+            return entities;
+        }
+
+        public Exception getCause() {
+            return cause;
+        }
+
+        @Override
+        public String toString() {
+            return "ChunkFailure{" +
+                    "firstIndex=" + firstIndex +
+                    ", size=" + entities.size() +
+                    ", cause=" + cause.getMessage() +
+                    '}';
+        }
+    }
+}
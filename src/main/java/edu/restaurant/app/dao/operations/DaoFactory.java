@@ -0,0 +1,22 @@
+package edu.restaurant.app.dao.operations;
+
+import edu.restaurant.app.dao.entity.Dish;
+
+/**
+ * Point d'accès unique aux DAO : {@link JdbcDaoFactory} pour PostgreSQL,
+ * {@link edu.restaurant.app.dao.memory.InMemoryDaoFactory} pour les tests unitaires et les benchmarks sans base.
+ * Les DAO d'une même fabrique partagent leur stockage : une commande lit les plats de la même fabrique.
+ */
+public interface DaoFactory {
+    OrderOperations orders();
+
+    DishOrderOperations dishOrders();
+
+    PagedCrudOperations<Dish> dishes();
+
+    IngredientOperations ingredients();
+
+    PriceOperations prices();
+
+    StockMovementOperations stockMovements();
+}
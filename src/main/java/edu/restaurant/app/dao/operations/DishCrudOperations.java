@@ -7,30 +7,114 @@ import edu.restaurant.app.dao.entity.DishIngredient;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
-public class DishCrudOperations implements CrudOperations<Dish> {
+public class DishCrudOperations implements PagedCrudOperations<Dish>, AsyncPagedCrudOperations<Dish> {
     private final DataSource dataSource = new DataSource();
-    private final IngredientCrudOperations ingredientCrudOperations = new IngredientCrudOperations();
+    private final IngredientCrudOperations ingredientCrudOperations;
+    private final DishGraphLoader dishGraphLoader = new DishGraphLoader();
+    // Null when dishes are read from the database on every call
+    private final MenuCatalog menuCatalog;
+    private volatile AsyncExecution asyncExecution = AsyncExecution.DEFAULT;
+
+    public DishCrudOperations() {
+        this(null);
+    }
+
+    // Catalog mode: findById is served from memory and saving dishes reloads the catalog
+    public DishCrudOperations(MenuCatalog menuCatalog) {
+        this(menuCatalog, ParallelHydrator.SEQUENTIAL);
+    }
+
+    // The hydrator loads the ingredients of a recipe, and their prices and stock, in parallel
+    public DishCrudOperations(MenuCatalog menuCatalog, ParallelHydrator hydrator) {
+        this.menuCatalog = menuCatalog;
+        this.ingredientCrudOperations = new IngredientCrudOperations(hydrator);
+    }
 
     @Override
     public List<Dish> getAll(int page, int size) {
-        throw new UnsupportedOperationException("Not supported yet.");
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("SELECT d.id FROM dish d ORDER BY d.id LIMIT ? OFFSET ?")) {
+            statement.setInt(1, size);
+            statement.setInt(2, page * size);
+            return new ArrayList<>(dishGraphLoader.loadDishes(connection, readIds(statement)).values());
+        } catch (SQLException e) {
+            throw new RuntimeException("Error while finding dishes page: " + page, e);
+        }
+    }
+
+    // Keyset pagination on the primary key
+    @Override
+    public Page<Dish> getPageAfter(PageCursor cursor, int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Page size must be positive: " + size);
+        }
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("SELECT d.id FROM dish d WHERE d.id > ? ORDER BY d.id LIMIT ?")) {
+            statement.setLong(1, cursor == null ? Long.MIN_VALUE : cursor.getId());
+            // One extra row tells whether a next page exists
+            statement.setInt(2, size + 1);
+            List<Long> ids = readIds(statement);
+
+            PageCursor nextCursor = null;
+            if (ids.size() > size) {
+                ids.remove(size);
+                nextCursor = PageCursor.afterId(ids.get(size - 1));
+            }
+            return new Page<>(new ArrayList<>(dishGraphLoader.loadDishes(connection, ids).values()), nextCursor);
+        } catch (SQLException e) {
+            throw new RuntimeException("Error while finding dishes page after: " + cursor, e);
+        }
+    }
+
+    private List<Long> readIds(PreparedStatement statement) throws SQLException {
+        List<Long> ids = new ArrayList<>();
+        try (ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                ids.add(resultSet.getLong("id"));
+            }
+        }
+        return ids;
     }
 
     @Override
     public Dish findById(Long id) {
+        if (menuCatalog != null) {
+            Optional<Dish> dish = menuCatalog.findById(id);
+            // A dish created since the last reload is still read from the database
+            if (dish.isPresent()) {
+                return dish.get();
+            }
+        }
+        try {
+            return IdentityMap.load(Dish.class, id, () -> findInDatabase(id));
+        } catch (SQLException e) {
+            throw new RuntimeException("Error while finding dish by id: " + id, e);
+        }
+    }
+
+    private Dish findInDatabase(Long id) throws SQLException {
+        Dish dish = null;
         try (Connection connection = dataSource.getConnection();
              PreparedStatement statement = connection.prepareStatement("SELECT d.id, d.name, d.price FROM dish d WHERE id = ?")) {
             statement.setLong(1, id);
             try (ResultSet resultSet = statement.executeQuery()) {
                 if (resultSet.next()) {
-                    return mapFromResultSet(resultSet);
+                    dish = new Dish();
+                    dish.setId(resultSet.getLong("id"));
+                    dish.setName(resultSet.getString("name"));
+                    dish.setPrice(resultSet.getDouble("price"));
                 }
             }
+        }
+        if (dish == null) {
             throw new RuntimeException("Dish.id=" + id + " not found");
-        } catch (SQLException e) {
-            throw new RuntimeException("Error while finding dish by id: " + id, e);
         }
+        // Recipe loaded once the connection is released
+        dish.setDishIngredients(ingredientCrudOperations.findByDishId(id));
+        return dish;
     }
 
     private Dish mapFromResultSet(ResultSet resultSet) throws SQLException {
@@ -76,6 +160,34 @@ public class DishCrudOperations implements CrudOperations<Dish> {
         } catch (SQLException e) {
             throw new RuntimeException("Error while saving dishes", e);
         }
+        if (menuCatalog != null) {
+            menuCatalog.reload();
+        }
         return dishes;
     }
+
+    @Override
+    public void setAsyncExecution(AsyncExecution asyncExecution) {
+        this.asyncExecution = asyncExecution;
+    }
+
+    @Override
+    public CompletableFuture<List<Dish>> getAllAsync(int page, int size) {
+        return asyncExecution.supply(() -> getAll(page, size));
+    }
+
+    @Override
+    public CompletableFuture<Page<Dish>> getPageAfterAsync(PageCursor cursor, int size) {
+        return asyncExecution.supply(() -> getPageAfter(cursor, size));
+    }
+
+    @Override
+    public CompletableFuture<Dish> findByIdAsync(Long id) {
+        return asyncExecution.supply(() -> findById(id));
+    }
+
+    @Override
+    public CompletableFuture<List<Dish>> saveAllAsync(List<Dish> entities) {
+        return asyncExecution.supply(() -> saveAll(entities));
+    }
 }
@@ -0,0 +1,111 @@
+package edu.restaurant.app.dao.operations;
+
+import edu.restaurant.app.dao.entity.*;
+
+import java.sql.*;
+import java.util.*;
+
+/**
+ * Charge des plats avec leurs recettes, ingrédients, prix et mouvements de stock
+ * en quatre requêtes au plus, sur la connexion de l'appelant.
+ * Un ingrédient partagé par plusieurs plats n'est instancié qu'une seule fois.
+ */
+public class DishGraphLoader {
+    static final String DISHES_SQL = "SELECT d.id, d.name, d.price FROM dish d WHERE d.id = ANY(?) ORDER BY d.id";
+    static final String DISH_INGREDIENTS_SQL = "SELECT di.id AS dish_ingredient_id, di.id_dish, di.required_quantity, di.unit, i.id, i.name"
+            + " FROM dish_ingredient di"
+            + " JOIN ingredient i ON i.id = di.id_ingredient"
+            + " WHERE di.id_dish = ANY(?) ORDER BY di.id";
+    static final String PRICES_SQL = "SELECT p.id, p.amount, p.date_value, p.id_ingredient FROM price p WHERE p.id_ingredient = ANY(?)";
+
+    public Map<Long, Dish> loadDishes(Connection connection, Collection<Long> dishIds) throws SQLException {
+        return loadDishes(connection, dishIds, true);
+    }
+
+    // Without stock movements the ingredients get empty movement lists and the graph costs three queries
+    public Map<Long, Dish> loadDishes(Connection connection, Collection<Long> dishIds, boolean withStockMovements) throws SQLException {
+        Map<Long, Dish> dishes = new LinkedHashMap<>();
+        if (dishIds.isEmpty()) {
+            return dishes;
+        }
+
+        try (PreparedStatement statement = connection.prepareStatement(DISHES_SQL)) {
+            statement.setArray(1, connection.createArrayOf("bigint", dishIds.toArray()));
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    Dish dish = new Dish();
+                    dish.setId(resultSet.getLong("id"));
+                    dish.setName(resultSet.getString("name"));
+                    dish.setPrice(resultSet.getDouble("price"));
+                    dishes.put(dish.getId(), dish);
+                }
+            }
+        }
+
+        Map<Long, Ingredient> ingredients = loadDishIngredients(connection, dishes);
+        if (!ingredients.isEmpty()) {
+            loadPricesAndStockMovements(connection, ingredients, withStockMovements);
+        }
+        return dishes;
+    }
+
+    private Map<Long, Ingredient> loadDishIngredients(Connection connection, Map<Long, Dish> dishes) throws SQLException {
+        Map<Long, Ingredient> ingredients = new HashMap<>();
+        try (PreparedStatement statement = connection.prepareStatement(DISH_INGREDIENTS_SQL)) {
+            statement.setArray(1, connection.createArrayOf("bigint", dishes.keySet().toArray()));
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    Long idIngredient = resultSet.getLong("id");
+                    Ingredient ingredient = ingredients.get(idIngredient);
+                    if (ingredient == null) {
+                        ingredient = new Ingredient(idIngredient, resultSet.getString("name"), new ArrayList<>(), new ArrayList<>());
+                        ingredients.put(idIngredient, ingredient);
+                    }
+                    DishIngredient dishIngredient = new DishIngredient(
+                            resultSet.getLong("dish_ingredient_id"),
+                            ingredient,
+                            resultSet.getDouble("required_quantity"),
+                            Unit.valueOf(resultSet.getString("unit")));
+                    dishes.get(resultSet.getLong("id_dish")).getDishIngredients().add(dishIngredient);
+                }
+            }
+        }
+        return ingredients;
+    }
+
+    private void loadPricesAndStockMovements(Connection connection, Map<Long, Ingredient> ingredients,
+                                             boolean withStockMovements) throws SQLException {
+        Array ingredientIds = connection.createArrayOf("bigint", ingredients.keySet().toArray());
+        Map<Long, List<Price>> prices = new HashMap<>();
+        Map<Long, List<StockMovement>> stockMovements = new HashMap<>();
+
+        try (PreparedStatement statement = connection.prepareStatement(PRICES_SQL)) {
+            statement.setArray(1, ingredientIds);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    prices.computeIfAbsent(resultSet.getLong("id_ingredient"), id -> new ArrayList<>())
+                            .add(PriceCrudOperations.mapFromResultSet(resultSet));
+                }
+            }
+        }
+
+        // Compacted history comes back as a single opening-balance movement per ingredient
+        if (withStockMovements) {
+            try (PreparedStatement statement = connection.prepareStatement(StockMovementCrudOperations.MOVEMENTS_SINCE_SNAPSHOT_SQL)) {
+                statement.setArray(1, ingredientIds);
+                statement.setArray(2, ingredientIds);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        stockMovements.computeIfAbsent(resultSet.getLong("id_ingredient"), id -> new ArrayList<>())
+                                .add(StockMovementCrudOperations.mapFromResultSet(resultSet));
+                    }
+                }
+            }
+        }
+
+        for (Ingredient ingredient : ingredients.values()) {
+            ingredient.setPrices(prices.getOrDefault(ingredient.getId(), new ArrayList<>()));
+            ingredient.setStockMovements(stockMovements.getOrDefault(ingredient.getId(), new ArrayList<>()));
+        }
+    }
+}
@@ -8,16 +8,36 @@ import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiConsumer;
 
-public class DishOrderCrudOperations {
+public class DishOrderCrudOperations implements DishOrderOperations, AsyncCrudOperations<DishOrder> {
     private final DataSource dataSource;
     private final DishCrudOperations dishCrudOperations;
+    private final ParallelHydrator hydrator;
+    private volatile AsyncExecution asyncExecution = AsyncExecution.DEFAULT;
+
+    // Lines are read with the first status date of their order, the lower bound of their status history reads
+    private static final String DISH_ORDER_SQL = "SELECT od.id, od.order_id, od.dish_id, od.quantity, o.first_status_datetime"
+            + " FROM order_dish od JOIN \"order\" o ON o.id = od.order_id";
+    static final String DISH_ORDER_BY_ID_SQL = DISH_ORDER_SQL + " WHERE od.id = ?";
+    static final String DISH_ORDERS_BY_ORDER_ID_SQL = DISH_ORDER_SQL + " WHERE od.order_id = ?";
+    static final String DISH_ORDER_STATUS_HISTORY_SQL = "SELECT id, order_dish_id, status, status_datetime FROM order_dish_status"
+            + " WHERE order_dish_id = ? AND status_datetime >= " + OrderCrudOperations.STATUS_DATETIME_LOWER_BOUND
+            + " ORDER BY status_datetime";
 
     public DishOrderCrudOperations(DataSource dataSource, DishCrudOperations dishCrudOperations) {
+        this(dataSource, dishCrudOperations, ParallelHydrator.SEQUENTIAL);
+    }
+
+    // The hydrator loads the dish and the status history of every line in parallel
+    public DishOrderCrudOperations(DataSource dataSource, DishCrudOperations dishCrudOperations, ParallelHydrator hydrator) {
         this.dataSource = dataSource;
         this.dishCrudOperations = dishCrudOperations;
+        this.hydrator = hydrator;
     }
 
+    @Override
     public DishOrder create(DishOrder dishOrder) {
         String sql = "INSERT INTO order_dish (order_id, dish_id, quantity) VALUES (?, ?, ?)";
         
@@ -60,11 +80,11 @@ public class DishOrderCrudOperations {
         }
     }
 
+    @Override
     public Optional<DishOrder> findById(Long id) {
-        String sql = "SELECT id, order_id, dish_id, quantity FROM order_dish WHERE id = ?";
-        
+        IdentityMap.Scope scope = IdentityMap.open();
         try (Connection connection = dataSource.getConnection();
-             PreparedStatement statement = connection.prepareStatement(sql)) {
+             PreparedStatement statement = connection.prepareStatement(DISH_ORDER_BY_ID_SQL)) {
             
             statement.setLong(1, id);
             
@@ -73,7 +93,7 @@ public class DishOrderCrudOperations {
                     DishOrder dishOrder = mapResultSetToDishOrder(resultSet);
                     
                     // Load status history
-                    dishOrder.setStatusHistory(findDishOrderStatusHistory(id));
+                    dishOrder.setStatusHistory(findDishOrderStatusHistory(id, resultSet.getTimestamp("first_status_datetime")));
                     
                     return Optional.of(dishOrder);
                 } else {
@@ -82,35 +102,60 @@ public class DishOrderCrudOperations {
             }
         } catch (SQLException e) {
             throw new RuntimeException("Error finding dish order: " + e.getMessage(), e);
+        } finally {
+            scope.close();
         }
     }
 
+    @Override
     public List<DishOrder> findByOrderId(Long orderId) {
-        String sql = "SELECT id, order_id, dish_id, quantity FROM order_dish WHERE order_id = ?";
         List<DishOrder> dishOrders = new ArrayList<>();
         
-        try (Connection connection = dataSource.getConnection();
-             PreparedStatement statement = connection.prepareStatement(sql)) {
-            
-            statement.setLong(1, orderId);
-            
-            try (ResultSet resultSet = statement.executeQuery()) {
-                while (resultSet.next()) {
-                    DishOrder dishOrder = mapResultSetToDishOrder(resultSet);
-                    
-                    // Load status history
-                    dishOrder.setStatusHistory(findDishOrderStatusHistory(dishOrder.getId()));
-                    
-                    dishOrders.add(dishOrder);
+        // Lines sharing a dish or an ingredient get the same instance, loaded once
+        IdentityMap.Scope scope = IdentityMap.open();
+        try {
+            List<ParallelHydrator.Task<?>> lineLoads = new ArrayList<>();
+            try (Connection connection = dataSource.getConnection();
+                 PreparedStatement statement = connection.prepareStatement(DISH_ORDERS_BY_ORDER_ID_SQL)) {
+
+                statement.setLong(1, orderId);
+
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        DishOrder dishOrder = new DishOrder(
+                                resultSet.getLong("id"),
+                                resultSet.getLong("order_id"),
+                                null,
+                                resultSet.getInt("quantity"),
+                                null);
+                        Long dishId = resultSet.getLong("dish_id");
+                        Timestamp firstStatusDatetime = resultSet.getTimestamp("first_status_datetime");
+
+                        // Dish and status history of a line are independent loads
+                        lineLoads.add(() -> {
+                            dishOrder.setDish(dishCrudOperations.findById(dishId));
+                            return null;
+                        });
+                        lineLoads.add(() -> {
+                            dishOrder.setStatusHistory(findDishOrderStatusHistory(dishOrder.getId(), firstStatusDatetime));
+                            return null;
+                        });
+                        dishOrders.add(dishOrder);
+                    }
                 }
             }
-            
+
+            // The connection is released before the lines are loaded, possibly in parallel
+            hydrator.runAll(lineLoads);
             return dishOrders;
         } catch (SQLException e) {
             throw new RuntimeException("Error finding dish orders by order ID: " + e.getMessage(), e);
+        } finally {
+            scope.close();
         }
     }
 
+    @Override
     public void updateDishOrderStatus(Long dishOrderId, OrderDishStatus status) {
         createDishOrderStatus(dishOrderId, status, Instant.now());
     }
@@ -132,24 +177,18 @@ public class DishOrderCrudOperations {
         }
     }
     
-    private List<OrderDishStatusEntry> findDishOrderStatusHistory(Long dishOrderId) {
-        String sql = "SELECT id, order_dish_id, status, status_datetime FROM order_dish_status WHERE order_dish_id = ? ORDER BY status_datetime";
+    private List<OrderDishStatusEntry> findDishOrderStatusHistory(Long dishOrderId, Timestamp firstStatusDatetime) {
         List<OrderDishStatusEntry> statusHistory = new ArrayList<>();
         
         try (Connection connection = dataSource.getConnection();
-             PreparedStatement statement = connection.prepareStatement(sql)) {
+             PreparedStatement statement = connection.prepareStatement(DISH_ORDER_STATUS_HISTORY_SQL)) {
             
             statement.setLong(1, dishOrderId);
+            statement.setTimestamp(2, firstStatusDatetime);
             
             try (ResultSet resultSet = statement.executeQuery()) {
                 while (resultSet.next()) {
-                    OrderDishStatusEntry statusEntry = new OrderDishStatusEntry(
-                            resultSet.getLong("id"),
-                            resultSet.getLong("order_dish_id"),
-                            OrderDishStatus.valueOf(resultSet.getString("status")),
-                            resultSet.getTimestamp("status_datetime").toInstant()
-                    );
-                    statusHistory.add(statusEntry);
+                    statusHistory.add(mapResultSetToStatusEntry(resultSet));
                 }
             }
             
@@ -159,6 +198,15 @@ public class DishOrderCrudOperations {
         }
     }
     
+    static OrderDishStatusEntry mapResultSetToStatusEntry(ResultSet resultSet) throws SQLException {
+        return new OrderDishStatusEntry(
+                resultSet.getLong("id"),
+                resultSet.getLong("order_dish_id"),
+                OrderDishStatus.valueOf(resultSet.getString("status")),
+                resultSet.getTimestamp("status_datetime").toInstant()
+        );
+    }
+
     private DishOrder mapResultSetToDishOrder(ResultSet resultSet) throws SQLException {
         Long dishId = resultSet.getLong("dish_id");
         Dish dish = dishCrudOperations.findById(dishId);
@@ -173,104 +221,116 @@ public class DishOrderCrudOperations {
     }
 
     public DishOrder saveWithTransaction(Connection connection, DishOrder dishOrder) throws SQLException {
-        if (dishOrder.getId() == null) {
-            return createWithTransaction(connection, dishOrder);
-        } else {
-            return updateWithTransaction(connection, dishOrder);
-        }
+        saveAllWithTransaction(connection, List.of(dishOrder));
+        return dishOrder;
     }
 
-    private DishOrder createWithTransaction(Connection connection, DishOrder dishOrder) throws SQLException {
-        String sql = "INSERT INTO order_dish (order_id, dish_id, quantity) VALUES (?, ?, ?)";
-        
-        try (PreparedStatement statement = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            statement.setLong(1, dishOrder.getOrderId());
-            statement.setLong(2, dishOrder.getDish().getId());
-            statement.setInt(3, dishOrder.getQuantity());
-            
-            int affectedRows = statement.executeUpdate();
-            
-            if (affectedRows == 0) {
-                throw new SQLException("Creating dish order failed, no rows affected.");
+    /**
+     * Sauvegarde de plats de commande dans une transaction existante : les insertions, les mises à jour
+     * et les nouveaux statuts partent chacun en un seul lot, quel que soit le nombre de plats.
+     * Les ids générés sont reportés sur les plats et sur leurs entrées de statut.
+     */
+    public List<DishOrder> saveAllWithTransaction(Connection connection, List<DishOrder> dishOrders) throws SQLException {
+        List<DishOrder> created = new ArrayList<>();
+        List<DishOrder> updated = new ArrayList<>();
+        for (DishOrder dishOrder : dishOrders) {
+            (dishOrder.getId() == null ? created : updated).add(dishOrder);
+        }
+
+        if (!created.isEmpty()) {
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "INSERT INTO order_dish (order_id, dish_id, quantity) VALUES (?, ?, ?)", new String[]{"id"})) {
+                for (DishOrder dishOrder : created) {
+                    statement.setLong(1, dishOrder.getOrderId());
+                    statement.setLong(2, dishOrder.getDish().getId());
+                    statement.setInt(3, dishOrder.getQuantity());
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+                assignGeneratedIds(statement, created, DishOrder::setId);
             }
-            
-            try (ResultSet generatedKeys = statement.getGeneratedKeys()) {
-                if (generatedKeys.next()) {
-                    Long id = generatedKeys.getLong(1);
-                    dishOrder.setId(id);
-                    
-                    // Sauvegarder les statuts du plat
-                    if (dishOrder.getStatusHistory() != null) {
-                        for (OrderDishStatusEntry statusEntry : dishOrder.getStatusHistory()) {
-                            createDishOrderStatusWithTransaction(connection, id, statusEntry.getStatus(), statusEntry.getStatusDatetime());
-                        }
+        }
+
+        if (!updated.isEmpty()) {
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "UPDATE order_dish SET order_id = ?, dish_id = ?, quantity = ? WHERE id = ?")) {
+                for (DishOrder dishOrder : updated) {
+                    statement.setLong(1, dishOrder.getOrderId());
+                    statement.setLong(2, dishOrder.getDish().getId());
+                    statement.setInt(3, dishOrder.getQuantity());
+                    statement.setLong(4, dishOrder.getId());
+                    statement.addBatch();
+                }
+                int[] affectedRows = statement.executeBatch();
+                for (int i = 0; i < affectedRows.length; i++) {
+                    if (affectedRows[i] == 0) {
+                        throw new SQLException("Updating dish order failed, no rows affected for id " + updated.get(i).getId());
                     }
-                    
-                    return dishOrder;
-                } else {
-                    throw new SQLException("Creating dish order failed, no ID obtained.");
                 }
             }
         }
-    }
 
-    private DishOrder updateWithTransaction(Connection connection, DishOrder dishOrder) throws SQLException {
-        String sql = "UPDATE order_dish SET order_id = ?, dish_id = ?, quantity = ? WHERE id = ?";
-        
-        try (PreparedStatement statement = connection.prepareStatement(sql)) {
-            statement.setLong(1, dishOrder.getOrderId());
-            statement.setLong(2, dishOrder.getDish().getId());
-            statement.setInt(3, dishOrder.getQuantity());
-            statement.setLong(4, dishOrder.getId());
-            
-            int affectedRows = statement.executeUpdate();
-            
-            if (affectedRows == 0) {
-                throw new SQLException("Updating dish order failed, no rows affected.");
-            }
-            
-            // Sauvegarder les nouveaux statuts du plat
+        // Seules les entrées de statut sans id sont nouvelles
+        List<OrderDishStatusEntry> newStatuses = new ArrayList<>();
+        for (DishOrder dishOrder : dishOrders) {
             if (dishOrder.getStatusHistory() != null) {
                 for (OrderDishStatusEntry statusEntry : dishOrder.getStatusHistory()) {
                     if (statusEntry.getId() == null) {
-                        createDishOrderStatusWithTransaction(connection, dishOrder.getId(), 
-                                                          statusEntry.getStatus(), 
-                                                          statusEntry.getStatusDatetime());
+                        statusEntry.setOrderDishId(dishOrder.getId());
+                        newStatuses.add(statusEntry);
                     }
                 }
             }
-            
-            return dishOrder;
         }
+        if (!newStatuses.isEmpty()) {
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "INSERT INTO order_dish_status (order_dish_id, status, status_datetime) VALUES (?, ?, ?)", new String[]{"id"})) {
+                for (OrderDishStatusEntry statusEntry : newStatuses) {
+                    statement.setLong(1, statusEntry.getOrderDishId());
+                    statement.setString(2, statusEntry.getStatus().name());
+                    statement.setTimestamp(3, Timestamp.from(statusEntry.getStatusDatetime()));
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+                assignGeneratedIds(statement, newStatuses, OrderDishStatusEntry::setId);
+            }
+        }
+        return dishOrders;
     }
 
     /**
-     * Création d'un statut de plat de commande dans une transaction existante
+     * Reporte les ids générés par un lot d'insertions sur les entités, dans l'ordre du lot.
      */
-    private void createDishOrderStatusWithTransaction(Connection connection, Long dishOrderId, 
-                                                   OrderDishStatus status, Instant statusDatetime) 
-            throws SQLException {
-        String sql = "INSERT INTO order_dish_status (order_dish_id, status, status_datetime) VALUES (?, ?, ?)";
-        
-        try (PreparedStatement statement = connection.prepareStatement(sql)) {
-            statement.setLong(1, dishOrderId);
-            statement.setString(2, status.name());
-            statement.setTimestamp(3, Timestamp.from(statusDatetime));
-            
-            statement.executeUpdate();
+    static <T> void assignGeneratedIds(Statement statement, List<T> entities, BiConsumer<T, Long> idSetter) throws SQLException {
+        int index = 0;
+        try (ResultSet generatedKeys = statement.getGeneratedKeys()) {
+            while (generatedKeys.next() && index < entities.size()) {
+                idSetter.accept(entities.get(index++), generatedKeys.getLong(1));
+            }
+        }
+        if (index != entities.size()) {
+            throw new SQLException("Batch insert returned " + index + " ids for " + entities.size() + " rows");
         }
     }
 
+    @Override
     public DishOrder save(DishOrder dishOrder) {
+        saveAll(List.of(dishOrder));
+        return dishOrder;
+    }
+
+    // Tous les plats de commande dans une seule transaction
+    @Override
+    public List<DishOrder> saveAll(List<DishOrder> dishOrders) {
         Connection connection = null;
         try {
             connection = dataSource.getConnection();
             connection.setAutoCommit(false);
             
-            DishOrder savedDishOrder = saveWithTransaction(connection, dishOrder);
+            List<DishOrder> savedDishOrders = saveAllWithTransaction(connection, dishOrders);
             
             connection.commit();
-            return savedDishOrder;
+            return savedDishOrders;
         } catch (SQLException e) {
             if (connection != null) {
                 try {
@@ -291,4 +351,28 @@ public class DishOrderCrudOperations {
             }
         }
     }
-} 
\ No newline at end of file
+
+    @Override
+    public void setAsyncExecution(AsyncExecution asyncExecution) {
+        this.asyncExecution = asyncExecution;
+    }
+
+    @Override
+    public CompletableFuture<DishOrder> findByIdAsync(Long id) {
+        return asyncExecution.supply(() -> findById(id)
+                .orElseThrow(() -> new RuntimeException("DishOrder.id=" + id + " not found")));
+    }
+
+    public CompletableFuture<List<DishOrder>> findByOrderIdAsync(Long orderId) {
+        return asyncExecution.supply(() -> findByOrderId(orderId));
+    }
+
+    @Override
+    public CompletableFuture<List<DishOrder>> saveAllAsync(List<DishOrder> entities) {
+        return asyncExecution.supply(() -> saveAll(entities));
+    }
+
+    public CompletableFuture<Void> updateDishOrderStatusAsync(Long dishOrderId, OrderDishStatus status) {
+        return asyncExecution.run(() -> updateDishOrderStatus(dishOrderId, status));
+    }
+}
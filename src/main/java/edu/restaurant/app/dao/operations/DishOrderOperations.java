@@ -0,0 +1,23 @@
+package edu.restaurant.app.dao.operations;
+
+import edu.restaurant.app.dao.entity.DishOrder;
+import edu.restaurant.app.dao.entity.OrderDishStatus;
+
+import java.util.List;
+import java.util.Optional;
+
+// Order lines with their dish and status history, stored in the database or in memory
+public interface DishOrderOperations {
+    DishOrder create(DishOrder dishOrder);
+
+    Optional<DishOrder> findById(Long id);
+
+    List<DishOrder> findByOrderId(Long orderId);
+
+    void updateDishOrderStatus(Long dishOrderId, OrderDishStatus status);
+
+    DishOrder save(DishOrder dishOrder);
+
+    // Every line in a single transaction
+    List<DishOrder> saveAll(List<DishOrder> dishOrders);
+}
@@ -0,0 +1,110 @@
+package edu.restaurant.app.dao.operations;
+
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Carte d'identité d'une unité de travail : au plus une instance chargée par type d'entité et par id.
+ * Elle est ouverte sur le fil courant par {@link #open()} ; les chargements imbriqués partagent la carte
+ * la plus externe, qui disparaît à sa fermeture. Hors unité de travail, les DAO chargent comme avant.
+ * Les fils d'une hydratation parallèle partagent la carte de leur appelant : une entité demandée par deux
+ * fils à la fois n'est chargée qu'une fois.
+ */
+public final class IdentityMap {
+    private static final ThreadLocal<IdentityMap> CURRENT = new ThreadLocal<>();
+
+    private final Map<Class<?>, Map<Long, CompletableFuture<Object>>> entities = new ConcurrentHashMap<>();
+
+    @FunctionalInterface
+    public interface EntityLoader<E> {
+        E load() throws SQLException;
+    }
+
+    /**
+     * Portée d'une unité de travail, à fermer dans un bloc finally. Rend au fil la carte qu'il avait avant.
+     */
+    public static final class Scope implements AutoCloseable {
+        private final boolean restore;
+        private final IdentityMap previous;
+
+        private Scope(boolean restore, IdentityMap previous) {
+            this.restore = restore;
+            this.previous = previous;
+        }
+
+        @Override
+        public void close() {
+            if (!restore) {
+                return;
+            }
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    private IdentityMap() {
+    }
+
+    public static Scope open() {
+        if (CURRENT.get() != null) {
+            return new Scope(false, null);
+        }
+        return enter(new IdentityMap());
+    }
+
+    // Carte de l'unité de travail en cours sur ce fil, null s'il n'y en a pas
+    static IdentityMap current() {
+        return CURRENT.get();
+    }
+
+    // Rattache le fil courant (un fil d'hydratation) à la carte de son appelant
+    static Scope enter(IdentityMap identityMap) {
+        IdentityMap previous = CURRENT.get();
+        if (identityMap == null || identityMap == previous) {
+            return new Scope(false, null);
+        }
+        CURRENT.set(identityMap);
+        return new Scope(true, previous);
+    }
+
+    /**
+     * Instance de l'unité de travail en cours pour cet id, sinon chargée puis mémorisée.
+     * Sans unité de travail ouverte, charge simplement l'entité.
+     */
+    static <E> E load(Class<E> type, Long id, EntityLoader<E> loader) throws SQLException {
+        IdentityMap current = CURRENT.get();
+        if (current == null || id == null) {
+            return loader.load();
+        }
+        Map<Long, CompletableFuture<Object>> byId = current.entities.computeIfAbsent(type, key -> new ConcurrentHashMap<>());
+        CompletableFuture<Object> loading = new CompletableFuture<>();
+        CompletableFuture<Object> existing = byId.putIfAbsent(id, loading);
+        if (existing != null) {
+            // Already loaded, or being loaded by another thread of the same unit of work
+            try {
+                return type.cast(ParallelHydrator.awaitWithoutPermit(existing::join));
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof SQLException sqlException) {
+                    throw sqlException;
+                }
+                throw e.getCause() instanceof RuntimeException runtimeException ? runtimeException : e;
+            }
+        }
+        try {
+            E loaded = loader.load();
+            loading.complete(loaded);
+            return loaded;
+        } catch (SQLException | RuntimeException e) {
+            // A failed load is not remembered: a later call tries again
+            byId.remove(id, loading);
+            loading.completeExceptionally(e);
+            throw e;
+        }
+    }
+}
@@ -7,10 +7,23 @@ import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
 
-public class IngredientCrudOperations implements CrudOperations<Ingredient> {
+public class IngredientCrudOperations implements IngredientOperations {
+    static final String INGREDIENTS_BY_DISH_ID_SQL = "SELECT i.id, i.name, di.id AS dish_ingredient_id, di.required_quantity, di.unit FROM ingredient i"
+            + " JOIN dish_ingredient di ON i.id = di.id_ingredient"
+            + " WHERE di.id_dish = ?";
+
     private final DataSource dataSource = new DataSource();
     private final PriceCrudOperations priceCrudOperations = new PriceCrudOperations();
     private final StockMovementCrudOperations stockMovementCrudOperations = new StockMovementCrudOperations();
+    private final ParallelHydrator hydrator;
+
+    public IngredientCrudOperations() {
+        this(ParallelHydrator.SEQUENTIAL);
+    }
+
+    public IngredientCrudOperations(ParallelHydrator hydrator) {
+        this.hydrator = hydrator;
+    }
 
     @Override
     public List<Ingredient> getAll(int page, int size) {
@@ -64,37 +77,57 @@ public class IngredientCrudOperations implements CrudOperations<Ingredient> {
         return ingredients;
     }
 
+    @Override
     public List<DishIngredient> findByDishId(Long dishId) {
         List<DishIngredient> dishIngredients = new ArrayList<>();
-        try (Connection connection = dataSource.getConnection();
-             PreparedStatement statement = connection.prepareStatement("SELECT i.id, i.name, di.id AS dish_ingredient_id, di.required_quantity, di.unit FROM ingredient i"
-                     + " JOIN dish_ingredient di ON i.id = di.id_ingredient"
-                     + " WHERE di.id_dish = ?")) {
-            statement.setLong(1, dishId);
-            try (ResultSet resultSet = statement.executeQuery()) {
-                while (resultSet.next()) {
-                    Ingredient ingredient = mapFromResultSet(resultSet);
-                    DishIngredient dishIngredient = mapDishIngredient(resultSet, ingredient);
-                    dishIngredients.add(dishIngredient);
+        List<ParallelHydrator.Task<?>> ingredientLoads = new ArrayList<>();
+        try {
+            try (Connection connection = dataSource.getConnection();
+                 PreparedStatement statement = connection.prepareStatement(INGREDIENTS_BY_DISH_ID_SQL)) {
+                statement.setLong(1, dishId);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        DishIngredient dishIngredient = mapDishIngredient(resultSet, null);
+                        Long idIngredient = resultSet.getLong("id");
+                        String name = resultSet.getString("name");
+                        ingredientLoads.add(() -> {
+                            dishIngredient.setIngredient(loadIngredient(idIngredient, name));
+                            return null;
+                        });
+                        dishIngredients.add(dishIngredient);
+                    }
                 }
-                return dishIngredients;
             }
+            // The connection is released before the ingredients are loaded, possibly in parallel
+            hydrator.runAll(ingredientLoads);
+            return dishIngredients;
         } catch (SQLException e) {
             throw new RuntimeException("Error while finding dish ingredients by dish id: " + dishId, e);
         }
     }
 
     private Ingredient mapFromResultSet(ResultSet resultSet) throws SQLException {
-        Long idIngredient = resultSet.getLong("id");
-        List<Price> ingredientPrices = priceCrudOperations.findByIdIngredient(idIngredient);
-        List<StockMovement> ingredientStockMovements = stockMovementCrudOperations.findByIdIngredient(idIngredient);
+        return loadIngredient(resultSet.getLong("id"), resultSet.getString("name"));
+    }
 
-        Ingredient ingredient = new Ingredient();
-        ingredient.setId(idIngredient);
-        ingredient.setName(resultSet.getString("name"));
-        ingredient.setPrices(ingredientPrices);
-        ingredient.setStockMovements(ingredientStockMovements);
-        return ingredient;
+    // Prices and stock history are loaded once per ingredient within a unit of work (see IdentityMap),
+    // side by side when the hydrator is parallel
+    private Ingredient loadIngredient(Long idIngredient, String name) throws SQLException {
+        return IdentityMap.load(Ingredient.class, idIngredient, () -> {
+            Ingredient ingredient = new Ingredient();
+            ingredient.setId(idIngredient);
+            ingredient.setName(name);
+            hydrator.runAll(List.<ParallelHydrator.Task<?>>of(
+                    () -> {
+                        ingredient.setPrices(priceCrudOperations.findByIdIngredient(idIngredient));
+                        return null;
+                    },
+                    () -> {
+                        ingredient.setStockMovements(stockMovementCrudOperations.findByIdIngredient(idIngredient));
+                        return null;
+                    }));
+            return ingredient;
+        });
     }
 
     private DishIngredient mapDishIngredient(ResultSet resultSet, Ingredient ingredient) throws SQLException {
@@ -0,0 +1,11 @@
+package edu.restaurant.app.dao.operations;
+
+import edu.restaurant.app.dao.entity.DishIngredient;
+import edu.restaurant.app.dao.entity.Ingredient;
+
+import java.util.List;
+
+public interface IngredientOperations extends CrudOperations<Ingredient> {
+    // Recipe of a dish, each ingredient with its prices and stock movements
+    List<DishIngredient> findByDishId(Long dishId);
+}
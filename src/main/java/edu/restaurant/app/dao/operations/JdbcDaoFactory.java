@@ -0,0 +1,48 @@
+package edu.restaurant.app.dao.operations;
+
+import edu.restaurant.app.dao.DataSource;
+
+// DAOs backed by PostgreSQL; the order DAOs share the given pool
+public class JdbcDaoFactory implements DaoFactory {
+    private final DishCrudOperations dishCrudOperations = new DishCrudOperations();
+    private final DishOrderCrudOperations dishOrderCrudOperations;
+    private final OrderCrudOperations orderCrudOperations;
+    private final IngredientCrudOperations ingredientCrudOperations = new IngredientCrudOperations();
+    private final PriceCrudOperations priceCrudOperations = new PriceCrudOperations();
+    private final StockMovementCrudOperations stockMovementCrudOperations = new StockMovementCrudOperations();
+
+    public JdbcDaoFactory(DataSource dataSource) {
+        this.dishOrderCrudOperations = new DishOrderCrudOperations(dataSource, dishCrudOperations);
+        this.orderCrudOperations = new OrderCrudOperations(dataSource, dishOrderCrudOperations);
+    }
+
+    @Override
+    public OrderCrudOperations orders() {
+        return orderCrudOperations;
+    }
+
+    @Override
+    public DishOrderCrudOperations dishOrders() {
+        return dishOrderCrudOperations;
+    }
+
+    @Override
+    public DishCrudOperations dishes() {
+        return dishCrudOperations;
+    }
+
+    @Override
+    public IngredientCrudOperations ingredients() {
+        return ingredientCrudOperations;
+    }
+
+    @Override
+    public PriceCrudOperations prices() {
+        return priceCrudOperations;
+    }
+
+    @Override
+    public StockMovementCrudOperations stockMovements() {
+        return stockMovementCrudOperations;
+    }
+}
@@ -0,0 +1,218 @@
+package edu.restaurant.app.dao.operations;
+
+import edu.restaurant.app.dao.entity.*;
+
+import java.util.*;
+
+/**
+ * Disponibilité de tout le menu : combien de chaque plat peut encore être préparé.
+ * Le stock de tous les ingrédients du menu est lu en un seul appel au {@link StockLevelProvider} (une requête
+ * avec {@link StockMovementCrudOperations}), puis la quantité de chaque plat en est déduite en une passe,
+ * avec le même arrondi que {@link Dish#getAvailableQuantity()}.
+ * <p>
+ * Un index inverse ingrédient → plats limite le recalcul d'un nouveau mouvement de stock aux plats qui utilisent
+ * l'ingrédient. Les méthodes sont synchronisées : les mouvements peuvent arriver de plusieurs threads pendant
+ * que la caisse lit les plats épuisés ; seule la lecture du stock par {@link #refresh()} se fait hors du verrou.
+ */
+public class MenuAvailability {
+    private static final int MAX_UNLOCKED_READS = 3;
+
+    private final StockLevelProvider stockLevelProvider;
+    private final List<Dish> dishes;
+    private final Map<Long, Integer> dishIndexes = new HashMap<>();
+    private final List<Ingredient> ingredients = new ArrayList<>();
+    private final Map<Long, Integer> ingredientIndexes = new HashMap<>();
+    // Recipe of dish d: ingredient positions and required quantities, side by side
+    private final int[][] recipeIngredients;
+    private final double[][] requiredQuantities;
+    // Dishes using each ingredient, by position
+    private final int[][] dishesByIngredient;
+    private final double[] stock;
+    private final double[] availableQuantities;
+    // Numbers of the last refresh started and of the last one whose read was kept, to drop reads overtaken by a newer one
+    private long refreshesStarted;
+    private long refreshesApplied;
+    // Movements applied so far: a refresh whose read overlapped one of them reads again
+    private long appliedMovements;
+
+    public MenuAvailability(Collection<Dish> dishes, StockLevelProvider stockLevelProvider) {
+        this.stockLevelProvider = stockLevelProvider;
+        this.dishes = List.copyOf(dishes);
+        this.recipeIngredients = new int[this.dishes.size()][];
+        this.requiredQuantities = new double[this.dishes.size()][];
+
+        List<List<Integer>> dishLists = new ArrayList<>();
+        for (int d = 0; d < this.dishes.size(); d++) {
+            Dish dish = this.dishes.get(d);
+            dishIndexes.put(dish.getId(), d);
+            List<DishIngredient> recipe = dish.getDishIngredients() != null ? dish.getDishIngredients() : List.of();
+            recipeIngredients[d] = new int[recipe.size()];
+            requiredQuantities[d] = new double[recipe.size()];
+            for (int r = 0; r < recipe.size(); r++) {
+                Ingredient ingredient = recipe.get(r).getIngredient();
+                Integer i = ingredientIndexes.get(ingredient.getId());
+                if (i == null) {
+                    i = ingredients.size();
+                    ingredientIndexes.put(ingredient.getId(), i);
+                    ingredients.add(ingredient);
+                    dishLists.add(new ArrayList<>());
+                }
+                recipeIngredients[d][r] = i;
+                requiredQuantities[d][r] = recipe.get(r).getRequiredQuantity();
+                dishLists.get(i).add(d);
+            }
+        }
+        this.dishesByIngredient = new int[ingredients.size()][];
+        for (int i = 0; i < ingredients.size(); i++) {
+            dishesByIngredient[i] = dishLists.get(i).stream().mapToInt(Integer::intValue).distinct().toArray();
+        }
+        this.stock = new double[ingredients.size()];
+        this.availableQuantities = new double[this.dishes.size()];
+        refresh();
+    }
+
+    // Every dish of the catalog's current snapshot; catalog ingredients carry no movements, so the provider reads the database
+    public static MenuAvailability of(MenuCatalog menuCatalog, StockLevelProvider stockLevelProvider) {
+        return new MenuAvailability(menuCatalog.getDishes(), stockLevelProvider);
+    }
+
+    /**
+     * Relit le stock de tous les ingrédients en un appel et recalcule tous les plats, par exemple après une
+     * ingestion en masse ou pour réaligner l'état incrémental sur la base.
+     * Le stock est lu hors du verrou : la caisse et {@link #apply} ne l'attendent pas. Une lecture pendant laquelle
+     * des mouvements ont été appliqués peut les avoir manqués : elle est recommencée, et la dernière tentative se fait
+     * sous le verrou. Une lecture dépassée par un refresh plus récent est ignorée.
+     * @return les plats dont la quantité disponible a changé, avec leur nouvelle quantité
+     */
+    public final Map<Dish, Double> refresh() {
+        long generation;
+        synchronized (this) {
+            generation = ++refreshesStarted;
+        }
+        Map<Dish, Double> changed = new LinkedHashMap<>();
+        for (int attempt = 0; attempt < MAX_UNLOCKED_READS; attempt++) {
+            long appliedBefore;
+            synchronized (this) {
+                appliedBefore = appliedMovements;
+            }
+            double[] refreshed = readStock();
+            synchronized (this) {
+                if (generation < refreshesApplied) {
+                    return changed;
+                }
+                if (appliedMovements == appliedBefore) {
+                    swapIn(generation, refreshed, changed);
+                    return changed;
+                }
+            }
+        }
+        // Movements keep coming: read once more while they wait
+        synchronized (this) {
+            if (generation >= refreshesApplied) {
+                swapIn(generation, readStock(), changed);
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Applique de nouveaux mouvements de stock au stock connu et ne recalcule que les plats des ingrédients touchés,
+     * chacun une seule fois. Les mouvements d'ingrédients absents du menu sont ignorés.
+     * @return les plats dont la quantité disponible a changé, avec leur nouvelle quantité
+     */
+    public synchronized Map<Dish, Double> apply(Collection<StockMovement> stockMovements) {
+        BitSet affectedDishes = new BitSet(dishes.size());
+        for (StockMovement stockMovement : stockMovements) {
+            Integer i = ingredientIndexes.get(stockMovement.getIngredient().getId());
+            if (i == null) {
+                continue;
+            }
+            stock[i] += signedQuantity(stockMovement);
+            appliedMovements++;
+            for (int d : dishesByIngredient[i]) {
+                affectedDishes.set(d);
+            }
+        }
+        Map<Dish, Double> changed = new LinkedHashMap<>();
+        for (int d = affectedDishes.nextSetBit(0); d >= 0; d = affectedDishes.nextSetBit(d + 1)) {
+            recompute(d, changed);
+        }
+        return changed;
+    }
+
+    public Map<Dish, Double> apply(StockMovement stockMovement) {
+        return apply(List.of(stockMovement));
+    }
+
+    // 0 for a dish that is not on the menu
+    public synchronized double getAvailableQuantity(Long dishId) {
+        Integer d = dishIndexes.get(dishId);
+        return d != null ? availableQuantities[d] : 0.0;
+    }
+
+    public synchronized Map<Dish, Double> getAvailableQuantities() {
+        Map<Dish, Double> quantities = new LinkedHashMap<>();
+        for (int d = 0; d < dishes.size(); d++) {
+            quantities.put(dishes.get(d), availableQuantities[d]);
+        }
+        return quantities;
+    }
+
+    // Dishes that cannot be prepared anymore (86'd on the POS)
+    public synchronized List<Dish> getUnavailableDishes() {
+        List<Dish> unavailable = new ArrayList<>();
+        for (int d = 0; d < dishes.size(); d++) {
+            if (availableQuantities[d] < 1) {
+                unavailable.add(dishes.get(d));
+            }
+        }
+        return unavailable;
+    }
+
+    // Known stock of an ingredient of the menu, 0 for any other
+    public synchronized double getStockLevel(Long idIngredient) {
+        Integer i = ingredientIndexes.get(idIngredient);
+        return i != null ? stock[i] : 0.0;
+    }
+
+    private double[] readStock() {
+        Map<Ingredient, Double> stockLevels = stockLevelProvider.getAvailableQuantities(ingredients);
+        double[] refreshed = new double[ingredients.size()];
+        for (int i = 0; i < ingredients.size(); i++) {
+            Double quantity = stockLevels.get(ingredients.get(i));
+            // An ingredient missing from the result has no stock
+            refreshed[i] = quantity != null ? quantity : 0.0;
+        }
+        return refreshed;
+    }
+
+    private void swapIn(long generation, double[] refreshed, Map<Dish, Double> changed) {
+        refreshesApplied = generation;
+        System.arraycopy(refreshed, 0, stock, 0, refreshed.length);
+        for (int d = 0; d < dishes.size(); d++) {
+            recompute(d, changed);
+        }
+    }
+
+    // Same formula as Dish.getAvailableQuantity, on the stock vector; a dish without recipe is unavailable
+    private void recompute(int d, Map<Dish, Double> changed) {
+        int[] recipe = recipeIngredients[d];
+        double quantity = recipe.length == 0 ? 0.0 : Double.POSITIVE_INFINITY;
+        for (int r = 0; r < recipe.length; r++) {
+            quantity = Math.min(quantity, Math.ceil(stock[recipe[r]] / requiredQuantities[d][r]));
+        }
+        if (Double.compare(quantity, availableQuantities[d]) != 0) {
+            availableQuantities[d] = quantity;
+            changed.put(dishes.get(d), quantity);
+        }
+    }
+
+    private static double signedQuantity(StockMovement stockMovement) {
+        if (stockMovement.getMovementType() == StockMovementType.IN) {
+            return stockMovement.getQuantity();
+        } else if (stockMovement.getMovementType() == StockMovementType.OUT) {
+            return -stockMovement.getQuantity();
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,247 @@
+package edu.restaurant.app.dao.operations;
+
+import edu.restaurant.app.dao.DataSource;
+import edu.restaurant.app.dao.entity.*;
+
+import java.sql.*;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Catalogue du menu en mémoire : plats, recettes, ingrédients et prix, chargés en quatre requêtes.
+ * Chaque chargement construit une photo en lecture seule qui remplace la précédente d'un seul coup :
+ * les lectures ne sont jamais bloquées par un rechargement et voient toujours une photo complète.
+ * <p>
+ * Les plats servis sont partagés par tous les lecteurs : plats, lignes de recette, ingrédients et prix
+ * refusent toute modification ({@link UnsupportedOperationException}). Les ingrédients du catalogue ne portent
+ * pas de mouvements de stock : leur stock se lit par un {@link StockLevelProvider} (par exemple
+ * {@link StockMovementCrudOperations}, ou {@link edu.restaurant.app.dao.entity.Order#confirm(StockLevelProvider)}),
+ * et le demander à l'ingrédient lève une {@link IllegalStateException}.
+ */
+public class MenuCatalog {
+
+    @FunctionalInterface
+    public interface Loader {
+        Collection<Dish> loadDishes();
+    }
+
+    private final Loader loader;
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(new Snapshot(Map.of(), null));
+
+    public MenuCatalog(DataSource dataSource) {
+        this(databaseLoader(dataSource));
+    }
+
+    public MenuCatalog(Loader loader) {
+        this.loader = loader;
+    }
+
+    /**
+     * Recharge tout le catalogue. Les rechargements sont sérialisés ; pendant l'un d'eux,
+     * les lectures continuent sur la photo précédente.
+     */
+    public synchronized void reload() {
+        Map<Long, Dish> dishes = new HashMap<>();
+        // Dishes sharing an ingredient share its read-only copy
+        Map<Long, Ingredient> ingredients = new HashMap<>();
+        for (Dish dish : loader.loadDishes()) {
+            dishes.put(dish.getId(), readOnlyCopy(dish, ingredients));
+        }
+        snapshot.set(new Snapshot(Map.copyOf(dishes), Instant.now()));
+    }
+
+    public Optional<Dish> findById(Long id) {
+        return Optional.ofNullable(snapshot.get().dishes.get(id));
+    }
+
+    public Collection<Dish> getDishes() {
+        return snapshot.get().dishes.values();
+    }
+
+    public int size() {
+        return snapshot.get().dishes.size();
+    }
+
+    // Null until the first load
+    public Instant getLoadedAt() {
+        return snapshot.get().loadedAt;
+    }
+
+    // Shared by every reader: read-only copies, with the price indexes built before publication
+    private static Dish readOnlyCopy(Dish dish, Map<Long, Ingredient> ingredients) {
+        List<DishIngredient> dishIngredients = new ArrayList<>();
+        if (dish.getDishIngredients() != null) {
+            for (DishIngredient dishIngredient : dish.getDishIngredients()) {
+                Ingredient ingredient = dishIngredient.getIngredient();
+                Ingredient copy = ingredient.getId() != null
+                        ? ingredients.computeIfAbsent(ingredient.getId(), id -> new ReadOnlyIngredient(ingredient))
+                        : new ReadOnlyIngredient(ingredient);
+                dishIngredients.add(new ReadOnlyDishIngredient(dishIngredient, copy));
+            }
+        }
+        return new ReadOnlyDish(dish, List.copyOf(dishIngredients));
+    }
+
+    private static Loader databaseLoader(DataSource dataSource) {
+        DishGraphLoader dishGraphLoader = new DishGraphLoader();
+        return () -> {
+            try (Connection connection = dataSource.getConnection();
+                 PreparedStatement statement = connection.prepareStatement("SELECT d.id FROM dish d")) {
+                List<Long> ids = new ArrayList<>();
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        ids.add(resultSet.getLong("id"));
+                    }
+                }
+                return dishGraphLoader.loadDishes(connection, ids, false).values();
+            } catch (SQLException e) {
+                throw new RuntimeException("Error while loading menu catalog: " + e.getMessage(), e);
+            }
+        };
+    }
+
+    private static UnsupportedOperationException readOnly(Object entity) {
+        return new UnsupportedOperationException("Menu catalog entities are read-only: " + entity.getClass().getSimpleName());
+    }
+
+    private static final class ReadOnlyDish extends Dish {
+        private ReadOnlyDish(Dish dish, List<DishIngredient> dishIngredients) {
+            super(dish.getId(), dish.getName(), dishIngredients, dish.getPrice());
+        }
+
+        @Override
+        public void setId(Long id) {
+            throw readOnly(this);
+        }
+
+        @Override
+        public void setName(String name) {
+            throw readOnly(this);
+        }
+
+        @Override
+        public void setDishIngredients(List<DishIngredient> dishIngredients) {
+            throw readOnly(this);
+        }
+
+        @Override
+        public void setPrice(Double price) {
+            throw readOnly(this);
+        }
+    }
+
+    private static final class ReadOnlyDishIngredient extends DishIngredient {
+        private ReadOnlyDishIngredient(DishIngredient dishIngredient, Ingredient ingredient) {
+            super(dishIngredient.getId(), ingredient, dishIngredient.getRequiredQuantity(), dishIngredient.getUnit());
+        }
+
+        @Override
+        public void setId(Long id) {
+            throw readOnly(this);
+        }
+
+        @Override
+        public void setIngredient(Ingredient ingredient) {
+            throw readOnly(this);
+        }
+
+        @Override
+        public void setRequiredQuantity(Double requiredQuantity) {
+            throw readOnly(this);
+        }
+
+        @Override
+        public void setUnit(Unit unit) {
+            throw readOnly(this);
+        }
+    }
+
+    private static final class ReadOnlyIngredient extends Ingredient {
+        private ReadOnlyIngredient(Ingredient ingredient) {
+            super(ingredient.getId(), ingredient.getName(), new ArrayList<>(), List.of());
+            List<Price> prices = new ArrayList<>();
+            if (ingredient.getPrices() != null) {
+                for (Price price : ingredient.getPrices()) {
+                    prices.add(new ReadOnlyPrice(price, this));
+                }
+            }
+            super.setPrices(List.copyOf(prices));
+            getActualPrice();
+        }
+
+        @Override
+        public void setId(Long id) {
+            throw readOnly(this);
+        }
+
+        @Override
+        public void setName(String name) {
+            throw readOnly(this);
+        }
+
+        @Override
+        public void setPrices(List<Price> prices) {
+            throw readOnly(this);
+        }
+
+        @Override
+        public void setStockMovements(List<StockMovement> stockMovements) {
+            throw readOnly(this);
+        }
+
+        @Override
+        public List<StockMovement> addStockMovements(List<StockMovement> stockMovements) {
+            throw readOnly(this);
+        }
+
+        @Override
+        public List<Price> addPrices(List<Price> prices) {
+            throw readOnly(this);
+        }
+
+        // Without its movements the ingredient would report an empty stock
+        @Override
+        public Double getAvailableQuantityAt(Instant datetime) {
+            throw new IllegalStateException("Menu catalog ingredient " + getId()
+                    + " carries no stock movements: read its stock through a StockLevelProvider");
+        }
+    }
+
+    private static final class ReadOnlyPrice extends Price {
+        private ReadOnlyPrice(Price price, Ingredient ingredient) {
+            super(price.getId(), ingredient, price.getAmount(), price.getDateValue());
+        }
+
+        @Override
+        public void setId(Long id) {
+            throw readOnly(this);
+        }
+
+        @Override
+        public void setIngredient(Ingredient ingredient) {
+            throw readOnly(this);
+        }
+
+        @Override
+        public void setAmount(Double amount) {
+            throw readOnly(this);
+        }
+
+        @Override
+        public void setDateValue(LocalDate dateValue) {
+            throw readOnly(this);
+        }
+    }
+
+    private static final class Snapshot {
+        private final Map<Long, Dish> dishes;
+        private final Instant loadedAt;
+
+        private Snapshot(Map<Long, Dish> dishes, Instant loadedAt) {
+            this.dishes = dishes;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
@@ -3,24 +3,52 @@ package edu.restaurant.app.dao.operations;
 import edu.restaurant.app.dao.DataSource;
 import edu.restaurant.app.dao.entity.DishOrder;
 import edu.restaurant.app.dao.entity.Order;
+import edu.restaurant.app.dao.entity.OrderDishStatusEntry;
 import edu.restaurant.app.dao.entity.OrderStatus;
 import edu.restaurant.app.dao.entity.OrderStatusEntry;
 
 import java.sql.*;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
-public class OrderCrudOperations implements CrudOperations<Order> {
+public class OrderCrudOperations implements OrderOperations, AsyncPagedCrudOperations<Order> {
+    private static final Logger LOGGER = Logger.getLogger(OrderCrudOperations.class.getName());
+    // Lower bound of status_datetime: the order's first_status_datetime, kept by triggers at its earliest status
+    // (migration 15) so that reads skip older partitions without losing rows; null reads every partition
+    static final String STATUS_DATETIME_LOWER_BOUND = "coalesce(cast(? as timestamp), '-infinity'::timestamp)";
+    static final String ORDER_BY_ID_SQL = "SELECT id, reference, creation_datetime, first_status_datetime FROM \"order\" WHERE id = ?";
+    static final String ORDER_BY_REFERENCE_SQL =
+            "SELECT id, reference, creation_datetime, first_status_datetime FROM \"order\" WHERE reference = ?";
+    static final String ORDER_PAGE_SQL = "SELECT id, reference, creation_datetime FROM \"order\" ORDER BY creation_datetime, id LIMIT ? OFFSET ?";
+    static final String FIRST_ORDER_PAGE_SQL = "SELECT id, reference, creation_datetime FROM \"order\" ORDER BY creation_datetime, id LIMIT ?";
+    static final String NEXT_ORDER_PAGE_SQL = "SELECT id, reference, creation_datetime FROM \"order\" WHERE (creation_datetime, id) > (?, ?)"
+            + " ORDER BY creation_datetime, id LIMIT ?";
+    static final String ORDER_STATUS_HISTORY_SQL = "SELECT id, order_id, status, status_datetime FROM order_status"
+            + " WHERE order_id = ? AND status_datetime >= " + STATUS_DATETIME_LOWER_BOUND + " ORDER BY status_datetime";
+    
     private final DataSource dataSource;
     private final DishOrderCrudOperations dishOrderCrudOperations;
+    private final OrderGraphLoader orderGraphLoader;
+    private volatile AsyncExecution asyncExecution = AsyncExecution.DEFAULT;
 
     public OrderCrudOperations(DataSource dataSource, DishOrderCrudOperations dishOrderCrudOperations) {
         this.dataSource = dataSource;
         this.dishOrderCrudOperations = dishOrderCrudOperations;
+        this.orderGraphLoader = new OrderGraphLoader(dataSource);
     }
 
+    @Override
     public Order create(Order order) {
         String sql = "INSERT INTO \"order\" (reference, creation_datetime) VALUES (?, ?)";
         
@@ -62,11 +90,10 @@ public class OrderCrudOperations implements CrudOperations<Order> {
         }
     }
 
+    @Override
     public Optional<Order> findOptionalById(Long id) {
-        String sql = "SELECT id, reference, creation_datetime FROM \"order\" WHERE id = ?";
-        
         try (Connection connection = dataSource.getConnection();
-             PreparedStatement statement = connection.prepareStatement(sql)) {
+             PreparedStatement statement = connection.prepareStatement(ORDER_BY_ID_SQL)) {
             
             statement.setLong(1, id);
             
@@ -78,7 +105,7 @@ public class OrderCrudOperations implements CrudOperations<Order> {
                     order.setDishOrders(dishOrderCrudOperations.findByOrderId(id));
                     
                     // Load status history
-                    order.setStatusHistory(findOrderStatusHistory(id));
+                    order.setStatusHistory(findOrderStatusHistory(id, resultSet.getTimestamp("first_status_datetime")));
                     
                     return Optional.of(order);
                 } else {
@@ -90,11 +117,19 @@ public class OrderCrudOperations implements CrudOperations<Order> {
         }
     }
     
+    /**
+     * Charge la commande complète en un nombre fixe de requêtes, indépendant du nombre de plats
+     * @param id identifiant de l'order
+     * @return l'order avec tout son graphe, ou vide s'il n'existe pas
+     */
+    public Optional<Order> findGraphById(Long id) {
+        return orderGraphLoader.findById(id);
+    }
+
+    @Override
     public Optional<Order> findByReference(String reference) {
-        String sql = "SELECT id, reference, creation_datetime FROM \"order\" WHERE reference = ?";
-        
         try (Connection connection = dataSource.getConnection();
-             PreparedStatement statement = connection.prepareStatement(sql)) {
+             PreparedStatement statement = connection.prepareStatement(ORDER_BY_REFERENCE_SQL)) {
             
             statement.setString(1, reference);
             
@@ -106,7 +141,7 @@ public class OrderCrudOperations implements CrudOperations<Order> {
                     order.setDishOrders(dishOrderCrudOperations.findByOrderId(order.getId()));
                     
                     // Load status history
-                    order.setStatusHistory(findOrderStatusHistory(order.getId()));
+                    order.setStatusHistory(findOrderStatusHistory(order.getId(), resultSet.getTimestamp("first_status_datetime")));
                     
                     return Optional.of(order);
                 } else {
@@ -118,6 +153,7 @@ public class OrderCrudOperations implements CrudOperations<Order> {
         }
     }
 
+    @Override
     public List<Order> findAll() {
         String sql = "SELECT id, reference, creation_datetime FROM \"order\"";
         List<Order> orders = new ArrayList<>();
@@ -127,23 +163,54 @@ public class OrderCrudOperations implements CrudOperations<Order> {
              ResultSet resultSet = statement.executeQuery()) {
             
             while (resultSet.next()) {
-                Order order = mapResultSetToOrder(resultSet);
-                
-                // Load dish orders
-                order.setDishOrders(dishOrderCrudOperations.findByOrderId(order.getId()));
-                
-                // Load status history
-                order.setStatusHistory(findOrderStatusHistory(order.getId()));
-                
-                orders.add(order);
+                orders.add(mapResultSetToOrder(resultSet));
             }
             
-            return orders;
+            // Load dish orders and status histories of all orders at once
+            return orderGraphLoader.hydrate(connection, orders);
         } catch (SQLException e) {
             throw new RuntimeException("Error finding all orders: " + e.getMessage(), e);
         }
     }
 
+    /**
+     * Parcourt toutes les commandes sans matérialiser la liste complète : les lignes sont lues par un curseur
+     * côté serveur, fetchSize à la fois, et chaque lot est hydraté avant d'être émis.
+     * Le Stream garde une connexion ouverte et doit être fermé (try-with-resources).
+     * @param fetchSize nombre de commandes lues et hydratées à la fois
+     */
+    public Stream<Order> streamAll(int fetchSize) {
+        if (fetchSize <= 0) {
+            throw new IllegalArgumentException("Fetch size must be positive: " + fetchSize);
+        }
+        String sql = "SELECT id, reference, creation_datetime FROM \"order\" ORDER BY creation_datetime, id";
+        Connection connection = dataSource.getConnection();
+        PreparedStatement statement = null;
+        try {
+            // PostgreSQL only keeps a server-side cursor open inside a transaction
+            connection.setAutoCommit(false);
+            statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            ResultSet resultSet = statement.executeQuery();
+
+            PreparedStatement openStatement = statement;
+            return StreamSupport.stream(new OrderCursorSpliterator(connection, resultSet, orderGraphLoader, fetchSize), false)
+                    .onClose(() -> closeCursor(connection, openStatement, resultSet));
+        } catch (SQLException e) {
+            closeCursor(connection, statement, null);
+            throw new RuntimeException("Error streaming orders: " + e.getMessage(), e);
+        }
+    }
+
+    private void closeCursor(Connection connection, PreparedStatement statement, ResultSet resultSet) {
+        try (connection; statement; resultSet) {
+            connection.rollback();
+        } catch (SQLException e) {
+            throw new RuntimeException("Erreur lors de la fermeture du curseur: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
     public void delete(Long id) {
         String sql = "DELETE FROM \"order\" WHERE id = ?";
         
@@ -158,6 +225,7 @@ public class OrderCrudOperations implements CrudOperations<Order> {
         }
     }
     
+    @Override
     public void updateOrderStatus(Long orderId, OrderStatus status) {
         createOrderStatus(orderId, status, Instant.now());
     }
@@ -179,24 +247,18 @@ public class OrderCrudOperations implements CrudOperations<Order> {
         }
     }
     
-    private List<OrderStatusEntry> findOrderStatusHistory(Long orderId) {
-        String sql = "SELECT id, order_id, status, status_datetime FROM order_status WHERE order_id = ? ORDER BY status_datetime";
+    private List<OrderStatusEntry> findOrderStatusHistory(Long orderId, Timestamp firstStatusDatetime) {
         List<OrderStatusEntry> statusHistory = new ArrayList<>();
         
         try (Connection connection = dataSource.getConnection();
-             PreparedStatement statement = connection.prepareStatement(sql)) {
+             PreparedStatement statement = connection.prepareStatement(ORDER_STATUS_HISTORY_SQL)) {
             
             statement.setLong(1, orderId);
+            statement.setTimestamp(2, firstStatusDatetime);
             
             try (ResultSet resultSet = statement.executeQuery()) {
                 while (resultSet.next()) {
-                    OrderStatusEntry statusEntry = new OrderStatusEntry(
-                            resultSet.getLong("id"),
-                            resultSet.getLong("order_id"),
-                            OrderStatus.valueOf(resultSet.getString("status")),
-                            resultSet.getTimestamp("status_datetime").toInstant()
-                    );
-                    statusHistory.add(statusEntry);
+                    statusHistory.add(mapResultSetToStatusEntry(resultSet));
                 }
             }
             
@@ -206,7 +268,16 @@ public class OrderCrudOperations implements CrudOperations<Order> {
         }
     }
     
-    private Order mapResultSetToOrder(ResultSet resultSet) throws SQLException {
+    static OrderStatusEntry mapResultSetToStatusEntry(ResultSet resultSet) throws SQLException {
+        return new OrderStatusEntry(
+                resultSet.getLong("id"),
+                resultSet.getLong("order_id"),
+                OrderStatus.valueOf(resultSet.getString("status")),
+                resultSet.getTimestamp("status_datetime").toInstant()
+        );
+    }
+
+    static Order mapResultSetToOrder(ResultSet resultSet) throws SQLException {
         return new Order(
                 resultSet.getLong("id"),
                 resultSet.getString("reference"),
@@ -216,40 +287,14 @@ public class OrderCrudOperations implements CrudOperations<Order> {
         );
     }
 
+    @Override
     public Order save(Order order) {
         Connection connection = null;
         try {
             connection = dataSource.getConnection();
             connection.setAutoCommit(false);
             
-            Order savedOrder;
-            if (order.getId() == null) {
-                // Cas d'une nouvelle commande
-                savedOrder = createWithTransaction(connection, order);
-            } else {
-                // Cas d'une mise à jour
-                savedOrder = updateWithTransaction(connection, order);
-            }
-            
-            // Sauvegarder les plats associés
-            if (savedOrder.getDishOrders() != null) {
-                for (DishOrder dishOrder : savedOrder.getDishOrders()) {
-                    dishOrder.setOrderId(savedOrder.getId());
-                    dishOrderCrudOperations.saveWithTransaction(connection, dishOrder);
-                }
-            }
-            
-            // Sauvegarder les statuts
-            if (savedOrder.getStatusHistory() != null) {
-                for (OrderStatusEntry statusEntry : savedOrder.getStatusHistory()) {
-                    if (statusEntry.getId() == null) {
-                        // Nouvelle entrée de statut
-                        createOrderStatusWithTransaction(connection, savedOrder.getId(), 
-                                                       statusEntry.getStatus(), 
-                                                       statusEntry.getStatusDatetime());
-                    }
-                }
-            }
+            Order savedOrder = saveAllWithTransaction(connection, List.of(order)).get(0);
             
             connection.commit();
             return savedOrder;
@@ -275,105 +320,239 @@ public class OrderCrudOperations implements CrudOperations<Order> {
     }
 
     /**
-     * Création d'une commande dans une transaction existante
+     * Sauvegarde de commandes dans une transaction existante : chaque type d'écriture (commandes, plats, statuts)
+     * part en un seul lot pour toutes les commandes, quel que soit leur nombre.
+     */
+    private List<Order> saveAllWithTransaction(Connection connection, List<Order> orders) throws SQLException {
+        List<Order> created = new ArrayList<>();
+        List<Order> updated = new ArrayList<>();
+        for (Order order : orders) {
+            (order.getId() == null ? created : updated).add(order);
+        }
+        createAllWithTransaction(connection, created);
+        updateAllWithTransaction(connection, updated);
+        
+        List<DishOrder> dishOrders = new ArrayList<>();
+        for (Order order : orders) {
+            if (order.getDishOrders() != null) {
+                for (DishOrder dishOrder : order.getDishOrders()) {
+                    dishOrder.setOrderId(order.getId());
+                    dishOrders.add(dishOrder);
+                }
+            }
+        }
+        if (!dishOrders.isEmpty()) {
+            dishOrderCrudOperations.saveAllWithTransaction(connection, dishOrders);
+        }
+        
+        createOrderStatusesWithTransaction(connection, orders);
+        return orders;
+    }
+
+    /**
+     * Création de commandes dans une transaction existante
      */
-    private Order createWithTransaction(Connection connection, Order order) throws SQLException {
+    private void createAllWithTransaction(Connection connection, List<Order> orders) throws SQLException {
+        if (orders.isEmpty()) {
+            return;
+        }
         String sql = "INSERT INTO \"order\" (reference, creation_datetime) VALUES (?, ?)";
         
-        try (PreparedStatement statement = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            statement.setString(1, order.getReference());
-            statement.setTimestamp(2, Timestamp.from(order.getCreationDatetime()));
-            
-            int affectedRows = statement.executeUpdate();
-            
-            if (affectedRows == 0) {
-                throw new SQLException("Creating order failed, no rows affected.");
+        try (PreparedStatement statement = connection.prepareStatement(sql, new String[]{"id"})) {
+            for (Order order : orders) {
+                statement.setString(1, order.getReference());
+                statement.setTimestamp(2, Timestamp.from(order.getCreationDatetime()));
+                statement.addBatch();
             }
-            
-            try (ResultSet generatedKeys = statement.getGeneratedKeys()) {
-                if (generatedKeys.next()) {
-                    Long id = generatedKeys.getLong(1);
-                    order.setId(id);
-                    
-                    // Créer le statut initial
-                    createOrderStatusWithTransaction(connection, id, OrderStatus.CREATED, order.getCreationDatetime());
-                    
-                    return order;
-                } else {
-                    throw new SQLException("Creating order failed, no ID obtained.");
-                }
+            statement.executeBatch();
+            DishOrderCrudOperations.assignGeneratedIds(statement, orders, Order::setId);
+        }
+        
+        // Statut initial, enregistré avec les autres statuts s'il n'est pas déjà dans l'historique
+        for (Order order : orders) {
+            if (order.getStatusHistory() == null) {
+                order.setStatusHistory(new ArrayList<>());
+            }
+            if (order.getStatusHistory().isEmpty()) {
+                order.getStatusHistory().add(new OrderStatusEntry(null, order.getId(), OrderStatus.CREATED, order.getCreationDatetime()));
             }
         }
     }
 
     /**
-     * Mise à jour d'une commande dans une transaction existante
+     * Mise à jour de commandes dans une transaction existante
      */
-    private Order updateWithTransaction(Connection connection, Order order) throws SQLException {
+    private void updateAllWithTransaction(Connection connection, List<Order> orders) throws SQLException {
+        if (orders.isEmpty()) {
+            return;
+        }
         String sql = "UPDATE \"order\" SET reference = ?, creation_datetime = ? WHERE id = ?";
         
         try (PreparedStatement statement = connection.prepareStatement(sql)) {
-            statement.setString(1, order.getReference());
-            statement.setTimestamp(2, Timestamp.from(order.getCreationDatetime()));
-            statement.setLong(3, order.getId());
-            
-            int affectedRows = statement.executeUpdate();
-            
-            if (affectedRows == 0) {
-                throw new SQLException("Updating order failed, no rows affected.");
+            for (Order order : orders) {
+                statement.setString(1, order.getReference());
+                statement.setTimestamp(2, Timestamp.from(order.getCreationDatetime()));
+                statement.setLong(3, order.getId());
+                statement.addBatch();
+            }
+            int[] affectedRows = statement.executeBatch();
+            for (int i = 0; i < affectedRows.length; i++) {
+                if (affectedRows[i] == 0) {
+                    throw new SQLException("Updating order failed, no rows affected for id " + orders.get(i).getId());
+                }
             }
-            
-            return order;
         }
     }
 
     /**
-     * Création d'un statut de commande dans une transaction existante
+     * Création des nouveaux statuts des commandes (sans id) en un seul lot, dans une transaction existante
      */
-    private void createOrderStatusWithTransaction(Connection connection, Long orderId, OrderStatus status, Instant datetime) 
-            throws SQLException {
-        String sql = "INSERT INTO order_status (order_id, status, status_datetime) VALUES (?, ?, ?)";
+    private void createOrderStatusesWithTransaction(Connection connection, List<Order> orders) throws SQLException {
+        List<OrderStatusEntry> newStatuses = new ArrayList<>();
+        for (Order order : orders) {
+            if (order.getStatusHistory() != null) {
+                for (OrderStatusEntry statusEntry : order.getStatusHistory()) {
+                    if (statusEntry.getId() == null) {
+                        statusEntry.setOrderId(order.getId());
+                        newStatuses.add(statusEntry);
+                    }
+                }
+            }
+        }
+        if (newStatuses.isEmpty()) {
+            return;
+        }
         
-        try (PreparedStatement statement = connection.prepareStatement(sql)) {
-            statement.setLong(1, orderId);
-            statement.setString(2, status.name());
-            statement.setTimestamp(3, Timestamp.from(datetime));
-            
-            statement.executeUpdate();
+        String sql = "INSERT INTO order_status (order_id, status, status_datetime) VALUES (?, ?, ?)";
+        try (PreparedStatement statement = connection.prepareStatement(sql, new String[]{"id"})) {
+            for (OrderStatusEntry statusEntry : newStatuses) {
+                statement.setLong(1, statusEntry.getOrderId());
+                statement.setString(2, statusEntry.getStatus().name());
+                statement.setTimestamp(3, Timestamp.from(statusEntry.getStatusDatetime()));
+                statement.addBatch();
+            }
+            statement.executeBatch();
+            DishOrderCrudOperations.assignGeneratedIds(statement, newStatuses, OrderStatusEntry::setId);
+        }
+    }
+
+    /**
+     * Mémorise les entités encore sans id pour pouvoir leur retirer les ids générés si la transaction est annulée.
+     * Les statuts ajoutés pendant la sauvegarde (statut CREATED d'une nouvelle commande) sont aussi concernés :
+     * seuls les statuts qui avaient déjà un id le gardent.
+     */
+    static Runnable generatedIdsReset(List<Order> orders) {
+        List<Runnable> resets = new ArrayList<>();
+        for (Order order : orders) {
+            if (order.getId() == null) {
+                resets.add(() -> order.setId(null));
+            }
+            Set<OrderStatusEntry> savedStatuses = savedEntries(order.getStatusHistory(), OrderStatusEntry::getId);
+            resets.add(() -> clearGeneratedIds(order.getStatusHistory(), savedStatuses, OrderStatusEntry::getId, OrderStatusEntry::setId));
+            if (order.getDishOrders() != null) {
+                for (DishOrder dishOrder : order.getDishOrders()) {
+                    if (dishOrder.getId() == null) {
+                        resets.add(() -> dishOrder.setId(null));
+                    }
+                    Set<OrderDishStatusEntry> savedDishStatuses = savedEntries(dishOrder.getStatusHistory(), OrderDishStatusEntry::getId);
+                    resets.add(() -> clearGeneratedIds(dishOrder.getStatusHistory(), savedDishStatuses,
+                            OrderDishStatusEntry::getId, OrderDishStatusEntry::setId));
+                }
+            }
+        }
+        return () -> resets.forEach(Runnable::run);
+    }
+
+    // Entries that already had an id before the save, compared by identity
+    private static <E> Set<E> savedEntries(List<E> entries, Function<E, Long> getId) {
+        Set<E> saved = Collections.newSetFromMap(new IdentityHashMap<>());
+        if (entries != null) {
+            for (E entry : entries) {
+                if (getId.apply(entry) != null) {
+                    saved.add(entry);
+                }
+            }
+        }
+        return saved;
+    }
+
+    private static <E> void clearGeneratedIds(List<E> entries, Set<E> savedEntries, Function<E, Long> getId, BiConsumer<E, Long> setId) {
+        if (entries == null) {
+            return;
+        }
+        for (E entry : entries) {
+            if (!savedEntries.contains(entry) && getId.apply(entry) != null) {
+                setId.accept(entry, null);
+            }
         }
     }
 
     @Override
     public List<Order> getAll(int page, int size) {
-        String sql = "SELECT id, reference, creation_datetime FROM \"order\" LIMIT ? OFFSET ?";
         List<Order> orders = new ArrayList<>();
         
         try (Connection connection = dataSource.getConnection();
-             PreparedStatement statement = connection.prepareStatement(sql)) {
+             PreparedStatement statement = connection.prepareStatement(ORDER_PAGE_SQL)) {
             
             statement.setInt(1, size);
             statement.setInt(2, page * size);
             
             try (ResultSet resultSet = statement.executeQuery()) {
                 while (resultSet.next()) {
-                    Order order = mapResultSetToOrder(resultSet);
-                    
-                    // Load dish orders
-                    order.setDishOrders(dishOrderCrudOperations.findByOrderId(order.getId()));
-                    
-                    // Load status history
-                    order.setStatusHistory(findOrderStatusHistory(order.getId()));
-                    
-                    orders.add(order);
+                    orders.add(mapResultSetToOrder(resultSet));
                 }
             }
             
-            return orders;
+            // Load dish orders and status histories of the whole page at once
+            return orderGraphLoader.hydrate(connection, orders);
         } catch (SQLException e) {
             throw new RuntimeException("Error finding orders with pagination: " + e.getMessage(), e);
         }
     }
 
+    /**
+     * Pagination par clé sur (creation_datetime, id), appuyée sur l'index idx_order_creation_datetime_id
+     * @param cursor position du dernier order lu, null pour la première page
+     * @param size nombre d'orders par page
+     * @return la page, avec le curseur de la suivante s'il en reste
+     */
+    @Override
+    public Page<Order> getPageAfter(PageCursor cursor, int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Page size must be positive: " + size);
+        }
+        String sql = cursor == null ? FIRST_ORDER_PAGE_SQL : NEXT_ORDER_PAGE_SQL;
+        List<Order> orders = new ArrayList<>();
+
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+
+            int index = 1;
+            if (cursor != null) {
+                statement.setTimestamp(index++, Timestamp.from(cursor.getDatetime()));
+                statement.setLong(index++, cursor.getId());
+            }
+            // One extra row tells whether a next page exists
+            statement.setInt(index, size + 1);
+
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    orders.add(mapResultSetToOrder(resultSet));
+                }
+            }
+
+            PageCursor nextCursor = null;
+            if (orders.size() > size) {
+                orders.remove(size);
+                Order last = orders.get(size - 1);
+                nextCursor = new PageCursor(last.getCreationDatetime(), last.getId());
+            }
+            return new Page<>(orderGraphLoader.hydrate(connection, orders), nextCursor);
+        } catch (SQLException e) {
+            throw new RuntimeException("Error finding orders page after " + cursor + ": " + e.getMessage(), e);
+        }
+    }
+
     /**
      * Récupère un order par son ID
      * @param id identifiant de l'order
@@ -396,12 +575,95 @@ public class OrderCrudOperations implements CrudOperations<Order> {
             return new ArrayList<>();
         }
         
-        List<Order> savedOrders = new ArrayList<>();
-        for (Order order : entities) {
-            Order savedOrder = save(order);
-            savedOrders.add(savedOrder);
+        BulkSaveResult<Order> result = saveChunks(entities, DEFAULT_CHUNK_SIZE, true);
+        if (result.hasFailures()) {
+            Exception cause = result.getFailures().get(0).getCause();
+            throw new RuntimeException("Erreur lors de la sauvegarde des commandes: " + cause.getMessage(), cause);
         }
+        return result.getSaved();
+    }
+
+    /**
+     * Sauvegarde en lots sur une seule connexion : une transaction par lot de chunkSize commandes.
+     * Un lot en erreur est annulé et signalé dans le résultat sans empêcher les lots suivants.
+     */
+    @Override
+    public BulkSaveResult<Order> saveAll(List<Order> orders, int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+        }
+        return saveChunks(orders, chunkSize, false);
+    }
+
+    private BulkSaveResult<Order> saveChunks(List<Order> orders, int chunkSize, boolean stopAtFirstFailure) {
+        List<Order> saved = new ArrayList<>(orders.size());
+        List<BulkSaveResult.ChunkFailure<Order>> failures = new ArrayList<>();
         
-        return savedOrders;
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                for (int from = 0; from < orders.size(); from += chunkSize) {
+                    List<Order> chunk = orders.subList(from, Math.min(from + chunkSize, orders.size()));
+                    Runnable resetGeneratedIds = generatedIdsReset(chunk);
+                    try {
+                        saveAllWithTransaction(connection, chunk);
+                        connection.commit();
+                        saved.addAll(chunk);
+                    } catch (SQLException | RuntimeException e) {
+                        connection.rollback();
+                        resetGeneratedIds.run();
+                        failures.add(new BulkSaveResult.ChunkFailure<>(from, List.copyOf(chunk), e));
+                        int firstIndex = from;
+                        LOGGER.warning(() -> "Chunk of " + chunk.size() + " orders starting at " + firstIndex
+                                + " rolled back: " + e.getMessage());
+                        if (stopAtFirstFailure) {
+                            break;
+                        }
+                    }
+                }
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Erreur lors de la sauvegarde en lot des commandes: " + e.getMessage(), e);
+        }
+        return new BulkSaveResult<>(saved, failures);
+    }
+
+    @Override
+    public void setAsyncExecution(AsyncExecution asyncExecution) {
+        this.asyncExecution = asyncExecution;
+    }
+
+    @Override
+    public CompletableFuture<List<Order>> getAllAsync(int page, int size) {
+        return asyncExecution.supply(() -> getAll(page, size));
+    }
+
+    @Override
+    public CompletableFuture<Page<Order>> getPageAfterAsync(PageCursor cursor, int size) {
+        return asyncExecution.supply(() -> getPageAfter(cursor, size));
+    }
+
+    @Override
+    public CompletableFuture<Order> findByIdAsync(Long id) {
+        return asyncExecution.supply(() -> findById(id));
+    }
+
+    public CompletableFuture<Optional<Order>> findByReferenceAsync(String reference) {
+        return asyncExecution.supply(() -> findByReference(reference));
+    }
+
+    @Override
+    public CompletableFuture<List<Order>> saveAllAsync(List<Order> entities) {
+        return asyncExecution.supply(() -> saveAll(entities));
+    }
+
+    public CompletableFuture<Order> saveAsync(Order order) {
+        return asyncExecution.supply(() -> save(order));
+    }
+
+    public CompletableFuture<Void> updateOrderStatusAsync(Long orderId, OrderStatus status) {
+        return asyncExecution.run(() -> updateOrderStatus(orderId, status));
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,63 @@
+package edu.restaurant.app.dao.operations;
+
+import edu.restaurant.app.dao.entity.Order;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+
+/**
+ * Lit les commandes d'un curseur serveur par lots de batchSize et hydrate chaque lot avant de l'émettre,
+ * de sorte que seul le lot courant est en mémoire.
+ */
+class OrderCursorSpliterator extends Spliterators.AbstractSpliterator<Order> {
+    private final Connection connection;
+    private final ResultSet resultSet;
+    private final OrderGraphLoader orderGraphLoader;
+    private final int batchSize;
+    private final Deque<Order> buffer = new ArrayDeque<>();
+    private boolean exhausted;
+
+    OrderCursorSpliterator(Connection connection, ResultSet resultSet, OrderGraphLoader orderGraphLoader, int batchSize) {
+        super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+        this.connection = connection;
+        this.resultSet = resultSet;
+        this.orderGraphLoader = orderGraphLoader;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super Order> action) {
+        if (buffer.isEmpty() && !exhausted) {
+            fillBuffer();
+        }
+        Order next = buffer.pollFirst();
+        if (next == null) {
+            return false;
+        }
+        action.accept(next);
+        return true;
+    }
+
+    private void fillBuffer() {
+        try {
+            List<Order> batch = new ArrayList<>(batchSize);
+            while (batch.size() < batchSize && resultSet.next()) {
+                batch.add(OrderCrudOperations.mapResultSetToOrder(resultSet));
+            }
+            if (batch.size() < batchSize) {
+                exhausted = true;
+            }
+            buffer.addAll(orderGraphLoader.hydrate(connection, batch));
+        } catch (SQLException e) {
+            throw new RuntimeException("Error while streaming orders: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package edu.restaurant.app.dao.operations;
+
+import edu.restaurant.app.dao.DataSource;
+import edu.restaurant.app.dao.entity.*;
+
+import java.sql.*;
+import java.util.*;
+
+/**
+ * Chargement de commandes complètes (plats commandés, plats, recettes, ingrédients, prix,
+ * mouvements de stock et les deux historiques de statut) sur une seule connexion.
+ * Les enfants de toutes les commandes sont résolus ensemble par des requêtes "= ANY(?)",
+ * donc le nombre de requêtes ne dépend ni du nombre de commandes ni du nombre de plats.
+ */
+public class OrderGraphLoader {
+    // Status histories are read from the earliest first status date of the orders on
+    static final String FIRST_STATUS_DATETIME_SQL = "SELECT min(first_status_datetime) FROM \"order\" WHERE id = ANY(?)";
+    static final String ORDER_STATUS_HISTORIES_SQL = "SELECT id, order_id, status, status_datetime FROM order_status"
+            + " WHERE order_id = ANY(?) AND status_datetime >= " + OrderCrudOperations.STATUS_DATETIME_LOWER_BOUND
+            + " ORDER BY status_datetime";
+    static final String DISH_ORDERS_SQL = "SELECT id, order_id, dish_id, quantity FROM order_dish WHERE order_id = ANY(?) ORDER BY id";
+    static final String DISH_ORDER_STATUS_HISTORIES_SQL = "SELECT ods.id, ods.order_dish_id, ods.status, ods.status_datetime"
+            + " FROM order_dish_status ods"
+            + " JOIN order_dish od ON od.id = ods.order_dish_id"
+            + " WHERE od.order_id = ANY(?) AND ods.status_datetime >= " + OrderCrudOperations.STATUS_DATETIME_LOWER_BOUND
+            + " ORDER BY ods.status_datetime";
+
+    private final DataSource dataSource;
+    private final DishGraphLoader dishGraphLoader = new DishGraphLoader();
+
+    public OrderGraphLoader(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    public Optional<Order> findById(Long orderId) {
+        try (Connection connection = dataSource.getConnection()) {
+            Order order;
+            Timestamp firstStatusDatetime;
+            try (PreparedStatement statement = connection.prepareStatement(OrderCrudOperations.ORDER_BY_ID_SQL)) {
+                statement.setLong(1, orderId);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    if (!resultSet.next()) {
+                        return Optional.empty();
+                    }
+                    order = OrderCrudOperations.mapResultSetToOrder(resultSet);
+                    firstStatusDatetime = resultSet.getTimestamp("first_status_datetime");
+                }
+            }
+
+            hydrate(connection, List.of(order), firstStatusDatetime);
+            return Optional.of(order);
+        } catch (SQLException e) {
+            throw new RuntimeException("Error loading order graph: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Complète les commandes déjà lues (id, référence, date) avec leurs plats et leurs historiques de statut.
+     * Au plus huit requêtes, quel que soit le nombre de commandes.
+     */
+    public List<Order> hydrate(Connection connection, List<Order> orders) throws SQLException {
+        return hydrate(connection, orders, null);
+    }
+
+    // A first status date already read along with the orders saves its lookup
+    private List<Order> hydrate(Connection connection, List<Order> orders, Timestamp firstStatusDatetime) throws SQLException {
+        if (orders.isEmpty()) {
+            return orders;
+        }
+        Map<Long, Order> ordersById = new LinkedHashMap<>();
+        for (Order order : orders) {
+            ordersById.put(order.getId(), order);
+        }
+        Array orderIds = connection.createArrayOf("bigint", ordersById.keySet().toArray());
+        Timestamp statusesSince = firstStatusDatetime != null ? firstStatusDatetime : firstStatusDatetime(connection, orderIds);
+
+        Map<Long, List<DishOrder>> dishOrders = findDishOrders(connection, orderIds, statusesSince);
+        Map<Long, List<OrderStatusEntry>> statusHistories = findOrderStatusHistories(connection, orderIds, statusesSince);
+        for (Order order : orders) {
+            order.setDishOrders(dishOrders.getOrDefault(order.getId(), new ArrayList<>()));
+            order.setStatusHistory(statusHistories.getOrDefault(order.getId(), new ArrayList<>()));
+        }
+        return orders;
+    }
+
+    private static Timestamp firstStatusDatetime(Connection connection, Array orderIds) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(FIRST_STATUS_DATETIME_SQL)) {
+            statement.setArray(1, orderIds);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() ? resultSet.getTimestamp(1) : null;
+            }
+        }
+    }
+
+    private Map<Long, List<OrderStatusEntry>> findOrderStatusHistories(Connection connection, Array orderIds,
+                                                                       Timestamp statusesSince) throws SQLException {
+        Map<Long, List<OrderStatusEntry>> statusHistories = new HashMap<>();
+        try (PreparedStatement statement = connection.prepareStatement(ORDER_STATUS_HISTORIES_SQL)) {
+            statement.setArray(1, orderIds);
+            statement.setTimestamp(2, statusesSince);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    OrderStatusEntry statusEntry = OrderCrudOperations.mapResultSetToStatusEntry(resultSet);
+                    statusHistories.computeIfAbsent(statusEntry.getOrderId(), id -> new ArrayList<>()).add(statusEntry);
+                }
+            }
+        }
+        return statusHistories;
+    }
+
+    private Map<Long, List<DishOrder>> findDishOrders(Connection connection, Array orderIds, Timestamp statusesSince) throws SQLException {
+        Map<Long, List<DishOrder>> dishOrdersByOrderId = new HashMap<>();
+        Map<DishOrder, Long> dishIdByDishOrder = new IdentityHashMap<>();
+        try (PreparedStatement statement = connection.prepareStatement(DISH_ORDERS_SQL)) {
+            statement.setArray(1, orderIds);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    DishOrder dishOrder = new DishOrder(
+                            resultSet.getLong("id"),
+                            resultSet.getLong("order_id"),
+                            null,
+                            resultSet.getInt("quantity"),
+                            null);
+                    dishOrdersByOrderId.computeIfAbsent(dishOrder.getOrderId(), id -> new ArrayList<>()).add(dishOrder);
+                    dishIdByDishOrder.put(dishOrder, resultSet.getLong("dish_id"));
+                }
+            }
+        }
+        if (dishIdByDishOrder.isEmpty()) {
+            return dishOrdersByOrderId;
+        }
+
+        Map<Long, List<OrderDishStatusEntry>> statusHistories = new HashMap<>();
+        try (PreparedStatement statement = connection.prepareStatement(DISH_ORDER_STATUS_HISTORIES_SQL)) {
+            statement.setArray(1, orderIds);
+            statement.setTimestamp(2, statusesSince);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    OrderDishStatusEntry statusEntry = DishOrderCrudOperations.mapResultSetToStatusEntry(resultSet);
+                    statusHistories.computeIfAbsent(statusEntry.getOrderDishId(), id -> new ArrayList<>()).add(statusEntry);
+                }
+            }
+        }
+
+        Map<Long, Dish> dishes = dishGraphLoader.loadDishes(connection, new HashSet<>(dishIdByDishOrder.values()));
+        for (Map.Entry<DishOrder, Long> entry : dishIdByDishOrder.entrySet()) {
+            DishOrder dishOrder = entry.getKey();
+            Dish dish = dishes.get(entry.getValue());
+            if (dish == null) {
+                throw new RuntimeException("Dish.id=" + entry.getValue() + " not found");
+            }
+            dishOrder.setDish(dish);
+            dishOrder.setStatusHistory(statusHistories.getOrDefault(dishOrder.getId(), new ArrayList<>()));
+        }
+        return dishOrdersByOrderId;
+    }
+}
@@ -0,0 +1,41 @@
+package edu.restaurant.app.dao.operations;
+
+import edu.restaurant.app.dao.entity.Order;
+import edu.restaurant.app.dao.entity.OrderStatus;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Opérations sur les commandes communes à la base ({@link OrderCrudOperations}) et à la mémoire
+ * ({@link edu.restaurant.app.dao.memory.InMemoryOrderOperations}) : les commandes sont lues avec leurs plats
+ * et leur historique de statuts, et sauvegardées avec eux.
+ */
+public interface OrderOperations extends PagedCrudOperations<Order> {
+    int DEFAULT_CHUNK_SIZE = 500;
+
+    Order create(Order order);
+
+    Optional<Order> findOptionalById(Long id);
+
+    Optional<Order> findByReference(String reference);
+
+    List<Order> findAll();
+
+    void delete(Long id);
+
+    void updateOrderStatus(Long orderId, OrderStatus status);
+
+    Order save(Order order);
+
+    /**
+     * Sauvegarde par lots de {@link #DEFAULT_CHUNK_SIZE} commandes, une transaction par lot, arrêtée au premier lot
+     * en erreur : les commandes des lots précédents sont enregistrées et portent leur id, celles du lot en erreur
+     * et des suivants restent sans id. L'erreur du lot est levée.
+     */
+    @Override
+    List<Order> saveAll(List<Order> orders);
+
+    // One transaction per chunk: a failed chunk is reported without stopping the following ones
+    BulkSaveResult<Order> saveAll(List<Order> orders, int chunkSize);
+}
@@ -0,0 +1,34 @@
+package edu.restaurant.app.dao.operations;
+
+import java.util.List;
+
+public class Page<E> {
+    private final List<E> items;
+    private final PageCursor nextCursor;
+
+    public Page(List<E> items, PageCursor nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<E> getItems() {
+        return items;
+    }
+
+    // Null on the last page
+    public PageCursor getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+
+    @Override
+    public String toString() {
+        return "Page{" +
+                "items=" + items +
+                ", nextCursor=" + nextCursor +
+                '}';
+    }
+}
@@ -0,0 +1,37 @@
+package edu.restaurant.app.dao.operations;
+
+import java.time.Instant;
+
+/**
+ * Position dans un parcours paginé par clé (keyset) : la clé de tri et l'id du dernier élément lu.
+ * La date est nulle pour les entités triées uniquement par id.
+ */
+public class PageCursor {
+    private final Instant datetime;
+    private final Long id;
+
+    public PageCursor(Instant datetime, Long id) {
+        this.datetime = datetime;
+        this.id = id;
+    }
+
+    public static PageCursor afterId(Long id) {
+        return new PageCursor(null, id);
+    }
+
+    public Instant getDatetime() {
+        return datetime;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    @Override
+    public String toString() {
+        return "PageCursor{" +
+                "datetime=" + datetime +
+                ", id=" + id +
+                '}';
+    }
+}
@@ -0,0 +1,8 @@
+package edu.restaurant.app.dao.operations;
+
+// CrudOperations of the tables that can be walked page after page in a stable order (dishes, orders)
+public interface PagedCrudOperations<E> extends CrudOperations<E> {
+    // Keyset pagination: the page following the cursor in a stable order (null cursor for the first page).
+    // Unlike getAll, a deep page costs the same as the first one.
+    Page<E> getPageAfter(PageCursor cursor, int size);
+}
@@ -0,0 +1,154 @@
+package edu.restaurant.app.dao.operations;
+
+import edu.restaurant.app.dao.DataSource;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+/**
+ * Hydratation des graphes d'entités : exécute les sous-chargements indépendants d'un même niveau
+ * (prix et mouvements d'un ingrédient, plat et statuts de chaque ligne...) sur des fils virtuels.
+ * <p>
+ * Chaque appel attend tous ses sous-chargements avant de rendre la main ; au premier échec, les autres
+ * sont annulés et l'erreur est propagée. Le nombre de sous-chargements en cours est borné par l'hydrateur,
+ * tous appels confondus : une tâche qui attend, que ce soit ses propres sous-chargements ou une entité
+ * qu'un autre fil est en train de charger ({@link IdentityMap}), rend sa place pendant l'attente.
+ * Le pilote doit bloquer sans {@code synchronized} (pgjdbc 42.6.0 et plus) : sinon chaque requête épingle son fil
+ * virtuel et le parallélisme réel retombe au nombre de processeurs.
+ * {@link #SEQUENTIAL} exécute tout sur le fil appelant, comme les DAO le faisaient avant.
+ */
+public class ParallelHydrator {
+    public static final ParallelHydrator SEQUENTIAL = new ParallelHydrator(1, false);
+
+    // Set on the virtual threads while they hold one of the permits
+    private static final ThreadLocal<ParallelHydrator> HOLDING_PERMIT = new ThreadLocal<>();
+
+    @FunctionalInterface
+    public interface Task<T> {
+        T call() throws SQLException;
+    }
+
+    private final int maxConcurrency;
+    private final boolean parallel;
+    private final Semaphore permits;
+
+    public ParallelHydrator(int maxConcurrency) {
+        this(maxConcurrency, true);
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("Max concurrency must be positive: " + maxConcurrency);
+        }
+    }
+
+    private ParallelHydrator(int maxConcurrency, boolean parallel) {
+        this.maxConcurrency = maxConcurrency;
+        this.parallel = parallel;
+        this.permits = new Semaphore(Math.max(1, maxConcurrency));
+    }
+
+    /**
+     * Hydrateur limité à la moitié des connexions du pool : chaque sous-chargement en cours tient au plus
+     * une connexion, l'autre moitié reste aux autres requêtes.
+     */
+    public static ParallelHydrator forPool(DataSource dataSource) {
+        return new ParallelHydrator(Math.max(1, dataSource.getMaxPoolSize() / 2));
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /**
+     * Résultats des tâches, dans leur ordre.
+     */
+    public <T> List<T> invokeAll(List<? extends Task<T>> tasks) throws SQLException {
+        List<T> results = new ArrayList<>(tasks.size());
+        if (!parallel || tasks.size() <= 1) {
+            for (Task<T> task : tasks) {
+                results.add(task.call());
+            }
+            return results;
+        }
+
+        IdentityMap identityMap = IdentityMap.current();
+        boolean holdingPermit = HOLDING_PERMIT.get() == this;
+        if (holdingPermit) {
+            permits.release();
+        }
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<T>> futures = new ArrayList<>(tasks.size());
+            for (Task<T> task : tasks) {
+                futures.add(executor.submit(() -> runWithPermit(task, identityMap)));
+            }
+            for (Future<T> future : futures) {
+                results.add(await(future, futures));
+            }
+            return results;
+        } finally {
+            if (holdingPermit) {
+                permits.acquireUninterruptibly();
+            }
+        }
+    }
+
+    public void runAll(List<? extends Task<?>> tasks) throws SQLException {
+        List<Task<Object>> untyped = new ArrayList<>(tasks.size());
+        for (Task<?> task : tasks) {
+            untyped.add(task::call);
+        }
+        invokeAll(untyped);
+    }
+
+    // Blocking wait of a sub-load: the permit is given back meanwhile so the awaited load can run its own sub-loads
+    static <T> T awaitWithoutPermit(Supplier<T> wait) {
+        ParallelHydrator holder = HOLDING_PERMIT.get();
+        if (holder == null) {
+            return wait.get();
+        }
+        holder.permits.release();
+        try {
+            return wait.get();
+        } finally {
+            holder.permits.acquireUninterruptibly();
+        }
+    }
+
+    private <T> T runWithPermit(Task<T> task, IdentityMap identityMap) throws SQLException, InterruptedException {
+        permits.acquire();
+        HOLDING_PERMIT.set(this);
+        IdentityMap.Scope scope = IdentityMap.enter(identityMap);
+        try {
+            return task.call();
+        } finally {
+            scope.close();
+            HOLDING_PERMIT.remove();
+            permits.release();
+        }
+    }
+
+    private static <T> T await(Future<T> future, List<? extends Future<?>> siblings) throws SQLException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            siblings.forEach(sibling -> sibling.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while hydrating", e);
+        } catch (ExecutionException e) {
+            siblings.forEach(sibling -> sibling.cancel(true));
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException sqlException) {
+                throw sqlException;
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new SQLException("Hydration failed: " + cause.getMessage(), cause);
+        }
+    }
+}
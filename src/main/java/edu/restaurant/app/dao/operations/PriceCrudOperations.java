@@ -7,8 +7,22 @@ import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
 
-public class PriceCrudOperations implements CrudOperations<Price> {
+public class PriceCrudOperations implements PriceOperations {
+    static final String PRICES_BY_INGREDIENT_ID_SQL = "SELECT p.id, p.amount, p.date_value FROM price p "
+            + "JOIN ingredient i ON p.id_ingredient = i.id "
+            + "WHERE p.id_ingredient = ?";
+
     private final DataSource dataSource = new DataSource();
+    // Reloaded after prices are saved, null when no catalog is in use
+    private final MenuCatalog menuCatalog;
+
+    public PriceCrudOperations() {
+        this(null);
+    }
+
+    public PriceCrudOperations(MenuCatalog menuCatalog) {
+        this.menuCatalog = menuCatalog;
+    }
 
     @Override
     public List<Price> getAll(int page, int size) {
@@ -50,17 +64,17 @@ public class PriceCrudOperations implements CrudOperations<Price> {
         } catch (SQLException e) {
             throw new RuntimeException("Error while saving prices", e);
         }
+        if (menuCatalog != null) {
+            menuCatalog.reload();
+        }
         return prices;
     }
 
+    @Override
     public List<Price> findByIdIngredient(Long idIngredient) {
         List<Price> prices = new ArrayList<>();
-        String sql = "SELECT p.id, p.amount, p.date_value FROM price p "
-                   + "JOIN ingredient i ON p.id_ingredient = i.id "
-                   + "WHERE p.id_ingredient = ?";
-
         try (Connection connection = dataSource.getConnection();
-             PreparedStatement statement = connection.prepareStatement(sql)) {
+             PreparedStatement statement = connection.prepareStatement(PRICES_BY_INGREDIENT_ID_SQL)) {
              
             statement.setLong(1, idIngredient);
             try (ResultSet resultSet = statement.executeQuery()) {
@@ -75,7 +89,7 @@ public class PriceCrudOperations implements CrudOperations<Price> {
         }
     }
 
-    private Price mapFromResultSet(ResultSet resultSet) throws SQLException {
+    static Price mapFromResultSet(ResultSet resultSet) throws SQLException {
         Price price = new Price();
         price.setId(resultSet.getLong("id"));
         price.setAmount(resultSet.getDouble("amount"));
@@ -0,0 +1,9 @@
+package edu.restaurant.app.dao.operations;
+
+import edu.restaurant.app.dao.entity.Price;
+
+import java.util.List;
+
+public interface PriceOperations extends CrudOperations<Price> {
+    List<Price> findByIdIngredient(Long idIngredient);
+}
@@ -3,13 +3,78 @@ package edu.restaurant.app.dao.operations;
 import edu.restaurant.app.dao.DataSource;
 import edu.restaurant.app.dao.entity.*;
 
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+
+import java.nio.charset.StandardCharsets;
 import java.sql.*;
-import java.util.ArrayList;
-import java.util.List;
+import java.time.Instant;
+import java.util.*;
+import java.util.stream.Stream;
 
 import static java.time.Instant.now;
 
-public class StockMovementCrudOperations implements CrudOperations<StockMovement> {
+public class StockMovementCrudOperations implements StockMovementOperations {
+    private static final String SIGNED_QUANTITY =
+            "sum(case %1$s.movement_type when 'IN' then %1$s.quantity when 'OUT' then -%1$s.quantity else 0 end)";
+
+    // Latest checkpoint at or before the date, then archived movements not covered by it and live movements up to the date.
+    // A null date means current stock: every live movement, whatever its date.
+    static final String STOCK_LEVEL_SQL =
+            "with params as (select coalesce(cast(? as timestamp), 'infinity'::timestamp) as at)"
+                    + " select i.id as id_ingredient, coalesce(sn.quantity, 0)"
+                    + " + coalesce((select " + SIGNED_QUANTITY.formatted("a") + " from stock_movement_archive a"
+                    + "     where a.id_ingredient = i.id"
+                    + "     and a.snapshot_datetime > coalesce(sn.snapshot_datetime, '-infinity'::timestamp)"
+                    + "     and a.creation_datetime <= p.at), 0)"
+                    + " + coalesce((select " + SIGNED_QUANTITY.formatted("s") + " from stock_movement s"
+                    + "     where s.id_ingredient = i.id and s.creation_datetime <= p.at), 0) as quantity"
+                    + " from params p cross join unnest(?) as i(id)"
+                    + " left join lateral (select sn.quantity, sn.snapshot_datetime from stock_snapshot sn"
+                    + "     where sn.id_ingredient = i.id and sn.snapshot_datetime <= p.at"
+                    + "     order by sn.snapshot_datetime desc limit 1) sn on true";
+
+    // Live movements of the ingredients, preceded by an opening-balance movement (id null) for the latest checkpoint.
+    // Takes the ingredient id array twice.
+    static final String MOVEMENTS_SINCE_SNAPSHOT_SQL =
+            "select s.id, s.quantity, s.unit, s.movement_type, s.creation_datetime, s.id_ingredient"
+                    + " from stock_movement s where s.id_ingredient = any(?)"
+                    + " union all"
+                    + " select * from (select distinct on (sn.id_ingredient) null::bigint, abs(sn.quantity), sn.unit,"
+                    + "     (case when sn.quantity < 0 then 'OUT' else 'IN' end)::stock_movement_type,"
+                    + "     sn.snapshot_datetime, sn.id_ingredient"
+                    + "     from stock_snapshot sn where sn.id_ingredient = any(?)"
+                    + "     order by sn.id_ingredient, sn.snapshot_datetime desc) latest_snapshot"
+                    + " order by creation_datetime";
+
+    // Per-connection staging table for COPY ingestion, emptied at each commit
+    private static final String CREATE_INGEST_TABLE_SQL =
+            "create temporary table if not exists stock_movement_ingest (id bigint, quantity numeric, unit unit,"
+                    + " movement_type stock_movement_type, creation_datetime timestamp without time zone, id_ingredient bigint,"
+                    + " position bigint generated always as identity)"
+                    + " on commit delete rows";
+    private static final String COPY_INGEST_TABLE_SQL =
+            "copy stock_movement_ingest (id, quantity, unit, movement_type, creation_datetime, id_ingredient) from stdin";
+    // The partitioned primary key is (id, creation_datetime): ids are kept unique by skipping any id already live or archived,
+    // and all but the first occurrence of an id within the chunk
+    private static final String UNKNOWN_ID_SQL =
+            "not exists (select 1 from stock_movement s where s.id = %1$s)"
+                    + " and not exists (select 1 from stock_movement_archive a where a.id = %1$s)";
+    private static final String MERGE_INGEST_TABLE_SQL =
+            "insert into stock_movement (id, quantity, unit, movement_type, creation_datetime, id_ingredient)"
+                    + " select coalesce(g.id, nextval(pg_get_serial_sequence('stock_movement', 'id'))),"
+                    + " g.quantity, g.unit, g.movement_type, g.creation_datetime, g.id_ingredient"
+                    + " from (select i.*, row_number() over (partition by i.id order by i.position) as occurrence"
+                    + "     from stock_movement_ingest i) g"
+                    + " where g.id is null or (g.occurrence = 1 and " + UNKNOWN_ID_SQL.formatted("g.id") + ")"
+                    + " on conflict (id, creation_datetime) do nothing";
+    private static final String INSERT_SQL =
+            "insert into stock_movement (id, quantity, unit, movement_type, creation_datetime, id_ingredient)"
+                    + " select ?, ?, ?::unit, ?::stock_movement_type, ?, ? where " + UNKNOWN_ID_SQL.formatted("?")
+                    + " on conflict (id, creation_datetime) do nothing";
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
     private final DataSource dataSource = new DataSource();
 
     @Override
@@ -27,25 +92,23 @@ public class StockMovementCrudOperations implements CrudOperations<StockMovement
         List<StockMovement> stockMovements = new ArrayList<>();
         try (Connection connection = dataSource.getConnection();
              PreparedStatement statement =
-                     connection.prepareStatement("insert into stock_movement (id, quantity, unit, movement_type, creation_datetime, id_ingredient) values (?, ?, ?, ?, ?, ?)"
-                             + " on conflict (id) do nothing"
-                             + " returning id, quantity, unit, movement_type, creation_datetime, id_ingredient")) {
-            entities.forEach(entityToSave -> {
-                try {
-                    statement.setLong(1, entityToSave.getId());
-                    statement.setDouble(2, entityToSave.getQuantity());
-                    statement.setString(3, entityToSave.getUnit().name());
-                    statement.setString(4, entityToSave.getMovementType().name());
-                    statement.setTimestamp(5, Timestamp.from(now()));
-                    statement.setLong(6, entityToSave.getIngredient().getId());
-                    statement.addBatch(); // group by batch so executed as one query in database
-                } catch (SQLException e) {
-                    throw new RuntimeException(e);
-                }
-            });
-            try (ResultSet resultSet = statement.executeQuery()) {
-                while (resultSet.next()) {
-                    stockMovements.add(mapFromResultSet(resultSet));
+                     connection.prepareStatement(INSERT_SQL)) {
+            for (StockMovement entityToSave : entities) {
+                statement.setLong(1, entityToSave.getId());
+                statement.setDouble(2, entityToSave.getQuantity());
+                statement.setString(3, entityToSave.getUnit() != null ? entityToSave.getUnit().name() : null);
+                statement.setString(4, entityToSave.getMovementType().name());
+                statement.setTimestamp(5, Timestamp.from(creationDatetimeOf(entityToSave)));
+                statement.setLong(6, entityToSave.getIngredient().getId());
+                statement.setLong(7, entityToSave.getId());
+                statement.setLong(8, entityToSave.getId());
+                statement.addBatch(); // group by batch so executed as one query in database
+            }
+            int[] insertedRows = statement.executeBatch();
+            // Movements whose id already exists, whatever their date, are skipped
+            for (int i = 0; i < insertedRows.length; i++) {
+                if (insertedRows[i] != 0) {
+                    stockMovements.add(entities.get(i));
                 }
             }
             return stockMovements;
@@ -54,14 +117,109 @@ public class StockMovementCrudOperations implements CrudOperations<StockMovement
         }
     }
 
+    /**
+     * Ingestion de gros volumes de mouvements (livraisons, inventaires) par le protocole COPY de PostgreSQL.
+     * Les mouvements sont lus au fil de l'eau et envoyés par lots de chunkSize, chacun dans sa propre transaction :
+     * la source n'est lue qu'au rythme où la base absorbe les données. Les dates fournies sont conservées,
+     * un id déjà présent est ignoré et un id absent est pris dans la séquence (sans être reporté sur le mouvement).
+     * Retourne le nombre de mouvements insérés.
+     */
+    public long ingest(Iterator<StockMovement> stockMovements, int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+        }
+        Instant ingestionDatetime = now();
+        long insertedRows = 0;
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute(CREATE_INGEST_TABLE_SQL);
+                }
+                while (stockMovements.hasNext()) {
+                    copyChunk(copyManager, stockMovements, chunkSize, ingestionDatetime);
+                    try (Statement statement = connection.createStatement()) {
+                        insertedRows += statement.executeUpdate(MERGE_INGEST_TABLE_SQL);
+                    }
+                    connection.commit();
+                }
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+            return insertedRows;
+        } catch (SQLException e) {
+            throw new RuntimeException("Error while ingesting stock movements: " + e.getMessage(), e);
+        }
+    }
+
+    public long ingest(Stream<StockMovement> stockMovements, int chunkSize) {
+        try (stockMovements) {
+            return ingest(stockMovements.iterator(), chunkSize);
+        }
+    }
+
+    // One COPY per chunk, flushed to the driver every COPY_BUFFER_SIZE characters
+    private static void copyChunk(CopyManager copyManager, Iterator<StockMovement> stockMovements, int chunkSize,
+                                  Instant ingestionDatetime) throws SQLException {
+        CopyIn copyIn = copyManager.copyIn(COPY_INGEST_TABLE_SQL);
+        try {
+            StringBuilder rows = new StringBuilder(COPY_BUFFER_SIZE + 256);
+            for (int count = 0; count < chunkSize && stockMovements.hasNext(); count++) {
+                appendCopyRow(rows, stockMovements.next(), ingestionDatetime);
+                if (rows.length() >= COPY_BUFFER_SIZE) {
+                    writeToCopy(copyIn, rows);
+                }
+            }
+            writeToCopy(copyIn, rows);
+            copyIn.endCopy();
+        } finally {
+            if (copyIn.isActive()) {
+                copyIn.cancelCopy();
+            }
+        }
+    }
+
+    // COPY text format: tab-separated columns, \N for null. No value here can contain a tab or a backslash.
+    private static void appendCopyRow(StringBuilder rows, StockMovement stockMovement, Instant ingestionDatetime) {
+        Instant creationDatetime = stockMovement.getCreationDatetime() != null ? stockMovement.getCreationDatetime() : ingestionDatetime;
+        rows.append(stockMovement.getId() != null ? stockMovement.getId().toString() : "\\N").append('\t')
+                .append(stockMovement.getQuantity()).append('\t')
+                .append(stockMovement.getUnit() != null ? stockMovement.getUnit().name() : "\\N").append('\t')
+                .append(stockMovement.getMovementType().name()).append('\t')
+                // Same local date-time as setTimestamp would bind for the column without time zone
+                .append(Timestamp.from(creationDatetime)).append('\t')
+                .append(stockMovement.getIngredient() != null ? stockMovement.getIngredient().getId().toString() : "\\N")
+                .append('\n');
+    }
+
+    private static void writeToCopy(CopyIn copyIn, StringBuilder rows) throws SQLException {
+        if (rows.length() == 0) {
+            return;
+        }
+        byte[] bytes = rows.toString().getBytes(StandardCharsets.UTF_8);
+        copyIn.writeToCopy(bytes, 0, bytes.length);
+        rows.setLength(0);
+    }
+
+    private static Instant creationDatetimeOf(StockMovement stockMovement) {
+        return stockMovement.getCreationDatetime() != null ? stockMovement.getCreationDatetime() : now();
+    }
+
+    /**
+     * Mouvements non compactés d'un ingrédient, précédés du solde de son dernier point de stock s'il en existe un.
+     */
+    @Override
     public List<StockMovement> findByIdIngredient(Long idIngredient) {
         List<StockMovement> stockMovements = new ArrayList<>();
         try (Connection connection = dataSource.getConnection();
-             PreparedStatement statement = connection.prepareStatement(
-                     "select s.id, s.quantity, s.unit, s.movement_type, s.creation_datetime from stock_movement s"
-                             + " join ingredient i on s.id_ingredient = i.id"
-                             + " where s.id_ingredient = ?")) {
-            statement.setLong(1, idIngredient);
+             PreparedStatement statement = connection.prepareStatement(MOVEMENTS_SINCE_SNAPSHOT_SQL)) {
+            Array idIngredients = connection.createArrayOf("bigint", new Object[]{idIngredient});
+            statement.setArray(1, idIngredients);
+            statement.setArray(2, idIngredients);
             try (ResultSet resultSet = statement.executeQuery()) {
                 while (resultSet.next()) {
                     stockMovements.add(mapFromResultSet(resultSet));
@@ -73,12 +231,78 @@ public class StockMovementCrudOperations implements CrudOperations<StockMovement
         }
     }
 
-    private StockMovement mapFromResultSet(ResultSet resultSet) throws SQLException {
+    /**
+     * Stock actuel d'un ingrédient (tous mouvements), calculé par la base.
+     */
+    @Override
+    public Double getStockLevel(Long idIngredient) {
+        return getStockLevels(List.of(idIngredient)).get(idIngredient);
+    }
+
+    /**
+     * Stock d'un ingrédient à une date donnée (mouvements antérieurs ou égaux), calculé par la base.
+     */
+    @Override
+    public Double getStockLevel(Long idIngredient, Instant datetime) {
+        return getStockLevels(List.of(idIngredient), datetime).get(idIngredient);
+    }
+
+    /**
+     * Stock actuel de plusieurs ingrédients en une seule requête ; 0 pour un ingrédient sans mouvement.
+     */
+    @Override
+    public Map<Long, Double> getStockLevels(Collection<Long> idIngredients) {
+        return findStockLevels(idIngredients, null);
+    }
+
+    /**
+     * Stock de plusieurs ingrédients à une date donnée en une seule requête ; 0 pour un ingrédient sans mouvement.
+     */
+    @Override
+    public Map<Long, Double> getStockLevels(Collection<Long> idIngredients, Instant datetime) {
+        return findStockLevels(idIngredients, Objects.requireNonNull(datetime));
+    }
+
+    @Override
+    public Map<Ingredient, Double> getAvailableQuantities(Collection<Ingredient> ingredients) {
+        Set<Long> idIngredients = new HashSet<>();
+        ingredients.forEach(ingredient -> idIngredients.add(ingredient.getId()));
+        Map<Long, Double> stockLevels = getStockLevels(idIngredients);
+
+        Map<Ingredient, Double> availableQuantities = new HashMap<>();
+        ingredients.forEach(ingredient -> availableQuantities.put(ingredient, stockLevels.get(ingredient.getId())));
+        return availableQuantities;
+    }
+
+    private Map<Long, Double> findStockLevels(Collection<Long> idIngredients, Instant datetime) {
+        Map<Long, Double> stockLevels = new HashMap<>();
+        if (idIngredients.isEmpty()) {
+            return stockLevels;
+        }
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(STOCK_LEVEL_SQL)) {
+            statement.setTimestamp(1, datetime != null ? Timestamp.from(datetime) : null);
+            statement.setArray(2, connection.createArrayOf("bigint", idIngredients.toArray()));
+            idIngredients.forEach(idIngredient -> stockLevels.put(idIngredient, 0.0));
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    stockLevels.put(resultSet.getLong("id_ingredient"), resultSet.getDouble("quantity"));
+                }
+            }
+            return stockLevels;
+        } catch (SQLException e) {
+            throw new RuntimeException("Error while computing stock levels: " + e.getMessage(), e);
+        }
+    }
+
+    static StockMovement mapFromResultSet(ResultSet resultSet) throws SQLException {
         StockMovement stockMovement = new StockMovement();
-        stockMovement.setId(resultSet.getLong("id"));
+        long id = resultSet.getLong("id");
+        stockMovement.setId(resultSet.wasNull() ? null : id);
         stockMovement.setQuantity(resultSet.getDouble("quantity"));
         stockMovement.setMovementType(StockMovementType.valueOf(resultSet.getString("movement_type")));
-        stockMovement.setUnit(Unit.valueOf(resultSet.getString("unit")));
+        String unit = resultSet.getString("unit");
+        stockMovement.setUnit(unit != null ? Unit.valueOf(unit) : null);
         stockMovement.setCreationDatetime(resultSet.getTimestamp("creation_datetime").toInstant());
         return stockMovement;
     }
@@ -0,0 +1,22 @@
+package edu.restaurant.app.dao.operations;
+
+import edu.restaurant.app.dao.entity.StockLevelProvider;
+import edu.restaurant.app.dao.entity.StockMovement;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+public interface StockMovementOperations extends CrudOperations<StockMovement>, StockLevelProvider {
+    List<StockMovement> findByIdIngredient(Long idIngredient);
+
+    Double getStockLevel(Long idIngredient);
+
+    Double getStockLevel(Long idIngredient, Instant datetime);
+
+    // 0 for an ingredient without movement
+    Map<Long, Double> getStockLevels(Collection<Long> idIngredients);
+
+    Map<Long, Double> getStockLevels(Collection<Long> idIngredients, Instant datetime);
+}
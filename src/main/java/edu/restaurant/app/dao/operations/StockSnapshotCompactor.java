@@ -0,0 +1,135 @@
+package edu.restaurant.app.dao.operations;
+
+import edu.restaurant.app.dao.DataSource;
+
+import java.sql.*;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Compactage des mouvements de stock : les mouvements antérieurs ou égaux à un watermark sont
+ * déplacés dans stock_movement_archive et résumés par un point de stock (stock_snapshot) par ingrédient.
+ * Le stock courant se lit alors comme "dernier point + mouvements restants", quel que soit l'historique.
+ * <p>
+ * Chaque compactage est une seule instruction SQL, dans une transaction protégée par un verrou consultatif,
+ * et le watermark doit être postérieur au dernier point de stock existant.
+ */
+public class StockSnapshotCompactor implements AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(StockSnapshotCompactor.class.getName());
+    private static final long ADVISORY_LOCK_KEY = 0x5354_4f43_4b53_4e50L; // "STOCKSNP"
+
+    private static final String COMPACT_SQL =
+            "with moved as ("
+                    + "     delete from stock_movement where creation_datetime <= ?"
+                    + "     returning id, quantity, unit, movement_type, creation_datetime, id_ingredient),"
+                    + " archived as ("
+                    + "     insert into stock_movement_archive (id, quantity, unit, movement_type, creation_datetime, id_ingredient, snapshot_datetime)"
+                    + "     select m.id, m.quantity, m.unit, m.movement_type, m.creation_datetime, m.id_ingredient, ? from moved m"
+                    + "     returning 1),"
+                    + " snapshots as ("
+                    + "     insert into stock_snapshot (id_ingredient, snapshot_datetime, quantity, unit)"
+                    + "     select m.id_ingredient, ?,"
+                    + "         coalesce(previous.quantity, 0)"
+                    + "         + sum(case m.movement_type when 'IN' then m.quantity when 'OUT' then -m.quantity else 0 end),"
+                    + "         coalesce((array_agg(m.unit order by m.creation_datetime desc))[1], previous.unit)"
+                    + "     from moved m"
+                    + "     left join lateral (select sn.quantity, sn.unit from stock_snapshot sn"
+                    + "         where sn.id_ingredient = m.id_ingredient"
+                    + "         order by sn.snapshot_datetime desc limit 1) previous on true"
+                    + "     group by m.id_ingredient, previous.quantity, previous.unit"
+                    + "     returning 1)"
+                    + " select (select count(*) from archived) as archived, (select count(*) from snapshots) as snapshots";
+
+    private final DataSource dataSource;
+    private ScheduledExecutorService scheduler;
+
+    public StockSnapshotCompactor(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * Compacte les mouvements dont la date est antérieure ou égale au watermark.
+     * Retourne le nombre de mouvements archivés ; 0 si le watermark n'est pas postérieur au dernier point de stock.
+     */
+    public int compact(Instant watermark) {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                int archived = compact(connection, Timestamp.from(watermark));
+                connection.commit();
+                return archived;
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error while compacting stock movements: " + e.getMessage(), e);
+        }
+    }
+
+    private int compact(Connection connection, Timestamp watermark) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("select pg_advisory_xact_lock(?)")) {
+            statement.setLong(1, ADVISORY_LOCK_KEY);
+            statement.executeQuery().close();
+        }
+
+        try (PreparedStatement statement = connection.prepareStatement("select max(snapshot_datetime) from stock_snapshot");
+             ResultSet resultSet = statement.executeQuery()) {
+            resultSet.next();
+            Timestamp latestSnapshot = resultSet.getTimestamp(1);
+            if (latestSnapshot != null && !watermark.after(latestSnapshot)) {
+                LOGGER.fine(() -> "Stock already compacted up to " + latestSnapshot + ", skipping watermark " + watermark);
+                return 0;
+            }
+        }
+
+        long start = System.nanoTime();
+        try (PreparedStatement statement = connection.prepareStatement(COMPACT_SQL)) {
+            statement.setTimestamp(1, watermark);
+            statement.setTimestamp(2, watermark);
+            statement.setTimestamp(3, watermark);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                resultSet.next();
+                int archived = resultSet.getInt("archived");
+                int snapshots = resultSet.getInt("snapshots");
+                LOGGER.info(() -> "Compacted " + archived + " stock movements into " + snapshots + " snapshots up to "
+                        + watermark + " in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+                return archived;
+            }
+        }
+    }
+
+    /**
+     * Lance le compactage périodique : à chaque exécution, les mouvements plus anciens que retention sont compactés.
+     */
+    public synchronized void start(Duration period, Duration retention) {
+        if (scheduler != null) {
+            throw new IllegalStateException("Stock compaction already started");
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "stock-snapshot-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                compact(Instant.now().minus(retention));
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Stock compaction failed", e);
+            }
+        }, period.toMillis(), period.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+}
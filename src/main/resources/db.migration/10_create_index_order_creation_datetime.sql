@@ -0,0 +1,2 @@
+-- Stable ordering and keyset pagination of orders: ORDER BY creation_datetime, id
+create index if not exists idx_order_creation_datetime_id on "order" (creation_datetime, id);
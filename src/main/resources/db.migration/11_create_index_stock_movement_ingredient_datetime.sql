@@ -0,0 +1,2 @@
+-- Stock level aggregates per ingredient, current and point-in-time: id_ingredient = any(?) and creation_datetime <= ?
+create index if not exists idx_stock_movement_ingredient_datetime on stock_movement (id_ingredient, creation_datetime);
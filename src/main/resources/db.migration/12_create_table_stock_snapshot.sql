@@ -0,0 +1,28 @@
+-- Per-ingredient stock checkpoints written by the compaction job: balance of every movement archived up to snapshot_datetime
+create table if not exists stock_snapshot
+(
+    id                bigserial primary key,
+    id_ingredient     bigint    not null,
+    snapshot_datetime timestamp without time zone not null,
+    quantity          numeric   not null,
+    unit              unit,
+    constraint fk_stock_snapshot_id_ingredient foreign key (id_ingredient) references ingredient (id),
+    constraint uq_stock_snapshot_ingredient_datetime unique (id_ingredient, snapshot_datetime)
+);
+
+-- Compacted movements, kept for point-in-time queries before the latest checkpoint.
+-- snapshot_datetime is the watermark of the compaction that archived the movement.
+create table if not exists stock_movement_archive
+(
+    id                bigint primary key,
+    quantity          numeric,
+    unit              unit,
+    movement_type     stock_movement_type,
+    creation_datetime timestamp without time zone,
+    id_ingredient     bigint,
+    snapshot_datetime timestamp without time zone not null,
+    constraint fk_stock_movement_archive_id_ingredient foreign key (id_ingredient) references ingredient (id)
+);
+
+create index if not exists idx_stock_movement_archive_ingredient_snapshot
+    on stock_movement_archive (id_ingredient, snapshot_datetime);
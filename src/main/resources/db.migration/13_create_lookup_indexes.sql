@@ -0,0 +1,25 @@
+-- Lookup indexes of the child tables, one per DAO access path (see QueryPlanTest).
+-- Built inside the migration transaction: on a large production table, create the same index
+-- concurrently beforehand and this script finds it already there.
+
+-- Lines of an order: order_id = ? / order_id = any(?) order by id
+create index if not exists idx_order_dish_order_id on order_dish (order_id, id) include (dish_id, quantity);
+
+-- Foreign key to dish: deleting a dish cascades to its order lines
+create index if not exists idx_order_dish_dish_id on order_dish (dish_id);
+
+-- Status history of an order, already sorted: order_id = ? order by status_datetime
+create index if not exists idx_order_status_order_id_datetime on order_status (order_id, status_datetime) include (status);
+
+-- Status history of an order line, already sorted: order_dish_id = ? order by status_datetime
+create index if not exists idx_order_dish_status_order_dish_id_datetime
+    on order_dish_status (order_dish_id, status_datetime) include (status);
+
+-- Recipes by dish are served by unique_dish_ingredient_quantity (id_dish, id_ingredient, unit).
+-- Foreign key to ingredient: recipes using an ingredient
+create index if not exists idx_dish_ingredient_id_ingredient on dish_ingredient (id_ingredient);
+
+-- Price history of an ingredient: id_ingredient = ? / id_ingredient = any(?)
+create index if not exists idx_price_id_ingredient_date on price (id_ingredient, date_value) include (amount);
+
+-- Stock movements by ingredient are served by idx_stock_movement_ingredient_datetime (migration 11)
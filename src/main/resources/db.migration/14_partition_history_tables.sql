@@ -0,0 +1,135 @@
+-- Monthly range partitions for the append-only history tables: order_status and order_dish_status by status_datetime,
+-- stock_movement by creation_datetime. Recent-data queries prune to a few months and retention drops whole partitions.
+-- The application creates the partitions of the coming months (see PartitionMaintenance); rows outside every
+-- monthly partition land in the default one and move to their month when its partition is created.
+
+-- Partition of the month containing the given date, named <parent>_pYYYY_MM. Returns false if it already exists.
+create or replace function create_monthly_partition(parent text, key_column text, month_date date) returns boolean
+    language plpgsql as
+$$
+declare
+    partition_name text      := format('%s_p%s', parent, to_char(month_date, 'YYYY_MM'));
+    default_name   text      := parent || '_default';
+    month_start    timestamp := date_trunc('month', month_date::timestamp);
+    month_end      timestamp := date_trunc('month', month_date::timestamp) + interval '1 month';
+begin
+    -- Nodes starting together create each partition once
+    perform pg_advisory_xact_lock(hashtext(partition_name));
+    if to_regclass(partition_name) is not null then
+        return false;
+    end if;
+    execute format('create table %I (like %I including defaults including constraints)', partition_name, parent);
+    if to_regclass(default_name) is not null then
+        execute format('with moved as (delete from %I where %I >= %L and %I < %L returning *) insert into %I select * from moved',
+                       default_name, key_column, month_start, key_column, month_end, partition_name);
+    end if;
+    execute format('alter table %I attach partition %I for values from (%L) to (%L)',
+                   parent, partition_name, month_start, month_end);
+    return true;
+end
+$$;
+
+-- Partitions of every month from from_month to to_month included. Returns the number created.
+create or replace function ensure_monthly_partitions(parent text, key_column text, from_month date, to_month date) returns integer
+    language plpgsql as
+$$
+declare
+    current_month date    := date_trunc('month', from_month::timestamp);
+    created       integer := 0;
+begin
+    while current_month <= to_month
+        loop
+            if create_monthly_partition(parent, key_column, current_month) then
+                created := created + 1;
+            end if;
+            current_month := current_month + interval '1 month';
+        end loop;
+    return created;
+end
+$$;
+
+-- order_status
+drop index if exists idx_order_status_order_id_datetime;
+alter table order_status rename to order_status_unpartitioned;
+alter table order_status_unpartitioned rename constraint order_status_pkey to order_status_unpartitioned_pkey;
+
+create table order_status
+(
+    id              integer     not null default nextval('order_status_id_seq'),
+    order_id        integer     not null,
+    status          varchar(20) not null,
+    status_datetime timestamp   not null default current_timestamp,
+    primary key (id, status_datetime),
+    foreign key (order_id) references "order" (id) on delete cascade
+) partition by range (status_datetime);
+create table order_status_default partition of order_status default;
+
+select ensure_monthly_partitions('order_status', 'status_datetime',
+                                 coalesce((select min(status_datetime) from order_status_unpartitioned), now())::date,
+                                 (now() + interval '3 months')::date);
+insert into order_status (id, order_id, status, status_datetime)
+select id, order_id, status, status_datetime from order_status_unpartitioned;
+alter sequence order_status_id_seq owned by order_status.id;
+drop table order_status_unpartitioned;
+
+create index if not exists idx_order_status_order_id_datetime on order_status (order_id, status_datetime) include (status);
+create index if not exists brin_order_status_status_datetime on order_status using brin (status_datetime);
+
+-- order_dish_status
+drop index if exists idx_order_dish_status_order_dish_id_datetime;
+alter table order_dish_status rename to order_dish_status_unpartitioned;
+alter table order_dish_status_unpartitioned rename constraint order_dish_status_pkey to order_dish_status_unpartitioned_pkey;
+
+create table order_dish_status
+(
+    id              integer     not null default nextval('order_dish_status_id_seq'),
+    order_dish_id   integer     not null,
+    status          varchar(20) not null,
+    status_datetime timestamp   not null default current_timestamp,
+    primary key (id, status_datetime),
+    foreign key (order_dish_id) references order_dish (id) on delete cascade
+) partition by range (status_datetime);
+create table order_dish_status_default partition of order_dish_status default;
+
+select ensure_monthly_partitions('order_dish_status', 'status_datetime',
+                                 coalesce((select min(status_datetime) from order_dish_status_unpartitioned), now())::date,
+                                 (now() + interval '3 months')::date);
+insert into order_dish_status (id, order_dish_id, status, status_datetime)
+select id, order_dish_id, status, status_datetime from order_dish_status_unpartitioned;
+alter sequence order_dish_status_id_seq owned by order_dish_status.id;
+drop table order_dish_status_unpartitioned;
+
+create index if not exists idx_order_dish_status_order_dish_id_datetime
+    on order_dish_status (order_dish_id, status_datetime) include (status);
+create index if not exists brin_order_dish_status_status_datetime on order_dish_status using brin (status_datetime);
+
+-- stock_movement: the partition key is part of the primary key, so creation_datetime becomes mandatory.
+-- Legacy rows without a date are kept before every date.
+drop index if exists idx_stock_movement_ingredient_datetime;
+alter table stock_movement rename to stock_movement_unpartitioned;
+alter table stock_movement_unpartitioned rename constraint stock_movement_pkey to stock_movement_unpartitioned_pkey;
+
+create table stock_movement
+(
+    id                bigint    not null default nextval('stock_movement_id_seq'),
+    quantity          numeric,
+    unit              unit,
+    movement_type     stock_movement_type,
+    creation_datetime timestamp without time zone not null,
+    id_ingredient     bigint,
+    primary key (id, creation_datetime),
+    constraint fk_stock_movement_id_ingredient foreign key (id_ingredient) references ingredient (id)
+) partition by range (creation_datetime);
+create table stock_movement_default partition of stock_movement default;
+
+select ensure_monthly_partitions('stock_movement', 'creation_datetime',
+                                 coalesce((select min(creation_datetime) from stock_movement_unpartitioned), now())::date,
+                                 (now() + interval '3 months')::date);
+insert into stock_movement (id, quantity, unit, movement_type, creation_datetime, id_ingredient)
+select id, quantity, unit, movement_type, coalesce(creation_datetime, '-infinity'::timestamp), id_ingredient
+from stock_movement_unpartitioned;
+alter sequence stock_movement_id_seq owned by stock_movement.id;
+drop table stock_movement_unpartitioned;
+
+create index if not exists idx_stock_movement_ingredient_datetime on stock_movement (id_ingredient, creation_datetime);
+create index if not exists brin_stock_movement_creation_datetime on stock_movement using brin (creation_datetime);
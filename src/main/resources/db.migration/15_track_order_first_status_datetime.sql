@@ -0,0 +1,70 @@
+-- Earliest status date of each order, over its order and dish statuses. Status history reads bound status_datetime
+-- by it, so a lookup by order only scans the partitions from that month on. The triggers keep the bound true whatever
+-- dates the statuses carry (replayed offline orders, client-supplied dates): it is lowered, never raised.
+alter table "order" add column if not exists first_status_datetime timestamp;
+
+update "order" o
+set first_status_datetime = s.first_status_datetime
+from (select order_id, min(status_datetime) as first_status_datetime
+      from (select order_id, status_datetime from order_status
+            union all
+            select od.order_id, ods.status_datetime
+            from order_dish_status ods
+                     join order_dish od on od.id = ods.order_dish_id) statuses
+      group by order_id) s
+where o.id = s.order_id;
+
+create or replace function lower_order_first_status_datetime(target_order_id bigint, status_datetime timestamp) returns void
+    language plpgsql as
+$$
+begin
+    update "order"
+    set first_status_datetime = status_datetime
+    where id = target_order_id
+      and (first_status_datetime is null or first_status_datetime > status_datetime);
+end
+$$;
+
+create or replace function track_order_status_first_datetime() returns trigger
+    language plpgsql as
+$$
+begin
+    perform lower_order_first_status_datetime(new.order_id, new.status_datetime);
+    return null;
+end
+$$;
+
+create or replace function track_order_dish_status_first_datetime() returns trigger
+    language plpgsql as
+$$
+begin
+    perform lower_order_first_status_datetime((select order_id from order_dish where id = new.order_dish_id), new.status_datetime);
+    return null;
+end
+$$;
+
+-- A line moved to another order brings its statuses along
+create or replace function track_order_dish_first_datetime() returns trigger
+    language plpgsql as
+$$
+begin
+    perform lower_order_first_status_datetime(new.order_id,
+                                              (select min(status_datetime) from order_dish_status where order_dish_id = new.id));
+    return null;
+end
+$$;
+
+drop trigger if exists order_status_first_datetime on order_status;
+create trigger order_status_first_datetime
+    after insert or update of order_id, status_datetime on order_status
+    for each row execute function track_order_status_first_datetime();
+
+drop trigger if exists order_dish_status_first_datetime on order_dish_status;
+create trigger order_dish_status_first_datetime
+    after insert or update of order_dish_id, status_datetime on order_dish_status
+    for each row execute function track_order_dish_status_first_datetime();
+
+drop trigger if exists order_dish_first_datetime on order_dish;
+create trigger order_dish_first_datetime
+    after update of order_id on order_dish
+    for each row execute function track_order_dish_first_datetime();
@@ -1,8 +1,13 @@
 import edu.restaurant.app.dao.entity.Dish;
 import edu.restaurant.app.dao.operations.DishCrudOperations;
+import edu.restaurant.app.dao.operations.Page;
+import edu.restaurant.app.dao.operations.PageCursor;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 
 public class DishTest {
     DishCrudOperations subject = new DishCrudOperations();
@@ -13,4 +18,21 @@ public class DishTest {
 
         assertEquals(5500.0, hotDog.getTotalIngredientsCost());
     }
+
+    @Test
+    public void get_all_dishes() {
+        List<Dish> dishes = subject.getAll(0, 10);
+
+        assertEquals(1L, dishes.get(0).getId());
+        assertEquals(5500.0, dishes.get(0).getTotalIngredientsCost());
+    }
+
+    @Test
+    public void get_dishes_page_after_cursor() {
+        Page<Dish> firstPage = subject.getPageAfter(null, 1);
+        assertEquals(1L, firstPage.getItems().get(0).getId());
+
+        Page<Dish> nextPage = subject.getPageAfter(PageCursor.afterId(1L), 10);
+        assertFalse(nextPage.getItems().stream().anyMatch(dish -> dish.getId().equals(1L)));
+    }
 }
@@ -1,7 +1,12 @@
 import edu.restaurant.app.dao.entity.Ingredient;
 import edu.restaurant.app.dao.operations.IngredientCrudOperations;
+import edu.restaurant.app.dao.operations.StockMovementCrudOperations;
 import org.junit.jupiter.api.Test;
 
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 public class IngredientTest {
@@ -27,4 +32,18 @@ public class IngredientTest {
 
         assertEquals(1000.0, oeuf.getActualPrice());
     }
+
+    @Test
+    void stock_levels_computed_by_database() {
+        StockMovementCrudOperations stockMovementCrudOperations = new StockMovementCrudOperations();
+        Ingredient oeuf = subject.findById(1L);
+        Ingredient pain = subject.findById(4L);
+
+        Map<Long, Double> stockLevels = stockMovementCrudOperations.getStockLevels(List.of(1L, 4L, -1L));
+
+        assertEquals(oeuf.getAvailableQuantity(), stockLevels.get(1L));
+        assertEquals(pain.getAvailableQuantity(), stockLevels.get(4L));
+        assertEquals(0.0, stockLevels.get(-1L));
+        assertEquals(0.0, stockMovementCrudOperations.getStockLevel(1L, Instant.EPOCH));
+    }
 }
@@ -0,0 +1,247 @@
+package edu.restaurant.app.dao;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConnectionPoolTest {
+    private final List<FakeConnection> physicalConnections = new ArrayList<>();
+    private ConnectionPool pool;
+
+    @AfterEach
+    public void tearDown() {
+        if (pool != null) {
+            pool.close();
+        }
+    }
+
+    @Test
+    public void testPhysicalConnectionIsReused() throws Exception {
+        pool = new ConnectionPool(this::newFakeConnection, config(0, 2));
+
+        try (Connection connection = pool.getConnection()) {
+            assertFalse(connection.isClosed());
+        }
+        try (Connection connection = pool.getConnection()) {
+            assertFalse(connection.isClosed());
+        }
+
+        assertEquals(1, physicalConnections.size(), "The second borrow should reuse the first physical connection");
+        assertFalse(physicalConnections.get(0).closed.get(), "Closing the handle must not close the physical connection");
+        PoolStatistics statistics = pool.getStatistics();
+        assertEquals(0, statistics.getActiveConnections());
+        assertEquals(1, statistics.getIdleConnections());
+        assertEquals(2, statistics.getAcquiredCount());
+    }
+
+    @Test
+    public void testAcquireTimesOutWhenPoolIsExhausted() throws Exception {
+        ConnectionPoolConfig config = config(0, 1);
+        config.setAcquireTimeoutMillis(50);
+        pool = new ConnectionPool(this::newFakeConnection, config);
+
+        Connection connection = pool.getConnection();
+        try {
+            assertThrows(SQLTransientConnectionException.class, () -> pool.getConnection());
+        } finally {
+            connection.close();
+        }
+        assertEquals(1, pool.getStatistics().getAcquireTimeoutCount());
+    }
+
+    @Test
+    public void testInvalidIdleConnectionIsReplacedOnBorrow() throws Exception {
+        pool = new ConnectionPool(this::newFakeConnection, config(1, 1));
+        physicalConnections.get(0).valid.set(false);
+
+        try (Connection connection = pool.getConnection()) {
+            assertFalse(connection.isClosed());
+        }
+
+        assertEquals(2, physicalConnections.size());
+        assertTrue(physicalConnections.get(0).closed.get(), "The broken connection should have been closed");
+    }
+
+    @Test
+    public void testClosedHandleCannotBeUsed() throws Exception {
+        pool = new ConnectionPool(this::newFakeConnection, config(0, 1));
+
+        Connection connection = pool.getConnection();
+        connection.close();
+        connection.close();
+
+        assertTrue(connection.isClosed());
+        assertThrows(java.sql.SQLException.class, connection::createStatement);
+        assertEquals(0, pool.getStatistics().getActiveConnections());
+    }
+
+    @Test
+    public void testLeakIsDetected() throws Exception {
+        ConnectionPoolConfig config = config(0, 1);
+        config.setLeakDetectionThresholdMillis(10);
+        config.setHousekeepingPeriodMillis(20);
+        pool = new ConnectionPool(this::newFakeConnection, config);
+
+        Connection connection = pool.getConnection();
+        try {
+            long deadline = System.currentTimeMillis() + 2_000;
+            while (pool.getStatistics().getLeakCount() == 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+        } finally {
+            connection.close();
+        }
+        assertEquals(1, pool.getStatistics().getLeakCount());
+    }
+
+    @Test
+    public void testPreparedStatementsAreReusedPerConnection() throws Exception {
+        ConnectionPoolConfig config = config(0, 1);
+        config.setStatementCacheSize(2);
+        pool = new ConnectionPool(this::newFakeConnection, config);
+
+        for (int i = 0; i < 3; i++) {
+            try (Connection connection = pool.getConnection();
+                 PreparedStatement statement = connection.prepareStatement("select 1")) {
+                statement.executeQuery();
+            }
+        }
+        FakeConnection physical = physicalConnections.get(0);
+        assertEquals(1, physical.preparedStatements.size(), "The same SQL should be prepared once per connection");
+        assertFalse(physical.preparedStatements.get(0).closed.get(), "Closing the handle must keep the statement prepared");
+        assertEquals(2, pool.getStatistics().getStatementCacheHitCount());
+        assertEquals(1, pool.getStatistics().getStatementCacheMissCount());
+
+        try (Connection connection = pool.getConnection()) {
+            // Requête imbriquée sur le même SQL : le statement en cache est déjà emprunté
+            try (PreparedStatement outer = connection.prepareStatement("select 1");
+                 PreparedStatement inner = connection.prepareStatement("select 1")) {
+                assertNotSame(outer, inner);
+            }
+            connection.prepareStatement("select 2").close();
+            connection.prepareStatement("select 3").close();
+        }
+        assertTrue(physical.preparedStatements.get(1).closed.get(), "An uncached statement should really be closed");
+        assertTrue(physical.preparedStatements.get(0).closed.get(), "The least recently used statement should be evicted");
+        assertFalse(physical.preparedStatements.get(3).closed.get());
+    }
+
+    @Test
+    public void testCachedStatementHandleCannotBeUsedAfterClose() throws Exception {
+        pool = new ConnectionPool(this::newFakeConnection, config(0, 1));
+
+        try (Connection connection = pool.getConnection()) {
+            PreparedStatement statement = connection.prepareStatement("select 1");
+            statement.close();
+            assertTrue(statement.isClosed());
+            assertThrows(SQLException.class, statement::executeQuery);
+        }
+        assertEquals(1, physicalConnections.get(0).preparedStatements.get(0).clearedParameters.get(),
+                "Parameters should be cleared when the statement goes back to the cache");
+    }
+
+    @Test
+    public void testStatementSettingsAreRestoredWhenGivenBack() throws Exception {
+        pool = new ConnectionPool(this::newFakeConnection, config(0, 1));
+
+        try (Connection connection = pool.getConnection()) {
+            try (PreparedStatement statement = connection.prepareStatement("select 1")) {
+                statement.setFetchSize(1_000);
+                statement.setMaxRows(10);
+                statement.setQueryTimeout(30);
+            }
+            try (PreparedStatement statement = connection.prepareStatement("select 1")) {
+                assertEquals(0, statement.getFetchSize());
+                assertEquals(0, statement.getMaxRows());
+                assertEquals(0, statement.getQueryTimeout());
+            }
+        }
+        assertEquals(1, physicalConnections.get(0).preparedStatements.size(), "The second borrow should reuse the cached statement");
+    }
+
+    private ConnectionPoolConfig config(int minSize, int maxSize) {
+        ConnectionPoolConfig config = new ConnectionPoolConfig();
+        config.setMinSize(minSize);
+        config.setMaxSize(maxSize);
+        return config;
+    }
+
+    private Connection newFakeConnection() {
+        FakeConnection fake = new FakeConnection();
+        physicalConnections.add(fake);
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "close" -> {
+                        fake.closed.set(true);
+                        yield null;
+                    }
+                    case "isClosed" -> fake.closed.get();
+                    case "isValid" -> fake.valid.get();
+                    case "prepareStatement" -> newFakeStatement(fake);
+                    case "getAutoCommit" -> true;
+                    default -> null;
+                });
+    }
+
+    private PreparedStatement newFakeStatement(FakeConnection connection) {
+        FakeStatement fake = new FakeStatement();
+        connection.preparedStatements.add(fake);
+        return (PreparedStatement) Proxy.newProxyInstance(
+                PreparedStatement.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "close" -> {
+                        fake.closed.set(true);
+                        yield null;
+                    }
+                    case "isClosed" -> fake.closed.get();
+                    case "clearParameters" -> {
+                        fake.clearedParameters.incrementAndGet();
+                        yield null;
+                    }
+                    case "getFetchSize" -> fake.fetchSize.get();
+                    case "getMaxRows" -> fake.maxRows.get();
+                    case "getQueryTimeout" -> fake.queryTimeout.get();
+                    case "setFetchSize" -> {
+                        fake.fetchSize.set((Integer) args[0]);
+                        yield null;
+                    }
+                    case "setMaxRows" -> {
+                        fake.maxRows.set((Integer) args[0]);
+                        yield null;
+                    }
+                    case "setQueryTimeout" -> {
+                        fake.queryTimeout.set((Integer) args[0]);
+                        yield null;
+                    }
+                    default -> null;
+                });
+    }
+
+    private static class FakeConnection {
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private final AtomicBoolean valid = new AtomicBoolean(true);
+        private final List<FakeStatement> preparedStatements = new ArrayList<>();
+    }
+
+    private static class FakeStatement {
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private final AtomicInteger clearedParameters = new AtomicInteger();
+        private final AtomicInteger fetchSize = new AtomicInteger();
+        private final AtomicInteger maxRows = new AtomicInteger();
+        private final AtomicInteger queryTimeout = new AtomicInteger();
+    }
+}
@@ -0,0 +1,62 @@
+package edu.restaurant.app.dao.entity;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+public class IngredientPriceTest {
+    private static final LocalDate JANUARY = LocalDate.of(2025, 1, 1);
+    private static final LocalDate MARCH = LocalDate.of(2025, 3, 1);
+
+    @Test
+    public void testPriceAtUsesPriceInEffect() {
+        Ingredient ingredient = new Ingredient(1L, "Huile", new ArrayList<>(List.of(
+                new Price(1L, null, 12_000.0, MARCH),
+                new Price(2L, null, 10_000.0, JANUARY))), new ArrayList<>());
+
+        assertEquals(0.0, ingredient.getPriceAt(JANUARY.minusDays(1)), "Aucun prix avant le premier prix fixé");
+        assertEquals(10_000.0, ingredient.getPriceAt(JANUARY));
+        assertEquals(10_000.0, ingredient.getPriceAt(LocalDate.of(2025, 2, 14)));
+        assertEquals(12_000.0, ingredient.getPriceAt(MARCH.plusYears(1)));
+        assertEquals(12_000.0, ingredient.getActualPrice());
+    }
+
+    @Test
+    public void testAddPricesKeepsIndexConsistent() {
+        Ingredient ingredient = new Ingredient(1L, "Huile", new ArrayList<>(), new ArrayList<>());
+        assertEquals(0.0, ingredient.getActualPrice());
+
+        ingredient.addPrices(new ArrayList<>(List.of(new Price(1L, null, 10_000.0, JANUARY))));
+        assertEquals(10_000.0, ingredient.getActualPrice());
+
+        ingredient.addPrices(new ArrayList<>(List.of(new Price(2L, null, 12_000.0, MARCH))));
+        assertEquals(12_000.0, ingredient.getActualPrice());
+        assertEquals(10_000.0, ingredient.getPriceAt(MARCH.minusDays(1)));
+        assertSame(ingredient, ingredient.getPrices().get(1).getIngredient());
+
+        // Un prix plus ancien ne remplace pas le prix actuel, un doublon de date non plus
+        ingredient.getPrices().add(new Price(3L, null, 8_000.0, JANUARY.minusMonths(1)));
+        ingredient.getPrices().add(new Price(4L, null, 99_000.0, MARCH));
+        assertEquals(12_000.0, ingredient.getActualPrice());
+        assertEquals(8_000.0, ingredient.getPriceAt(JANUARY.minusDays(1)));
+
+        ingredient.setPrices(new ArrayList<>(List.of(new Price(5L, null, 500.0, JANUARY))));
+        assertEquals(500.0, ingredient.getActualPrice());
+    }
+
+    @Test
+    public void testDishCostUsesPriceInEffect() {
+        Ingredient ingredient = new Ingredient(1L, "Huile", new ArrayList<>(List.of(
+                new Price(1L, null, 100.0, JANUARY),
+                new Price(2L, null, 200.0, MARCH))), new ArrayList<>());
+        Dish dish = new Dish();
+        dish.setPrice(1_000.0);
+        dish.setDishIngredients(new ArrayList<>(List.of(new DishIngredient(1L, ingredient, 1.0, Unit.L))));
+
+        assertEquals(800.0, dish.getGrossMargin());
+        assertEquals(900.0, dish.getGrossMarginAt(LocalDate.of(2025, 2, 1)));
+    }
+}
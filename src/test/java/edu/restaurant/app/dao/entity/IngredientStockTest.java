@@ -0,0 +1,90 @@
+package edu.restaurant.app.dao.entity;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class IngredientStockTest {
+    private static final Instant T0 = Instant.parse("2025-02-01T08:00:00Z");
+
+    @Test
+    public void testAvailableQuantityAtBoundaries() {
+        Ingredient ingredient = new Ingredient(1L, "Oeuf", new ArrayList<>(), new ArrayList<>(List.of(
+                movement(StockMovementType.IN, 100.0, T0),
+                movement(StockMovementType.OUT, 20.0, T0.plusSeconds(60)),
+                movement(StockMovementType.IN, 50.0, T0.plusSeconds(120)))));
+
+        assertEquals(0.0, ingredient.getAvailableQuantityAt(T0.minusNanos(1)));
+        assertEquals(100.0, ingredient.getAvailableQuantityAt(T0), "Un mouvement à la date exacte est compté");
+        assertEquals(80.0, ingredient.getAvailableQuantityAt(T0.plusSeconds(119)));
+        assertEquals(130.0, ingredient.getAvailableQuantityAt(T0.plusSeconds(120)));
+        assertEquals(130.0, ingredient.getAvailableQuantity());
+        assertEquals(130.0, ingredient.getAvailableQuantityAt(Instant.MAX));
+    }
+
+    @Test
+    public void testAddStockMovementsUpdatesIndex() {
+        Ingredient ingredient = new Ingredient(1L, "Oeuf", new ArrayList<>(), new ArrayList<>());
+        assertEquals(0.0, ingredient.getAvailableQuantity());
+
+        ingredient.addStockMovements(new ArrayList<>(List.of(movement(StockMovementType.IN, 10.0, T0))));
+        assertEquals(10.0, ingredient.getAvailableQuantity());
+
+        // Mouvement antérieur au dernier indexé : l'index est reconstruit
+        ingredient.addStockMovements(new ArrayList<>(List.of(
+                movement(StockMovementType.OUT, 4.0, T0.plusSeconds(60)),
+                movement(StockMovementType.IN, 3.0, T0.minusSeconds(60)))));
+        assertEquals(3.0, ingredient.getAvailableQuantityAt(T0.minusSeconds(1)));
+        assertEquals(13.0, ingredient.getAvailableQuantityAt(T0));
+        assertEquals(9.0, ingredient.getAvailableQuantity());
+        assertSame(ingredient, ingredient.getStockMovements().get(0).getIngredient());
+    }
+
+    @Test
+    public void testDirectListChangesAreDetected() {
+        Ingredient ingredient = new Ingredient(1L, "Oeuf", new ArrayList<>(), new ArrayList<>());
+        ingredient.getStockMovements().add(movement(StockMovementType.IN, 10.0, T0));
+        assertEquals(10.0, ingredient.getAvailableQuantity());
+
+        ingredient.getStockMovements().remove(0);
+        assertEquals(0.0, ingredient.getAvailableQuantity());
+
+        ingredient.setStockMovements(new ArrayList<>(List.of(movement(StockMovementType.IN, 7.0, T0))));
+        assertEquals(7.0, ingredient.getAvailableQuantity());
+    }
+
+    @Test
+    public void testMatchesFullScanOnRandomMovements() {
+        Random random = new Random(42);
+        List<StockMovement> movements = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            StockMovementType type = random.nextInt(3) == 0 ? StockMovementType.OUT : StockMovementType.IN;
+            movements.add(movement(type, (double) random.nextInt(50), T0.plusSeconds(random.nextInt(10_000))));
+        }
+        Ingredient ingredient = new Ingredient(1L, "Riz", new ArrayList<>(), movements);
+
+        for (int i = 0; i < 200; i++) {
+            Instant datetime = T0.plusSeconds(random.nextInt(10_500) - 250);
+            assertEquals(fullScan(movements, datetime), ingredient.getAvailableQuantityAt(datetime), 1e-9);
+        }
+    }
+
+    private static double fullScan(List<StockMovement> movements, Instant datetime) {
+        double quantity = 0;
+        for (StockMovement stockMovement : movements) {
+            if (!stockMovement.getCreationDatetime().isAfter(datetime)) {
+                quantity += StockMovementType.IN.equals(stockMovement.getMovementType())
+                        ? stockMovement.getQuantity() : -stockMovement.getQuantity();
+            }
+        }
+        return quantity;
+    }
+
+    private static StockMovement movement(StockMovementType type, Double quantity, Instant datetime) {
+        return new StockMovement(null, null, quantity, Unit.U, type, datetime);
+    }
+}
@@ -140,6 +140,73 @@ public class OrderEntityTest {
         assertEquals(OrderStatus.CREATED, order.getActualStatus());
     }
     
+    @Test
+    public void testActualStatusFollowsHistoryChanges() {
+        Order order = new Order("ORD-TEST-006");
+        order.setId(1L);
+        Instant now = Instant.now();
+        
+        order.setStatusHistory(new ArrayList<>(List.of(
+                new OrderStatusEntry(1L, 1L, OrderStatus.CONFIRMED, now),
+                new OrderStatusEntry(2L, 1L, OrderStatus.IN_PREPARATION, now))));
+        assertEquals(OrderStatus.CONFIRMED, order.getActualStatus(), 
+                    "À date égale, la première entrée de l'historique l'emporte");
+        
+        order.getStatusHistory().remove(0);
+        assertEquals(OrderStatus.IN_PREPARATION, order.getActualStatus(), 
+                    "Un historique raccourci doit être relu");
+        
+        order.getStatusHistory().clear();
+        assertEquals(OrderStatus.CREATED, order.getActualStatus());
+        
+        order.setStatusHistory(null);
+        assertEquals(OrderStatus.CREATED, order.getActualStatus());
+    }
+    
+    @Test
+    public void testDishStatusCountsFollowDishChanges() {
+        Order order = new Order("ORD-TEST-007");
+        order.setId(1L);
+        Dish dish = createDish(1L, "Riz", 5000.0);
+        DishOrder first = new DishOrder(1L, dish, 1);
+        DishOrder second = new DishOrder(1L, dish, 2);
+        order.addDishOrder(first);
+        order.addDishOrder(second);
+        assertEquals(2, order.dishStatusCount(OrderDishStatus.CREATED));
+        
+        order.addStatus(OrderStatus.CONFIRMED);
+        order.addStatus(OrderStatus.IN_PREPARATION);
+        assertEquals(2, order.dishStatusCount(OrderDishStatus.IN_PREPARATION));
+        
+        first.addStatus(OrderDishStatus.FINISHED);
+        assertEquals(1, order.dishStatusCount(OrderDishStatus.FINISHED));
+        order.updateStatusBasedOnDishes();
+        assertEquals(OrderStatus.IN_PREPARATION, order.getActualStatus());
+        
+        // Un historique remplacé compte comme un changement de statut
+        second.setStatusHistory(new ArrayList<>(List.of(
+                new OrderDishStatusEntry(null, 2L, OrderDishStatus.FINISHED, Instant.now()))));
+        assertEquals(2, order.dishStatusCount(OrderDishStatus.FINISHED));
+        assertEquals(0, order.dishStatusCount(OrderDishStatus.IN_PREPARATION));
+        order.updateStatusBasedOnDishes();
+        assertEquals(OrderStatus.FINISHED, order.getActualStatus());
+        
+        // Un plat retiré de la commande n'est plus compté, ni ses changements de statut
+        order.getDishOrders().remove(second);
+        assertEquals(1, order.dishStatusCount(OrderDishStatus.FINISHED));
+        second.addStatus(OrderDishStatus.SERVED);
+        assertEquals(0, order.dishStatusCount(OrderDishStatus.SERVED));
+        
+        order.setDishOrders(List.of(second));
+        assertEquals(0, order.dishStatusCount(OrderDishStatus.FINISHED));
+        assertEquals(1, order.dishStatusCount(OrderDishStatus.SERVED));
+        first.addStatus(OrderDishStatus.SERVED);
+        assertEquals(1, order.dishStatusCount(OrderDishStatus.SERVED));
+        
+        order.getDishOrders().clear();
+        assertEquals(0, order.dishStatusCount(OrderDishStatus.SERVED));
+    }
+    
     private Dish createDish(Long id, String name, Double price) {
         Dish dish = new Dish();
         dish.setId(id);
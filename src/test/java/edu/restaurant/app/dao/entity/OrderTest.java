@@ -4,7 +4,9 @@ import org.junit.jupiter.api.Test;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import static org.junit.jupiter.api.Assertions.*;
 import java.util.stream.Collectors;
 
@@ -347,6 +349,71 @@ public class OrderTest {
         assertEquals(OrderStatus.SERVED, order.getActualStatus());
     }
     
+    @Test
+    public void testOrderConfirmationWithStockLevelProvider() {
+        Order order = new Order("ORD-TEST-010");
+        order.setId(1L);
+        
+        // Ingrédients sans mouvements chargés : le stock vient du fournisseur
+        Ingredient pain = createIngredient(1L, "Pain", 1.0);
+        Ingredient saucisse = createIngredient(2L, "Saucisse", 2.0);
+        
+        DishIngredient di1 = new DishIngredient();
+        di1.setIngredient(pain);
+        di1.setRequiredQuantity(1.0);
+        
+        DishIngredient di2 = new DishIngredient();
+        di2.setIngredient(saucisse);
+        di2.setRequiredQuantity(1.0);
+        
+        Dish hotDog = createDish(1L, "Hot Dog", 5.0, new ArrayList<>(List.of(di1, di2)));
+        order.addDishOrder(new DishOrder(order.getId(), hotDog, 2));
+        
+        List<Collection<Ingredient>> requests = new ArrayList<>();
+        StockLevelProvider lowStock = ingredients -> {
+            requests.add(ingredients);
+            return Map.of(pain, 3.0, saucisse, 1.0);
+        };
+        Exception exception = assertThrows(InsufficientIngredientsException.class, () -> order.confirm(lowStock));
+        assertTrue(exception.getMessage().contains("1 Saucisse est nécessaire pour fabriquer 1 Hot Dog supplémentaire"));
+        assertEquals(1, requests.size(), "Le stock de tous les ingrédients est demandé en un seul appel");
+        assertEquals(2, requests.get(0).size());
+        assertEquals(OrderStatus.CREATED, order.getActualStatus());
+        
+        order.confirm(ingredients -> Map.of(pain, 5.0, saucisse, 5.0));
+        assertEquals(OrderStatus.CONFIRMED, order.getActualStatus());
+    }
+    
+    @Test
+    public void testConfirmationCountsCopiesOfAnIngredientOnce() {
+        Order order = new Order("ORD-TEST-SHARED");
+        order.setId(1L);
+        
+        // Le même pain (stock 3) chargé deux fois, une copie par plat
+        Ingredient painForHotDog = createIngredientWithStock(1L, "Pain", 1.0, 3.0);
+        Ingredient painForSandwich = createIngredientWithStock(1L, "Pain", 1.0, 3.0);
+        assertEquals(painForHotDog, painForSandwich);
+        assertEquals(painForHotDog.hashCode(), painForSandwich.hashCode());
+        
+        DishIngredient hotDogPain = new DishIngredient();
+        hotDogPain.setIngredient(painForHotDog);
+        hotDogPain.setRequiredQuantity(1.0);
+        DishIngredient sandwichPain = new DishIngredient();
+        sandwichPain.setIngredient(painForSandwich);
+        sandwichPain.setRequiredQuantity(1.0);
+        
+        DishOrder hotDogs = new DishOrder(order.getId(), createDish(1L, "Hot Dog", 5.0, new ArrayList<>(List.of(hotDogPain))), 2);
+        hotDogs.setId(1L);
+        DishOrder sandwiches = new DishOrder(order.getId(), createDish(2L, "Sandwich", 4.0, new ArrayList<>(List.of(sandwichPain))), 2);
+        sandwiches.setId(2L);
+        order.addDishOrder(hotDogs);
+        order.addDishOrder(sandwiches);
+        
+        // 4 pains nécessaires pour 3 en stock : chaque copie seule suffirait, mais pas le stock commun
+        assertThrows(InsufficientIngredientsException.class, order::confirm);
+        assertEquals(OrderStatus.CREATED, order.getActualStatus());
+    }
+    
     // Méthodes utilitaires pour la création d'objets de test
     
     private Ingredient createIngredient(Long id, String name, Double price) {
@@ -0,0 +1,202 @@
+package edu.restaurant.app.dao.memory;
+
+import edu.restaurant.app.dao.entity.*;
+import edu.restaurant.app.dao.operations.BulkSaveResult;
+import edu.restaurant.app.dao.operations.DaoFactory;
+import edu.restaurant.app.dao.operations.OrderOperations;
+import edu.restaurant.app.dao.operations.Page;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InMemoryDaoFactoryTest {
+    private DaoFactory daoFactory;
+    private Dish hotDog;
+
+    @BeforeEach
+    public void setUp() {
+        daoFactory = new InMemoryDaoFactory();
+        Ingredient sausage = new Ingredient(null, "Saucisse", null, null);
+        Ingredient bread = new Ingredient(null, "Pain", null, null);
+        daoFactory.ingredients().saveAll(List.of(sausage, bread));
+        daoFactory.prices().saveAll(List.of(
+                new Price(null, sausage, 20.0, LocalDate.of(2025, 1, 1)),
+                new Price(null, bread, 1000.0, LocalDate.of(2025, 1, 1))));
+        daoFactory.stockMovements().saveAll(List.of(
+                new StockMovement(null, sausage, 100.0, Unit.G, StockMovementType.IN, Instant.parse("2025-02-01T08:00:00Z")),
+                new StockMovement(null, sausage, 40.0, Unit.G, StockMovementType.OUT, Instant.parse("2025-02-02T08:00:00Z")),
+                new StockMovement(null, bread, 30.0, Unit.U, StockMovementType.IN, Instant.parse("2025-02-01T08:00:00Z"))));
+
+        hotDog = new Dish(1L, "Hot dog", new ArrayList<>(List.of(
+                new DishIngredient(null, sausage, 100.0, Unit.G),
+                new DishIngredient(null, bread, 1.0, Unit.U))), 15000.0);
+        daoFactory.dishes().saveAll(List.of(hotDog));
+    }
+
+    @Test
+    public void testDishIsReadWithItsRecipePricesAndStock() {
+        Dish dish = daoFactory.dishes().findById(1L);
+
+        assertNotSame(hotDog, dish);
+        assertEquals(2, dish.getDishIngredients().size());
+        assertEquals(3000.0, dish.getTotalIngredientsCost());
+        assertEquals(60.0, dish.getDishIngredients().get(0).getIngredient().getAvailableQuantity());
+        assertEquals(60.0, daoFactory.stockMovements().getStockLevel(dish.getDishIngredients().get(0).getIngredient().getId()));
+        assertEquals(100.0, daoFactory.stockMovements().getStockLevel(
+                dish.getDishIngredients().get(0).getIngredient().getId(), Instant.parse("2025-02-01T12:00:00Z")));
+        assertThrows(RuntimeException.class, () -> daoFactory.dishes().findById(99L));
+    }
+
+    @Test
+    public void testSavedOrderGetsIdsAndIsReadBackWithItsGraph() {
+        Order order = newOrder("ORD-MEM-1", 2);
+
+        daoFactory.orders().save(order);
+
+        assertNotNull(order.getId());
+        order.getDishOrders().forEach(dishOrder -> {
+            assertNotNull(dishOrder.getId());
+            assertEquals(order.getId(), dishOrder.getOrderId());
+            dishOrder.getStatusHistory().forEach(statusEntry -> assertNotNull(statusEntry.getId()));
+        });
+        order.getStatusHistory().forEach(statusEntry -> assertEquals(order.getId(), statusEntry.getOrderId()));
+
+        Order found = daoFactory.orders().findByReference("ORD-MEM-1").orElseThrow();
+        assertNotSame(order, found);
+        assertEquals(order.getId(), found.getId());
+        assertEquals(2, found.getDishOrders().size());
+        assertSame(found.getDishOrders().get(0).getDish(), found.getDishOrders().get(1).getDish(),
+                "Lines sharing a dish should share its instance");
+        assertEquals(45000.0, found.getTotalAmount());
+        assertEquals(OrderStatus.CREATED, found.getActualStatus());
+        assertEquals(2, daoFactory.dishOrders().findByOrderId(order.getId()).size());
+    }
+
+    @Test
+    public void testChangesAreVisibleOnlyOnceSaved() {
+        Order order = daoFactory.orders().create(newOrder("ORD-MEM-2", 1));
+
+        order.addStatus(OrderStatus.CONFIRMED);
+        assertEquals(OrderStatus.CREATED, daoFactory.orders().findById(order.getId()).getActualStatus());
+
+        daoFactory.orders().save(order);
+        Order confirmed = daoFactory.orders().findById(order.getId());
+        assertEquals(OrderStatus.CONFIRMED, confirmed.getActualStatus());
+        assertEquals(OrderDishStatus.CONFIRMED, confirmed.getDishOrders().get(0).getActualStatus());
+
+        daoFactory.orders().updateOrderStatus(order.getId(), OrderStatus.IN_PREPARATION);
+        daoFactory.dishOrders().updateDishOrderStatus(confirmed.getDishOrders().get(0).getId(), OrderDishStatus.IN_PREPARATION);
+        Order inPreparation = daoFactory.orders().findById(order.getId());
+        assertEquals(OrderStatus.IN_PREPARATION, inPreparation.getActualStatus());
+        assertEquals(OrderDishStatus.IN_PREPARATION, inPreparation.getDishOrders().get(0).getActualStatus());
+
+        daoFactory.orders().delete(order.getId());
+        assertTrue(daoFactory.orders().findOptionalById(order.getId()).isEmpty());
+        assertTrue(daoFactory.dishOrders().findByOrderId(order.getId()).isEmpty());
+    }
+
+    @Test
+    public void testRejectedChunkLeavesNothingBehind() {
+        Order valid = newOrder("ORD-MEM-3", 1);
+        Order unknownDish = new Order("ORD-MEM-4");
+        unknownDish.addDishOrder(new DishOrder(null, new Dish(99L, "Inconnu", List.of(), 1.0), 1));
+
+        BulkSaveResult<Order> result = daoFactory.orders().saveAll(List.of(valid, unknownDish), 1);
+
+        assertEquals(List.of(valid), result.getSaved());
+        assertEquals(1, result.getFailures().size());
+        assertEquals(1, result.getFailures().get(0).getFirstIndex());
+        assertNull(unknownDish.getId());
+        assertNull(unknownDish.getDishOrders().get(0).getId());
+        assertEquals(1, daoFactory.orders().findAll().size());
+    }
+
+    @Test
+    public void testSaveAllStopsAtTheFirstFailedChunk() {
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < 2 * OrderOperations.DEFAULT_CHUNK_SIZE + 1; i++) {
+            orders.add(newOrder("ORD-STOP-" + i, 1));
+        }
+        // First order of the second chunk references an unknown dish
+        orders.get(OrderOperations.DEFAULT_CHUNK_SIZE).getDishOrders().get(0).setDish(new Dish(99L, "Inconnu", List.of(), 1.0));
+
+        assertThrows(RuntimeException.class, () -> daoFactory.orders().saveAll(orders));
+
+        assertEquals(OrderOperations.DEFAULT_CHUNK_SIZE, daoFactory.orders().findAll().size());
+        for (int i = 0; i < orders.size(); i++) {
+            assertEquals(i < OrderOperations.DEFAULT_CHUNK_SIZE, orders.get(i).getId() != null, "Order " + i);
+        }
+    }
+
+    @Test
+    public void testKeysetPagesFollowCreationDate() {
+        Instant start = Instant.parse("2025-03-01T12:00:00Z");
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Order order = newOrder("ORD-PAGE-" + i, 1);
+            // Saved in reverse creation order
+            order.setCreationDatetime(start.minusSeconds(i));
+            orders.add(order);
+        }
+        daoFactory.orders().saveAll(orders);
+
+        List<String> references = new ArrayList<>();
+        Page<Order> page = daoFactory.orders().getPageAfter(null, 2);
+        references.addAll(page.getItems().stream().map(Order::getReference).toList());
+        while (page.getNextCursor() != null) {
+            page = daoFactory.orders().getPageAfter(page.getNextCursor(), 2);
+            references.addAll(page.getItems().stream().map(Order::getReference).toList());
+        }
+
+        assertEquals(List.of("ORD-PAGE-4", "ORD-PAGE-3", "ORD-PAGE-2", "ORD-PAGE-1", "ORD-PAGE-0"), references);
+        assertEquals(List.of("ORD-PAGE-2"), daoFactory.orders().getAll(1, 2).stream().limit(1).map(Order::getReference).toList());
+    }
+
+    @Test
+    public void testConcurrentSavesGetDistinctIds() throws Exception {
+        int threads = 8;
+        int ordersPerThread = 50;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<List<Order>>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    List<Order> saved = new ArrayList<>();
+                    for (int i = 0; i < ordersPerThread; i++) {
+                        saved.add(daoFactory.orders().save(newOrder("ORD-CONC-" + thread + "-" + i, 2)));
+                    }
+                    return saved;
+                }));
+            }
+            Set<Long> orderIds = new HashSet<>();
+            Set<Long> dishOrderIds = new HashSet<>();
+            for (Future<List<Order>> future : futures) {
+                for (Order order : future.get(30, TimeUnit.SECONDS)) {
+                    orderIds.add(order.getId());
+                    order.getDishOrders().forEach(dishOrder -> dishOrderIds.add(dishOrder.getId()));
+                }
+            }
+            assertEquals(threads * ordersPerThread, orderIds.size());
+            assertEquals(threads * ordersPerThread * 2, dishOrderIds.size());
+            assertEquals(threads * ordersPerThread, daoFactory.orders().findAll().size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Order newOrder(String reference, int lines) {
+        Order order = new Order(reference);
+        for (int i = 0; i < lines; i++) {
+            order.addDishOrder(new DishOrder(null, hotDog, 1 + i));
+        }
+        return order;
+    }
+}
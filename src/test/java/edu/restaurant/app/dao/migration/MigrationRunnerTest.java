@@ -0,0 +1,59 @@
+package edu.restaurant.app.dao.migration;
+
+import edu.restaurant.app.dao.DataSource;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MigrationRunnerTest {
+
+    @Test
+    public void testScriptsAreDiscoveredInVersionOrder() {
+        List<Migration> migrations = MigrationRunner.discover(MigrationRunner.SCHEMA_LOCATION);
+
+        assertFalse(migrations.isEmpty());
+        for (int i = 0; i < migrations.size(); i++) {
+            assertEquals(i + 1, migrations.get(i).getVersion(), "Versions should be numeric, 10 after 9: " + migrations.get(i));
+        }
+        assertEquals("create table dish", migrations.get(0).getDescription());
+        assertTrue(migrations.get(0).getSql().contains("create table if not exists dish"));
+    }
+
+    @Test
+    public void testChecksumFollowsContentNotLineEndings() {
+        Migration unix = new Migration("db.migration", "1_create_table_dish.sql", "create table dish (id bigint);\n");
+        Migration windows = new Migration("db.migration", "1_create_table_dish.sql", "create table dish (id bigint);\r\n");
+        Migration edited = new Migration("db.migration", "1_create_table_dish.sql", "create table dish (id bigint, name varchar);\n");
+
+        assertEquals(64, unix.getChecksum().length());
+        assertEquals(unix.getChecksum(), windows.getChecksum());
+        assertNotEquals(unix.getChecksum(), edited.getChecksum());
+    }
+
+    @Test
+    public void testScriptNameMustCarryAVersion() {
+        assertThrows(IllegalArgumentException.class, () -> new Migration("db.migration", "create_table_dish.sql", ""));
+        assertFalse(Migration.isScript("README.md"));
+    }
+
+    @Test
+    public void testConcurrentRunnersApplyEachMigrationOnce() throws Exception {
+        DataSource dataSource = new DataSource();
+        List<String> locations = List.of(MigrationRunner.SCHEMA_LOCATION);
+
+        CompletableFuture<List<AppliedMigration>> first = CompletableFuture.supplyAsync(
+                () -> new MigrationRunner(dataSource, locations).migrate());
+        CompletableFuture<List<AppliedMigration>> second = CompletableFuture.supplyAsync(
+                () -> new MigrationRunner(dataSource, locations).migrate());
+        int appliedByBoth = first.get(60, TimeUnit.SECONDS).size() + second.get(60, TimeUnit.SECONDS).size();
+
+        assertTrue(appliedByBoth <= MigrationRunner.discover(MigrationRunner.SCHEMA_LOCATION).size(),
+                "A migration should never be applied by two runners");
+        assertTrue(new MigrationRunner(dataSource, locations).migrate().isEmpty(), "Nothing should be pending after a run");
+    }
+}
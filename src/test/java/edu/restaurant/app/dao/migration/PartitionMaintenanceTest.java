@@ -0,0 +1,91 @@
+package edu.restaurant.app.dao.migration;
+
+import edu.restaurant.app.dao.DataSource;
+import edu.restaurant.app.dao.migration.PartitionMaintenance.PartitionedTable;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PartitionMaintenanceTest {
+
+    @Test
+    public void testPartitionNamesCarryTheirMonth() {
+        assertEquals(YearMonth.of(2025, 3), PartitionMaintenance.monthOf(PartitionedTable.ORDER_STATUS, "order_status_p2025_03"));
+        assertNull(PartitionMaintenance.monthOf(PartitionedTable.ORDER_STATUS, "order_status_default"));
+        assertNull(PartitionMaintenance.monthOf(PartitionedTable.ORDER_STATUS, "order_dish_status_p2025_03"),
+                "Partitions of another table should not match");
+    }
+
+    @Test
+    public void testStartCreatesPartitionsNowAndAtEachPeriod() throws InterruptedException {
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch threeRuns = new CountDownLatch(3);
+        PartitionMaintenance maintenance = new PartitionMaintenance(null, 3) {
+            @Override
+            public int ensureFuturePartitions() {
+                int run = runs.incrementAndGet();
+                threeRuns.countDown();
+                // A failed run must not stop the following ones
+                if (run == 2) {
+                    throw new RuntimeException("database unavailable");
+                }
+                return 0;
+            }
+        };
+
+        try (maintenance) {
+            maintenance.start(Duration.ofMillis(20));
+            assertTrue(runs.get() >= 1, "The first run should happen before start returns");
+            assertThrows(IllegalStateException.class, () -> maintenance.start(Duration.ofMillis(20)));
+            assertTrue(threeRuns.await(5, TimeUnit.SECONDS), "Runs should go on after a failed one");
+        }
+        // Leave a run already in flight at close time the time to finish
+        Thread.sleep(100);
+        int afterClose = runs.get();
+        Thread.sleep(100);
+        assertEquals(afterClose, runs.get(), "No run should happen once closed");
+    }
+
+    @Test
+    public void testFuturePartitionsAreCreatedOnce() {
+        DataSource dataSource = new DataSource();
+        new MigrationRunner(dataSource, List.of(MigrationRunner.SCHEMA_LOCATION)).migrate();
+        PartitionMaintenance maintenance = new PartitionMaintenance(dataSource, 6);
+
+        maintenance.ensureFuturePartitions();
+
+        assertEquals(0, maintenance.ensureFuturePartitions(), "A second run should find every partition already there");
+    }
+
+    @Test
+    public void testStockPartitionWithMovementsIsKept() throws SQLException {
+        DataSource dataSource = new DataSource();
+        new MigrationRunner(dataSource, List.of(MigrationRunner.SCHEMA_LOCATION)).migrate();
+        PartitionMaintenance maintenance = new PartitionMaintenance(dataSource);
+        String partition = "stock_movement_p2001_01";
+
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("select create_monthly_partition('stock_movement', 'creation_datetime', '2001-01-01')");
+            statement.execute("insert into stock_movement (quantity, unit, movement_type, creation_datetime)"
+                    + " values (1, 'G', 'IN', '2001-01-15')");
+
+            assertFalse(maintenance.dropPartitionsBefore(PartitionedTable.STOCK_MOVEMENT, YearMonth.of(2001, 2)).contains(partition),
+                    "A partition still holding movements should be kept");
+
+            statement.execute("delete from stock_movement where creation_datetime = '2001-01-15'");
+            assertEquals(List.of(partition), maintenance.dropPartitionsBefore(PartitionedTable.STOCK_MOVEMENT, YearMonth.of(2001, 2)));
+        }
+    }
+}
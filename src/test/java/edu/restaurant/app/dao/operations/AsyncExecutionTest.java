@@ -0,0 +1,91 @@
+package edu.restaurant.app.dao.operations;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AsyncExecutionTest {
+
+    @Test
+    public void testCallsRunOnVirtualThreadsByDefault() throws Exception {
+        CompletableFuture<Boolean> virtual = AsyncExecution.DEFAULT.supply(() -> Thread.currentThread().isVirtual());
+
+        assertTrue(virtual.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testFailureCompletesTheFutureExceptionally() {
+        CompletableFuture<Object> future = AsyncExecution.DEFAULT.supply(() -> {
+            throw new RuntimeException("Order with ID 42 not found");
+        });
+
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        assertEquals("Order with ID 42 not found", failure.getCause().getMessage());
+    }
+
+    @Test
+    public void testCancellationInterruptsTheRunningCall() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        CompletableFuture<Object> future = AsyncExecution.DEFAULT.supply(() -> blockUntilInterrupted(started, interrupted));
+
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        assertTrue(future.cancel(true));
+
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS), "The blocked call should be interrupted");
+        assertTrue(future.isCancelled());
+    }
+
+    @Test
+    public void testTimeoutFailsAndInterruptsTheCall() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        AsyncExecution execution = AsyncExecution.DEFAULT.withTimeout(Duration.ofMillis(50));
+
+        CompletableFuture<Object> future = execution.supply(() -> blockUntilInterrupted(started, interrupted));
+
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(TimeoutException.class, failure.getCause());
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS), "The expired call should be interrupted");
+    }
+
+    @Test
+    public void testCancelledCallIsNeverStarted() throws Exception {
+        ExecutorService single = Executors.newSingleThreadExecutor();
+        try {
+            AsyncExecution execution = new AsyncExecution(single, null);
+            CountDownLatch release = new CountDownLatch(1);
+            execution.run(() -> {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            AtomicBoolean ran = new AtomicBoolean();
+            CompletableFuture<Void> queued = execution.run(() -> ran.set(true));
+
+            queued.cancel(true);
+            release.countDown();
+            execution.run(() -> { }).get(5, TimeUnit.SECONDS);
+
+            assertFalse(ran.get());
+        } finally {
+            single.shutdownNow();
+        }
+    }
+
+    private static Object blockUntilInterrupted(CountDownLatch started, CountDownLatch interrupted) {
+        started.countDown();
+        try {
+            Thread.sleep(10_000);
+        } catch (InterruptedException e) {
+            interrupted.countDown();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,161 @@
+package edu.restaurant.app.dao.operations;
+
+import edu.restaurant.app.dao.entity.*;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MenuAvailabilityTest {
+    private static final Instant T0 = Instant.parse("2025-02-01T08:00:00Z");
+
+    private final Ingredient sausage = ingredient(1L, 1000.0);
+    private final Ingredient bread = ingredient(2L, 30.0);
+    private final Ingredient egg = ingredient(3L, 80.0);
+    private final Dish hotDog = dish(1L, new DishIngredient(null, sausage, 100.0, Unit.G), new DishIngredient(null, bread, 1.0, Unit.U));
+    private final Dish omelette = dish(2L, new DishIngredient(null, egg, 2.0, Unit.U));
+    private final Dish eggSandwich = dish(3L, new DishIngredient(null, egg, 1.0, Unit.U), new DishIngredient(null, bread, 2.0, Unit.U));
+
+    @Test
+    public void testStockIsReadOnceForTheWholeMenu() {
+        AtomicInteger calls = new AtomicInteger();
+        StockLevelProvider countingProvider = ingredients -> {
+            calls.incrementAndGet();
+            assertEquals(3, ingredients.size(), "Each shared ingredient should be asked once");
+            return StockLevelProvider.IN_MEMORY.getAvailableQuantities(ingredients);
+        };
+
+        MenuAvailability availability = new MenuAvailability(List.of(hotDog, omelette, eggSandwich), countingProvider);
+
+        assertEquals(1, calls.get());
+        for (Dish dish : List.of(hotDog, omelette, eggSandwich)) {
+            assertEquals(dish.getAvailableQuantity(), availability.getAvailableQuantity(dish.getId()), dish.getName());
+        }
+        assertEquals(10.0, availability.getAvailableQuantity(1L));
+        assertEquals(40.0, availability.getAvailableQuantity(2L));
+        assertEquals(15.0, availability.getAvailableQuantity(3L));
+    }
+
+    @Test
+    public void testMovementOnlyRecomputesDishesUsingTheIngredient() {
+        MenuAvailability availability = new MenuAvailability(List.of(hotDog, omelette, eggSandwich), StockLevelProvider.IN_MEMORY);
+
+        Map<Dish, Double> changed = availability.apply(movement(bread, 26.0, StockMovementType.OUT));
+
+        assertEquals(Map.of(hotDog, 4.0, eggSandwich, 2.0), changed);
+        assertEquals(4.0, availability.getStockLevel(2L));
+        assertEquals(40.0, availability.getAvailableQuantity(2L), "The omelette does not use bread");
+        assertTrue(availability.apply(movement(ingredient(99L, 0.0), 5.0, StockMovementType.IN)).isEmpty(),
+                "An ingredient outside the menu should not change anything");
+    }
+
+    @Test
+    public void testEmptiedIngredientMakesItsDishesUnavailable() {
+        MenuAvailability availability = new MenuAvailability(List.of(hotDog, omelette, eggSandwich), StockLevelProvider.IN_MEMORY);
+        assertTrue(availability.getUnavailableDishes().isEmpty());
+
+        availability.apply(List.of(movement(egg, 50.0, StockMovementType.OUT), movement(egg, 30.0, StockMovementType.OUT)));
+        assertEquals(List.of(omelette, eggSandwich), availability.getUnavailableDishes());
+
+        Map<Dish, Double> restocked = availability.apply(movement(egg, 4.0, StockMovementType.IN));
+        assertEquals(Map.of(omelette, 2.0, eggSandwich, 4.0), restocked);
+        assertTrue(availability.getUnavailableDishes().isEmpty());
+    }
+
+    @Test
+    public void testRefreshRealignsOnTheProvider() {
+        List<StockMovement> recorded = new ArrayList<>();
+        StockLevelProvider provider = ingredients -> {
+            Map<Ingredient, Double> levels = StockLevelProvider.IN_MEMORY.getAvailableQuantities(ingredients);
+            for (StockMovement movement : recorded) {
+                levels.merge(movement.getIngredient(), -movement.getQuantity(), Double::sum);
+            }
+            return levels;
+        };
+        MenuAvailability availability = new MenuAvailability(List.of(omelette), provider);
+
+        // Movements written behind the engine's back (bulk ingestion) are picked up by the next refresh
+        recorded.add(movement(egg, 76.0, StockMovementType.OUT));
+        assertEquals(40.0, availability.getAvailableQuantity(2L));
+        assertEquals(Map.of(omelette, 2.0), availability.refresh());
+        assertTrue(availability.refresh().isEmpty());
+    }
+
+    @Test
+    public void testStockIsReadOutsideTheLock() throws Exception {
+        CountDownLatch reading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean slow = new AtomicBoolean();
+        AtomicInteger reads = new AtomicInteger();
+        List<StockMovement> recorded = new CopyOnWriteArrayList<>();
+        StockLevelProvider provider = ingredients -> {
+            reads.incrementAndGet();
+            Map<Ingredient, Double> levels = StockLevelProvider.IN_MEMORY.getAvailableQuantities(ingredients);
+            for (StockMovement movement : recorded) {
+                levels.merge(movement.getIngredient(), -movement.getQuantity(), Double::sum);
+            }
+            if (slow.getAndSet(false)) {
+                reading.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return levels;
+        };
+        MenuAvailability availability = new MenuAvailability(List.of(omelette), provider);
+        slow.set(true);
+        reads.set(0);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Map<Dish, Double>> refresh = executor.submit(availability::refresh);
+            assertTrue(reading.await(5, TimeUnit.SECONDS));
+            // The POS reads and movements go on while the provider is still reading; the sale is recorded after the read
+            Map<Dish, Double> changed = assertTimeoutPreemptively(Duration.ofSeconds(1), () -> {
+                assertEquals(40.0, availability.getAvailableQuantity(2L));
+                StockMovement sale = movement(egg, 80.0, StockMovementType.OUT);
+                recorded.add(sale);
+                return availability.apply(sale);
+            });
+            assertEquals(Map.of(omelette, 0.0), changed);
+
+            release.countDown();
+            assertTrue(refresh.get(5, TimeUnit.SECONDS).isEmpty(), "The sale applied during the read should be kept");
+            assertEquals(0.0, availability.getAvailableQuantity(2L));
+            assertEquals(2, reads.get(), "A read overlapped by a movement should be done again");
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    private static Ingredient ingredient(Long id, double stock) {
+        List<StockMovement> stockMovements = new ArrayList<>();
+        stockMovements.add(new StockMovement(id, null, stock, Unit.G, StockMovementType.IN, T0));
+        return new Ingredient(id, "Ingredient-" + id, new ArrayList<>(), stockMovements);
+    }
+
+    private static Dish dish(Long id, DishIngredient... dishIngredients) {
+        return new Dish(id, "Dish-" + id, List.of(dishIngredients), 10000.0);
+    }
+
+    private static StockMovement movement(Ingredient ingredient, double quantity, StockMovementType type) {
+        return new StockMovement(null, ingredient, quantity, Unit.G, type, T0.plusSeconds(60));
+    }
+}
@@ -0,0 +1,122 @@
+package edu.restaurant.app.dao.operations;
+
+import edu.restaurant.app.dao.entity.*;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MenuCatalogTest {
+
+    @Test
+    public void testDishesAreServedFromTheLoadedSnapshot() {
+        AtomicReference<List<Dish>> menu = new AtomicReference<>(List.of(dish(1L, 5000.0, 200.0), dish(2L, 8000.0, 300.0)));
+        MenuCatalog catalog = new MenuCatalog(menu::get);
+
+        assertTrue(catalog.findById(1L).isEmpty(), "Nothing should be served before the first load");
+        assertNull(catalog.getLoadedAt());
+
+        catalog.reload();
+        Dish before = catalog.findById(1L).orElseThrow();
+        assertEquals(2, catalog.size());
+        assertEquals(4800.0, before.getGrossMargin());
+        assertNotNull(catalog.getLoadedAt());
+
+        menu.set(List.of(dish(1L, 6000.0, 200.0)));
+        catalog.reload();
+
+        assertEquals(6000.0, catalog.findById(1L).orElseThrow().getPrice());
+        assertTrue(catalog.findById(2L).isEmpty(), "A dish removed from the menu should disappear on reload");
+        assertEquals(5000.0, before.getPrice(), "A dish read before the reload should keep its values");
+    }
+
+    @Test
+    public void testCatalogDishesAreReadOnly() {
+        MenuCatalog catalog = new MenuCatalog(() -> List.of(dish(1L, 5000.0, 200.0)));
+        catalog.reload();
+        Dish dish = catalog.findById(1L).orElseThrow();
+
+        assertThrows(UnsupportedOperationException.class, () -> dish.getDishIngredients().add(null));
+        Ingredient ingredient = dish.getDishIngredients().get(0).getIngredient();
+        assertThrows(UnsupportedOperationException.class,
+                () -> ingredient.addPrices(new ArrayList<>(List.of(new Price(1.0)))));
+        assertThrows(UnsupportedOperationException.class, () -> dish.setPrice(1.0));
+        assertThrows(UnsupportedOperationException.class, () -> dish.setName("Autre"));
+        assertThrows(UnsupportedOperationException.class, () -> dish.getDishIngredients().get(0).setRequiredQuantity(5.0));
+        assertThrows(UnsupportedOperationException.class, () -> ingredient.setName("Autre"));
+        assertThrows(UnsupportedOperationException.class, () -> ingredient.getPrices().get(0).setAmount(1.0));
+        assertEquals(4800.0, catalog.findById(1L).orElseThrow().getGrossMargin());
+    }
+
+    @Test
+    public void testCatalogStockIsReadThroughAProvider() {
+        Dish loaded = dish(1L, 5000.0, 200.0);
+        Ingredient loadedIngredient = loaded.getDishIngredients().get(0).getIngredient();
+        loadedIngredient.addStockMovements(new ArrayList<>(List.of(
+                new StockMovement(1L, null, 10.0, Unit.G, StockMovementType.IN, Instant.parse("2025-01-01T00:00:00Z")))));
+        MenuCatalog catalog = new MenuCatalog(() -> List.of(loaded, dish(2L, 8000.0, 300.0)));
+        catalog.reload();
+        Dish dish = catalog.findById(1L).orElseThrow();
+
+        // Movements are not part of the catalog: asking the entity fails instead of reporting an empty stock
+        assertThrows(IllegalStateException.class, dish::getAvailableQuantity);
+        Order order = new Order("CATALOG-ORDER");
+        order.addDishOrder(new DishOrder(null, dish, 2));
+        assertThrows(IllegalStateException.class, order::confirm);
+
+        StockLevelProvider database = ingredients -> {
+            Map<Ingredient, Double> levels = new HashMap<>();
+            ingredients.forEach(ingredient -> levels.put(ingredient, 10.0));
+            return levels;
+        };
+        order.confirm(database);
+        assertEquals(OrderStatus.CONFIRMED, order.getActualStatus());
+    }
+
+    @Test
+    public void testReadersAreNotBlockedByReload() throws Exception {
+        CountDownLatch reloadStarted = new CountDownLatch(1);
+        CountDownLatch finishReload = new CountDownLatch(1);
+        AtomicReference<Boolean> slow = new AtomicReference<>(false);
+        MenuCatalog catalog = new MenuCatalog(() -> {
+            if (slow.get()) {
+                reloadStarted.countDown();
+                try {
+                    finishReload.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return List.of(dish(1L, 9000.0, 200.0));
+            }
+            return List.of(dish(1L, 5000.0, 200.0));
+        });
+        catalog.reload();
+
+        slow.set(true);
+        CompletableFuture<Void> reload = CompletableFuture.runAsync(catalog::reload);
+        assertTrue(reloadStarted.await(5, TimeUnit.SECONDS));
+        assertEquals(5000.0, catalog.findById(1L).orElseThrow().getPrice(), "Readers should see the previous snapshot during a reload");
+
+        finishReload.countDown();
+        reload.get(5, TimeUnit.SECONDS);
+        assertEquals(9000.0, catalog.findById(1L).orElseThrow().getPrice());
+    }
+
+    private static Dish dish(Long id, double price, double ingredientPrice) {
+        List<Price> prices = new ArrayList<>(List.of(new Price(1L, null, ingredientPrice, LocalDate.of(2025, 1, 1))));
+        Ingredient ingredient = new Ingredient(id * 10, "Ingredient-" + id, prices, new ArrayList<>());
+        List<DishIngredient> dishIngredients = new ArrayList<>(List.of(new DishIngredient(null, ingredient, 1.0, Unit.G)));
+        return new Dish(id, "Dish-" + id, dishIngredients, price);
+    }
+}
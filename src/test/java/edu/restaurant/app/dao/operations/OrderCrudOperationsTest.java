@@ -6,9 +6,13 @@ import edu.restaurant.app.dao.entity.Order;
 
 import org.junit.jupiter.api.*;
 
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.Optional;
 import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 import static org.junit.jupiter.api.Assertions.*;
 
 @TestMethodOrder(MethodOrderer.OrderAnnotation.class)
@@ -181,6 +185,28 @@ public class OrderCrudOperationsTest {
                 "All dish orders in order 2 should have CREATED status");
     }
     
+    @Test
+    @org.junit.jupiter.api.Order(8)
+    public void testGetPageAfter() {
+        // Parcourir toutes les commandes page par page avec le curseur
+        List<Long> seenIds = new ArrayList<>();
+        Page<Order> page = orderCrudOperations.getPageAfter(null, 2);
+        while (true) {
+            assertTrue(page.getItems().size() <= 2, "A page should not exceed its size");
+            for (Order order : page.getItems()) {
+                assertFalse(seenIds.contains(order.getId()), "An order should appear on a single page");
+                seenIds.add(order.getId());
+            }
+            if (!page.hasNext()) {
+                break;
+            }
+            page = orderCrudOperations.getPageAfter(page.getNextCursor(), 2);
+        }
+        
+        assertTrue(seenIds.contains(testOrderId), "Test order should be reached through the cursor");
+        assertEquals(orderCrudOperations.findAll().size(), seenIds.size(), "Keyset pages should cover all orders");
+    }
+    
     @Test
     @org.junit.jupiter.api.Order(9) 
     public void testDeleteOrder() {
@@ -189,4 +215,164 @@ public class OrderCrudOperationsTest {
         Optional<Order> deletedOrder = orderCrudOperations.findOptionalById(testOrderId);
         assertFalse(deletedOrder.isPresent(), "Order should be deleted");
     }
-} 
\ No newline at end of file
+    
+    @Test
+    @org.junit.jupiter.api.Order(10)
+    public void testSaveRoundTripsDoNotGrowWithOrderSize() {
+        Dish dish = dishCrudOperations.findById(1L);
+        long previousQueries = -1;
+        for (int lines : new int[]{1, 40}) {
+            Order order = new Order("BATCH-SAVE-" + lines + "-" + System.nanoTime());
+            for (int i = 0; i < lines; i++) {
+                order.addDishOrder(new DishOrder(null, dish, i + 1));
+            }
+            
+            long before = dataSource.getPoolStatistics().getExecutedStatementCount();
+            Order savedOrder = orderCrudOperations.save(order);
+            long queries = dataSource.getPoolStatistics().getExecutedStatementCount() - before;
+            testBatchOrderIds.add(savedOrder.getId());
+            
+            if (previousQueries >= 0) {
+                assertEquals(previousQueries, queries, "Save round trips should not depend on order size");
+            }
+            previousQueries = queries;
+            
+            // Les ids générés sont reportés : une seconde sauvegarde ne réinsère rien
+            assertEquals(1, savedOrder.getStatusHistory().size(), "A new order should have a single CREATED status");
+            assertTrue(savedOrder.getStatusHistory().stream().allMatch(s -> s.getId() != null));
+            assertTrue(savedOrder.getDishOrders().stream()
+                    .allMatch(d -> d.getId() != null && d.getStatusHistory().stream().allMatch(s -> s.getId() != null)));
+            orderCrudOperations.save(savedOrder);
+            assertEquals(1, orderCrudOperations.findById(savedOrder.getId()).getStatusHistory().size());
+            assertEquals(lines, orderCrudOperations.findById(savedOrder.getId()).getDishOrders().size());
+        }
+    }
+    
+    @Test
+    @org.junit.jupiter.api.Order(11)
+    public void testBulkSaveIsolatesFailingChunks() {
+        Dish dish = dishCrudOperations.findById(1L);
+        Dish missingDish = new Dish(Long.MAX_VALUE, "Missing dish", new ArrayList<>(), 1000.0);
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Order order = new Order("BULK-ORDER-" + i + "-" + System.nanoTime());
+            // La 5e commande (2e lot) référence un plat inexistant
+            order.addDishOrder(new DishOrder(null, i == 4 ? missingDish : dish, 1));
+            order.addDishOrder(new DishOrder(null, dish, 2));
+            orders.add(order);
+        }
+        
+        BulkSaveResult<Order> result = orderCrudOperations.saveAll(orders, 3);
+        result.getSaved().forEach(order -> testBatchOrderIds.add(order.getId()));
+        
+        assertEquals(1, result.getFailures().size(), "Only the chunk with the missing dish should fail");
+        assertEquals(3, result.getFailures().get(0).getFirstIndex());
+        assertEquals(7, result.getSaved().size());
+        for (Order failed : result.getFailures().get(0).getEntities()) {
+            assertNull(failed.getId(), "Ids of a rolled back chunk should be cleared");
+            assertTrue(failed.getDishOrders().stream().allMatch(d -> d.getId() == null));
+        }
+        for (Order saved : result.getSaved()) {
+            Order reloaded = orderCrudOperations.findById(saved.getId());
+            assertEquals(2, reloaded.getDishOrders().size());
+            assertEquals(OrderStatus.CREATED, reloaded.getActualStatus());
+        }
+    }
+
+    @Test
+    @org.junit.jupiter.api.Order(12)
+    public void testSaveAllStopsAtTheFirstFailedChunk() {
+        Dish dish = dishCrudOperations.findById(1L);
+        Dish missingDish = new Dish(Long.MAX_VALUE, "Missing dish", new ArrayList<>(), 1000.0);
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < OrderOperations.DEFAULT_CHUNK_SIZE + 2; i++) {
+            Order order = new Order("STOP-ORDER-" + i + "-" + System.nanoTime());
+            // La première commande du 2e lot référence un plat inexistant
+            order.addDishOrder(new DishOrder(null, i == OrderOperations.DEFAULT_CHUNK_SIZE ? missingDish : dish, 1));
+            orders.add(order);
+        }
+
+        assertThrows(RuntimeException.class, () -> orderCrudOperations.saveAll(orders));
+        orders.stream().filter(order -> order.getId() != null).forEach(order -> testBatchOrderIds.add(order.getId()));
+
+        for (int i = 0; i < orders.size(); i++) {
+            Order order = orders.get(i);
+            if (i < OrderOperations.DEFAULT_CHUNK_SIZE) {
+                assertNotNull(order.getId(), "Orders of the first chunk should be committed");
+            } else {
+                assertNull(order.getId(), "Orders from the failed chunk on should not be saved");
+                assertTrue(orderCrudOperations.findByReference(order.getReference()).isEmpty());
+            }
+        }
+    }
+
+    @Test
+    @org.junit.jupiter.api.Order(13)
+    public void testAsyncCallsCompose() throws Exception {
+        Order order = new Order("ASYNC-ORDER-" + System.nanoTime());
+
+        // Creation, dish lookup and confirmation chained without blocking the caller
+        Order confirmed = dishCrudOperations.findByIdAsync(1L)
+                .thenCompose(dish -> {
+                    order.addDishOrder(new DishOrder(null, dish, 1));
+                    return orderCrudOperations.saveAsync(order);
+                })
+                .thenCompose(saved -> orderCrudOperations.updateOrderStatusAsync(saved.getId(), OrderStatus.CONFIRMED)
+                        .thenCompose(ignored -> orderCrudOperations.findByIdAsync(saved.getId())))
+                .get(10, TimeUnit.SECONDS);
+        testBatchOrderIds.add(confirmed.getId());
+
+        assertEquals(OrderStatus.CONFIRMED, confirmed.getActualStatus());
+        assertEquals(1, dishOrderCrudOperations.findByOrderIdAsync(confirmed.getId()).get(10, TimeUnit.SECONDS).size());
+        ExecutionException missing = assertThrows(ExecutionException.class,
+                () -> orderCrudOperations.findByIdAsync(-1L).get(10, TimeUnit.SECONDS));
+        assertTrue(missing.getCause().getMessage().contains("not found"));
+    }
+
+    @Test
+    @org.junit.jupiter.api.Order(14)
+    public void testRollbackResetClearsTheCreatedStatusAddedDuringTheSave() {
+        Order order = new Order("RESET-ORDER-" + System.nanoTime());
+        DishOrder dishOrder = new DishOrder(null, new Dish(1L, "Plat", new ArrayList<>(), 1000.0), 1);
+        order.addDishOrder(dishOrder);
+        // Replayed order without history: the save adds its CREATED status
+        order.setStatusHistory(new ArrayList<>());
+        OrderDishStatusEntry savedDishStatus = new OrderDishStatusEntry(7L, null, OrderDishStatus.CONFIRMED, order.getCreationDatetime());
+        dishOrder.getStatusHistory().add(savedDishStatus);
+        Runnable reset = OrderCrudOperations.generatedIdsReset(List.of(order));
+
+        // What the chunk does before its commit fails: ids assigned, CREATED status added, statuses inserted
+        order.setId(41L);
+        dishOrder.setId(42L);
+        dishOrder.getStatusHistory().get(0).setId(43L);
+        OrderStatusEntry created = new OrderStatusEntry(44L, 41L, OrderStatus.CREATED, order.getCreationDatetime());
+        order.getStatusHistory().add(created);
+        reset.run();
+
+        assertNull(order.getId());
+        assertNull(dishOrder.getId());
+        assertNull(dishOrder.getStatusHistory().get(0).getId());
+        assertNull(created.getId(), "The CREATED status should be inserted again on retry");
+        assertEquals(7L, savedDishStatus.getId(), "A status saved before the chunk keeps its id");
+    }
+
+    @Test
+    @org.junit.jupiter.api.Order(15)
+    public void testStatusesOlderThanTheOrderAreRead() {
+        // Offline order replayed with its creation date set on arrival: its statuses predate it by months
+        Order order = new Order("REPLAYED-ORDER-" + System.nanoTime());
+        Instant takenAt = order.getCreationDatetime().minus(90, ChronoUnit.DAYS);
+        order.getStatusHistory().get(0).setStatusDatetime(takenAt);
+        DishOrder dishOrder = new DishOrder(null, dishCrudOperations.findById(1L), 1);
+        dishOrder.getStatusHistory().get(0).setStatusDatetime(takenAt);
+        order.addDishOrder(dishOrder);
+        Order saved = orderCrudOperations.save(order);
+        testBatchOrderIds.add(saved.getId());
+
+        for (Order found : List.of(orderCrudOperations.findById(saved.getId()), orderCrudOperations.findGraphById(saved.getId()).orElseThrow())) {
+            assertEquals(1, found.getStatusHistory().size(), "The CREATED status should be read");
+            assertEquals(1, found.getDishOrders().get(0).getStatusHistory().size(), "The dish CREATED status should be read");
+        }
+        assertEquals(1, dishOrderCrudOperations.findById(saved.getDishOrders().get(0).getId()).orElseThrow().getStatusHistory().size());
+    }
+}
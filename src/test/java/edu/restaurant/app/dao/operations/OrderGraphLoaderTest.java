@@ -0,0 +1,199 @@
+package edu.restaurant.app.dao.operations;
+
+import edu.restaurant.app.dao.DataSource;
+import edu.restaurant.app.dao.entity.*;
+import edu.restaurant.app.dao.entity.Order;
+
+import org.junit.jupiter.api.*;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OrderGraphLoaderTest {
+    private static DataSource dataSource;
+    private static OrderCrudOperations orderCrudOperations;
+    private static DishCrudOperations dishCrudOperations;
+    private static final List<Long> createdOrderIds = new ArrayList<>();
+
+    @BeforeAll
+    public static void setUp() {
+        dataSource = new DataSource();
+        dishCrudOperations = new DishCrudOperations();
+        DishOrderCrudOperations dishOrderCrudOperations = new DishOrderCrudOperations(dataSource, dishCrudOperations);
+        orderCrudOperations = new OrderCrudOperations(dataSource, dishOrderCrudOperations);
+    }
+
+    @AfterAll
+    public static void tearDown() {
+        for (Long id : createdOrderIds) {
+            orderCrudOperations.delete(id);
+        }
+    }
+
+    @Test
+    public void testGraphFetchMatchesCascadeFetch() {
+        Long orderId = createOrderWithLines(3);
+
+        Order cascade = orderCrudOperations.findById(orderId);
+        Order graph = orderCrudOperations.findGraphById(orderId).orElseThrow();
+
+        assertEquals(cascade.getReference(), graph.getReference());
+        assertEquals(cascade.getStatusHistory().size(), graph.getStatusHistory().size());
+        assertEquals(cascade.getDishOrders().size(), graph.getDishOrders().size());
+        assertEquals(cascade.getTotalAmount(), graph.getTotalAmount());
+        for (int i = 0; i < cascade.getDishOrders().size(); i++) {
+            DishOrder expected = cascade.getDishOrders().get(i);
+            DishOrder actual = graph.getDishOrders().get(i);
+            assertEquals(expected.getActualStatus(), actual.getActualStatus());
+            assertEquals(expected.getDish().getTotalIngredientsCost(), actual.getDish().getTotalIngredientsCost());
+            assertEquals(expected.getDish().getAvailableQuantity(), actual.getDish().getAvailableQuantity());
+        }
+    }
+
+    @Test
+    public void testQueryCountDoesNotGrowWithOrderSize() {
+        long previousGraphQueries = -1;
+        for (int lines : new int[]{1, 10, 40}) {
+            Long orderId = createOrderWithLines(lines);
+
+            long cascadeQueries = countQueries(() -> orderCrudOperations.findById(orderId));
+            long graphQueries = countQueries(() -> orderCrudOperations.findGraphById(orderId));
+            System.out.println(lines + " lines: cascade=" + cascadeQueries + " queries, graph=" + graphQueries + " queries");
+
+            if (previousGraphQueries >= 0) {
+                assertEquals(previousGraphQueries, graphQueries, "Graph fetch query count should not depend on order size");
+            }
+            previousGraphQueries = graphQueries;
+        }
+        assertTrue(previousGraphQueries <= 8);
+    }
+
+    @Test
+    public void testPageQueryCountDoesNotGrowWithPageSize() {
+        for (int i = 0; i < 20; i++) {
+            createOrderWithLines(2);
+        }
+
+        long smallPageQueries = countQueries(() -> orderCrudOperations.getAll(0, 5));
+        long start = System.nanoTime();
+        long largePageQueries = countQueries(() -> orderCrudOperations.getAll(0, 20));
+        System.out.println("Page of 20 orders: " + largePageQueries + " queries in "
+                + (System.nanoTime() - start) / 1_000_000 + " ms");
+
+        assertEquals(smallPageQueries, largePageQueries, "Page query count should not depend on page size");
+        assertTrue(orderCrudOperations.getAll(0, 20).stream()
+                .filter(order -> createdOrderIds.contains(order.getId()))
+                .allMatch(order -> order.getDishOrders().size() == 2 && !order.getStatusHistory().isEmpty()));
+    }
+
+    @Test
+    public void testUnknownOrderIsEmpty() {
+        assertTrue(orderCrudOperations.findGraphById(-1L).isEmpty());
+    }
+
+    @Test
+    public void testCascadeFetchLoadsSharedDishesAndIngredientsOnce() {
+        Long smallOrderId = createOrderWithLines(1);
+        Long largeOrderId = createOrderWithLines(20);
+
+        long smallQueries = countQueries(() -> orderCrudOperations.findById(smallOrderId));
+        long largeQueries = countQueries(() -> orderCrudOperations.findById(largeOrderId));
+        System.out.println("Cascade fetch of 20 lines of one dish: " + largeQueries + " queries (1 line: " + smallQueries + ")");
+
+        // Only the status history of each extra line is read, the dish and its ingredients come from the identity map
+        assertEquals(smallQueries + 19, largeQueries);
+        Order order = orderCrudOperations.findById(largeOrderId);
+        Dish first = order.getDishOrders().get(0).getDish();
+        assertTrue(order.getDishOrders().stream().allMatch(dishOrder -> dishOrder.getDish() == first));
+    }
+
+    @Test
+    public void testParallelCascadeFetchMatchesSequentialFetch() {
+        Long orderId = createOrderWithLines(10);
+        ParallelHydrator hydrator = ParallelHydrator.forPool(dataSource);
+        DishOrderCrudOperations parallelDishOrders = new DishOrderCrudOperations(dataSource,
+                new DishCrudOperations(null, hydrator), hydrator);
+        OrderCrudOperations parallelOrders = new OrderCrudOperations(dataSource, parallelDishOrders);
+
+        Order sequential = orderCrudOperations.findById(orderId);
+        Order parallel = parallelOrders.findById(orderId);
+
+        assertEquals(sequential.getDishOrders().size(), parallel.getDishOrders().size());
+        assertEquals(sequential.getTotalAmount(), parallel.getTotalAmount());
+        for (int i = 0; i < sequential.getDishOrders().size(); i++) {
+            DishOrder expected = sequential.getDishOrders().get(i);
+            DishOrder actual = parallel.getDishOrders().get(i);
+            assertEquals(expected.getId(), actual.getId());
+            assertEquals(expected.getStatusHistory().size(), actual.getStatusHistory().size());
+            assertEquals(expected.getDish().getTotalIngredientsCost(), actual.getDish().getTotalIngredientsCost());
+            assertEquals(expected.getDish().getAvailableQuantity(), actual.getDish().getAvailableQuantity());
+        }
+        Dish first = parallel.getDishOrders().get(0).getDish();
+        assertTrue(parallel.getDishOrders().stream().allMatch(dishOrder -> dishOrder.getDish() == first),
+                "Workers should share the dish through the identity map");
+    }
+
+    @Test
+    public void testParallelSubLoadsOverlapOnTheDriver() throws SQLException {
+        ParallelHydrator hydrator = ParallelHydrator.forPool(dataSource);
+        int subLoads = hydrator.getMaxConcurrency();
+        // Sub-loads of unequal length; the fetch should last about as long as the slowest one
+        List<ParallelHydrator.Task<Long>> tasks = new ArrayList<>();
+        long slowestMillis = 0;
+        for (int i = 0; i < subLoads; i++) {
+            long millis = 100 + 50L * i;
+            slowestMillis = Math.max(slowestMillis, millis);
+            tasks.add(() -> {
+                try (Connection connection = dataSource.getConnection();
+                     PreparedStatement statement = connection.prepareStatement("select pg_sleep(?)")) {
+                    statement.setDouble(1, millis / 1000.0);
+                    statement.execute();
+                    return millis;
+                }
+            });
+        }
+
+        long start = System.nanoTime();
+        hydrator.invokeAll(tasks);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        Long orderId = createOrderWithLines(50);
+        DishOrderCrudOperations parallelDishOrders = new DishOrderCrudOperations(dataSource,
+                new DishCrudOperations(null, hydrator), hydrator);
+        OrderCrudOperations parallelOrders = new OrderCrudOperations(dataSource, parallelDishOrders);
+        long sequentialStart = System.nanoTime();
+        orderCrudOperations.findById(orderId);
+        long sequentialMillis = (System.nanoTime() - sequentialStart) / 1_000_000;
+        long parallelStart = System.nanoTime();
+        parallelOrders.findById(orderId);
+        long parallelMillis = (System.nanoTime() - parallelStart) / 1_000_000;
+
+        System.out.println(subLoads + " queries of up to " + slowestMillis + " ms: " + elapsedMillis + " ms on "
+                + Runtime.getRuntime().availableProcessors() + " processors; order of 50 lines: sequential="
+                + sequentialMillis + " ms, parallel=" + parallelMillis + " ms");
+        assertTrue(elapsedMillis < slowestMillis + 100,
+                "Queries should run side by side, not one carrier thread at a time: " + elapsedMillis + " ms");
+    }
+
+    private long countQueries(Runnable action) {
+        long before = dataSource.getPoolStatistics().getExecutedStatementCount();
+        action.run();
+        return dataSource.getPoolStatistics().getExecutedStatementCount() - before;
+    }
+
+    private Long createOrderWithLines(int lines) {
+        Order order = new Order("GRAPH-ORDER-" + lines + "-" + System.nanoTime());
+        Dish dish = dishCrudOperations.findById(1L);
+        for (int i = 0; i < lines; i++) {
+            order.addDishOrder(new DishOrder(null, dish, i + 1));
+        }
+        Long id = orderCrudOperations.save(order).getId();
+        createdOrderIds.add(id);
+        return id;
+    }
+}
@@ -0,0 +1,88 @@
+package edu.restaurant.app.dao.operations;
+
+import edu.restaurant.app.dao.DataSource;
+import edu.restaurant.app.dao.entity.Order;
+
+import org.junit.jupiter.api.*;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OrderStreamTest {
+    private static final String REFERENCE_PREFIX = "STREAM-TEST-";
+    private static final int SYNTHETIC_ORDERS = 20_000;
+
+    private static DataSource dataSource;
+    private static OrderCrudOperations orderCrudOperations;
+
+    @BeforeAll
+    public static void setUp() throws SQLException {
+        dataSource = new DataSource();
+        DishOrderCrudOperations dishOrderCrudOperations = new DishOrderCrudOperations(dataSource, new DishCrudOperations());
+        orderCrudOperations = new OrderCrudOperations(dataSource, dishOrderCrudOperations);
+
+        // Synthetic history: one dish line and one status per order
+        try (Connection connection = dataSource.getConnection()) {
+            execute(connection, "INSERT INTO \"order\" (reference, creation_datetime)"
+                    + " SELECT '" + REFERENCE_PREFIX + "' || g, now() - g * interval '1 minute'"
+                    + " FROM generate_series(1, " + SYNTHETIC_ORDERS + ") g");
+            execute(connection, "INSERT INTO order_dish (order_id, dish_id, quantity)"
+                    + " SELECT id, 1, 1 FROM \"order\" WHERE reference LIKE '" + REFERENCE_PREFIX + "%'");
+            execute(connection, "INSERT INTO order_status (order_id, status, status_datetime)"
+                    + " SELECT id, 'CREATED', creation_datetime FROM \"order\" WHERE reference LIKE '" + REFERENCE_PREFIX + "%'");
+        }
+    }
+
+    @AfterAll
+    public static void tearDown() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            execute(connection, "DELETE FROM \"order\" WHERE reference LIKE '" + REFERENCE_PREFIX + "%'");
+        }
+    }
+
+    @Test
+    public void testHeapStaysFlatWhileStreaming() {
+        Runtime runtime = Runtime.getRuntime();
+        AtomicLong streamed = new AtomicLong();
+        AtomicLong minUsedHeap = new AtomicLong(Long.MAX_VALUE);
+        AtomicLong maxUsedHeap = new AtomicLong();
+
+        try (Stream<Order> orders = orderCrudOperations.streamAll(500)) {
+            orders.filter(order -> order.getReference().startsWith(REFERENCE_PREFIX))
+                    .forEach(order -> {
+                        assertEquals(1, order.getDishOrders().size(), "Streamed orders should be fully hydrated");
+                        if (streamed.incrementAndGet() % 2_000 == 0) {
+                            System.gc();
+                            long used = runtime.totalMemory() - runtime.freeMemory();
+                            minUsedHeap.accumulateAndGet(used, Math::min);
+                            maxUsedHeap.accumulateAndGet(used, Math::max);
+                        }
+                    });
+        }
+
+        long growth = maxUsedHeap.get() - minUsedHeap.get();
+        System.out.println("Streamed " + streamed.get() + " orders, heap growth " + growth / 1024 + " KiB");
+        assertEquals(SYNTHETIC_ORDERS, streamed.get());
+        assertTrue(growth < 32L * 1024 * 1024, "Heap should stay flat while streaming, grew by " + growth + " bytes");
+    }
+
+    @Test
+    public void testClosingStreamEarlyReleasesConnection() {
+        int activeBefore = dataSource.getPoolStatistics().getActiveConnections();
+        try (Stream<Order> orders = orderCrudOperations.streamAll(50)) {
+            assertTrue(orders.findFirst().isPresent());
+        }
+        assertEquals(activeBefore, dataSource.getPoolStatistics().getActiveConnections());
+    }
+
+    private static void execute(Connection connection, String sql) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.executeUpdate();
+        }
+    }
+}
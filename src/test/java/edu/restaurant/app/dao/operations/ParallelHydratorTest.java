@@ -0,0 +1,186 @@
+package edu.restaurant.app.dao.operations;
+
+import edu.restaurant.app.dao.entity.Ingredient;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParallelHydratorTest {
+
+    @Test
+    public void testConcurrencyIsCappedAndResultsKeepTheirOrder() throws SQLException {
+        ParallelHydrator hydrator = new ParallelHydrator(3);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        List<ParallelHydrator.Task<Integer>> tasks = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            int value = i;
+            tasks.add(() -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    running.decrementAndGet();
+                }
+                return value;
+            });
+        }
+
+        List<Integer> results = hydrator.invokeAll(tasks);
+
+        assertEquals(20, results.size());
+        for (int i = 0; i < 20; i++) {
+            assertEquals(i, results.get(i));
+        }
+        assertTrue(maxRunning.get() <= 3, "At most 3 sub-loads should run at once, got " + maxRunning.get());
+    }
+
+    @Test
+    public void testFirstFailureIsPropagated() {
+        ParallelHydrator hydrator = new ParallelHydrator(2);
+        List<ParallelHydrator.Task<?>> tasks = List.of(
+                () -> "ok",
+                () -> {
+                    throw new SQLException("boom");
+                });
+
+        SQLException failure = assertThrows(SQLException.class, () -> hydrator.runAll(tasks));
+        assertEquals("boom", failure.getMessage());
+    }
+
+    @Test
+    public void testNestedLoadsDoNotDeadlockWithASinglePermit() throws SQLException {
+        ParallelHydrator hydrator = new ParallelHydrator(1);
+        List<ParallelHydrator.Task<Integer>> parents = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            parents.add(() -> hydrator.invokeAll(List.<ParallelHydrator.Task<Integer>>of(() -> 1, () -> 2))
+                    .stream().mapToInt(Integer::intValue).sum());
+        }
+
+        assertEquals(List.of(3, 3, 3), hydrator.invokeAll(parents));
+    }
+
+    @Test
+    public void testWaitingForAnotherWorkerLoadDoesNotHoldAPermit() {
+        ParallelHydrator hydrator = new ParallelHydrator(2);
+        AtomicInteger loads = new AtomicInteger();
+
+        // More workers asking for the same id than permits; the loader fans out once the others are waiting
+        List<ParallelHydrator.Task<Ingredient>> tasks = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            tasks.add(() -> IdentityMap.load(Ingredient.class, 1L, () -> {
+                loads.incrementAndGet();
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                hydrator.runAll(List.<ParallelHydrator.Task<?>>of(() -> "prices", () -> "movements"));
+                return new Ingredient(1L, "Sel", new ArrayList<>(), new ArrayList<>());
+            }));
+        }
+
+        List<Ingredient> ingredients = assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            IdentityMap.Scope scope = IdentityMap.open();
+            try {
+                return hydrator.invokeAll(tasks);
+            } finally {
+                scope.close();
+            }
+        });
+
+        assertEquals(1, loads.get());
+        assertEquals(6, ingredients.size());
+        ingredients.forEach(ingredient -> assertSame(ingredients.get(0), ingredient));
+    }
+
+    @Test
+    public void testWorkersShareTheCallerIdentityMap() throws Exception {
+        ParallelHydrator hydrator = new ParallelHydrator(4);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch bothStarted = new CountDownLatch(2);
+
+        List<ParallelHydrator.Task<Ingredient>> tasks = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            tasks.add(() -> {
+                // Both workers ask for the ingredient at the same time
+                bothStarted.countDown();
+                try {
+                    bothStarted.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return IdentityMap.load(Ingredient.class, 1L, () -> {
+                    loads.incrementAndGet();
+                    return new Ingredient(1L, "Sel", new ArrayList<>(), new ArrayList<>());
+                });
+            });
+        }
+
+        List<Ingredient> ingredients;
+        IdentityMap.Scope scope = IdentityMap.open();
+        try {
+            ingredients = hydrator.invokeAll(tasks);
+        } finally {
+            scope.close();
+        }
+
+        assertEquals(1, loads.get(), "The ingredient should be loaded once for both workers");
+        assertSame(ingredients.get(0), ingredients.get(1));
+    }
+
+    @Test
+    public void testBlockingSubLoadsOverlap() throws SQLException {
+        int subLoads = 8;
+        long roundTripMillis = 200;
+        ParallelHydrator hydrator = new ParallelHydrator(subLoads);
+
+        // Each sub-load blocks on its own connection, guarded by a lock as the driver does
+        List<ParallelHydrator.Task<Long>> tasks = new ArrayList<>();
+        for (int i = 0; i < subLoads; i++) {
+            ReentrantLock connectionLock = new ReentrantLock();
+            tasks.add(() -> {
+                connectionLock.lock();
+                try {
+                    Thread.sleep(roundTripMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    connectionLock.unlock();
+                }
+                return roundTripMillis;
+            });
+        }
+
+        long start = System.nanoTime();
+        hydrator.invokeAll(tasks);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        System.out.println(subLoads + " sub-loads of " + roundTripMillis + " ms: " + elapsedMillis + " ms on "
+                + Runtime.getRuntime().availableProcessors() + " processors");
+        assertTrue(elapsedMillis < 2 * roundTripMillis,
+                "The fetch should take about as long as its slowest sub-load, took " + elapsedMillis + " ms");
+    }
+
+    @Test
+    public void testSequentialHydratorRunsOnTheCallingThread() throws SQLException {
+        Thread caller = Thread.currentThread();
+        List<Thread> threads = ParallelHydrator.SEQUENTIAL.invokeAll(
+                List.<ParallelHydrator.Task<Thread>>of(Thread::currentThread, Thread::currentThread));
+
+        assertEquals(List.of(caller, caller), threads);
+    }
+}
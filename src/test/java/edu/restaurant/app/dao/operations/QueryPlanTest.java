@@ -0,0 +1,153 @@
+package edu.restaurant.app.dao.operations;
+
+import edu.restaurant.app.dao.DataSource;
+import edu.restaurant.app.dao.migration.MigrationRunner;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.sql.*;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Plans des requêtes des DAO : aucune ne doit parcourir séquentiellement une table qui grossit avec
+ * les commandes ou l'historique de stock. Les parcours séquentiels sont désactivés pour la session
+ * ({@code enable_seqscan = off}) : le planificateur ne s'y résout que si aucun index ne sert la requête,
+ * quelle que soit la taille des données de test.
+ */
+public class QueryPlanTest {
+    private static final Set<String> LARGE_TABLES = Set.of("order", "order_dish", "order_status", "order_dish_status",
+            "dish_ingredient", "price", "stock_movement", "stock_snapshot", "stock_movement_archive");
+    private static final Pattern SEQ_SCAN = Pattern.compile("Seq Scan on \"?(\\w+)\"?");
+    // Monthly and default partitions of the history tables (migration 14)
+    private static final Pattern PARTITION = Pattern.compile("(\\w+?)_(?:p(\\d{4})_(\\d{2})|default)\\b");
+    private static final Long[] IDS = {1L, 2L, 3L};
+
+    private static DataSource dataSource;
+
+    @BeforeAll
+    public static void setUp() {
+        dataSource = new DataSource();
+        new MigrationRunner(dataSource, List.of(MigrationRunner.SCHEMA_LOCATION)).migrate();
+    }
+
+    @Test
+    public void testOrderQueriesUseIndexes() {
+        Timestamp now = Timestamp.from(Instant.now());
+        assertIndexed(OrderCrudOperations.ORDER_BY_ID_SQL, 1L);
+        assertIndexed(OrderCrudOperations.ORDER_BY_REFERENCE_SQL, "ORD-001");
+        assertIndexed(OrderCrudOperations.ORDER_PAGE_SQL, 20, 0);
+        assertIndexed(OrderCrudOperations.FIRST_ORDER_PAGE_SQL, 20);
+        assertIndexed(OrderCrudOperations.NEXT_ORDER_PAGE_SQL, now, 1L, 20);
+        assertIndexed(OrderCrudOperations.ORDER_STATUS_HISTORY_SQL, 1L, now);
+        assertIndexed(OrderGraphLoader.FIRST_STATUS_DATETIME_SQL, (Object) IDS);
+        assertIndexed(OrderGraphLoader.ORDER_STATUS_HISTORIES_SQL, IDS, now);
+    }
+
+    @Test
+    public void testOrderLineQueriesUseIndexes() {
+        assertIndexed(DishOrderCrudOperations.DISH_ORDER_BY_ID_SQL, 1L);
+        assertIndexed(DishOrderCrudOperations.DISH_ORDERS_BY_ORDER_ID_SQL, 1L);
+        assertIndexed(OrderGraphLoader.DISH_ORDERS_SQL, (Object) IDS);
+        Timestamp now = Timestamp.from(Instant.now());
+        assertIndexed(DishOrderCrudOperations.DISH_ORDER_STATUS_HISTORY_SQL, 1L, now);
+        assertIndexed(OrderGraphLoader.DISH_ORDER_STATUS_HISTORIES_SQL, IDS, now);
+    }
+
+    @Test
+    public void testStatusQueriesSkipPartitionsBeforeTheFirstStatus() {
+        Timestamp firstStatus = Timestamp.from(Instant.now());
+        YearMonth oldestReadable = YearMonth.from(firstStatus.toLocalDateTime());
+
+        assertPruned(OrderCrudOperations.ORDER_STATUS_HISTORY_SQL, oldestReadable, 1L, firstStatus);
+        assertPruned(OrderGraphLoader.ORDER_STATUS_HISTORIES_SQL, oldestReadable, IDS, firstStatus);
+        assertPruned(DishOrderCrudOperations.DISH_ORDER_STATUS_HISTORY_SQL, oldestReadable, 1L, firstStatus);
+        assertPruned(OrderGraphLoader.DISH_ORDER_STATUS_HISTORIES_SQL, oldestReadable, IDS, firstStatus);
+    }
+
+    @Test
+    public void testDishAndIngredientQueriesUseIndexes() {
+        assertIndexed(DishGraphLoader.DISHES_SQL, (Object) IDS);
+        assertIndexed(IngredientCrudOperations.INGREDIENTS_BY_DISH_ID_SQL, 1L);
+        assertIndexed(DishGraphLoader.DISH_INGREDIENTS_SQL, (Object) IDS);
+        assertIndexed(PriceCrudOperations.PRICES_BY_INGREDIENT_ID_SQL, 1L);
+        assertIndexed(DishGraphLoader.PRICES_SQL, (Object) IDS);
+    }
+
+    @Test
+    public void testStockQueriesUseIndexes() {
+        assertIndexed(StockMovementCrudOperations.MOVEMENTS_SINCE_SNAPSHOT_SQL, IDS, IDS);
+        assertIndexed(StockMovementCrudOperations.STOCK_LEVEL_SQL, Timestamp.from(Instant.now()), IDS);
+    }
+
+    private static void assertIndexed(String sql, Object... parameters) {
+        List<String> plan = explain(sql, parameters);
+        for (String line : plan) {
+            Matcher matcher = SEQ_SCAN.matcher(line);
+            if (matcher.find() && LARGE_TABLES.contains(parentTable(matcher.group(1)))) {
+                fail("Sequential scan on " + matcher.group(1) + " for:\n" + sql + "\n" + String.join("\n", plan));
+            }
+        }
+    }
+
+    private static void assertPruned(String sql, YearMonth oldestReadable, Object... parameters) {
+        List<String> plan = explain(sql, parameters);
+        for (String line : plan) {
+            Matcher matcher = PARTITION.matcher(line);
+            while (matcher.find()) {
+                // The default partition may hold rows of any date
+                if (matcher.group(2) == null) {
+                    continue;
+                }
+                YearMonth month = YearMonth.of(Integer.parseInt(matcher.group(2)), Integer.parseInt(matcher.group(3)));
+                assertFalse(month.isBefore(oldestReadable),
+                        "Partition " + matcher.group() + " should be pruned for:\n" + sql + "\n" + String.join("\n", plan));
+            }
+        }
+    }
+
+    private static String parentTable(String relation) {
+        Matcher matcher = PARTITION.matcher(relation);
+        return matcher.matches() ? matcher.group(1) : relation;
+    }
+
+    private static List<String> explain(String sql, Object... parameters) {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("set local enable_seqscan = off");
+                }
+                try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+                    for (int i = 0; i < parameters.length; i++) {
+                        if (parameters[i] instanceof Long[] ids) {
+                            statement.setArray(i + 1, connection.createArrayOf("bigint", ids));
+                        } else {
+                            statement.setObject(i + 1, parameters[i]);
+                        }
+                    }
+                    List<String> plan = new ArrayList<>();
+                    try (ResultSet resultSet = statement.executeQuery()) {
+                        while (resultSet.next()) {
+                            plan.add(resultSet.getString(1));
+                        }
+                    }
+                    return plan;
+                }
+            } finally {
+                connection.rollback();
+                connection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error while explaining: " + sql, e);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package edu.restaurant.app.dao.operations;
+
+import edu.restaurant.app.dao.DataSource;
+import edu.restaurant.app.dao.entity.Ingredient;
+import edu.restaurant.app.dao.entity.StockMovement;
+import edu.restaurant.app.dao.entity.StockMovementType;
+import edu.restaurant.app.dao.entity.Unit;
+
+import org.junit.jupiter.api.*;
+
+import java.sql.*;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StockMovementIngestionTest {
+    private static final Instant T0 = Instant.now().minus(10, ChronoUnit.DAYS).truncatedTo(ChronoUnit.SECONDS);
+    private static final int MOVEMENTS = 2_500;
+
+    private static DataSource dataSource;
+    private static StockMovementCrudOperations stockMovementCrudOperations;
+    private static final List<Ingredient> createdIngredients = new ArrayList<>();
+    private static Ingredient ingredient;
+
+    @BeforeAll
+    public static void setUp() throws SQLException {
+        dataSource = new DataSource();
+        stockMovementCrudOperations = new StockMovementCrudOperations();
+        ingredient = createIngredient();
+    }
+
+    @AfterAll
+    public static void tearDown() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            for (Ingredient created : createdIngredients) {
+                for (String table : List.of("stock_movement", "ingredient")) {
+                    String column = table.equals("ingredient") ? "id" : "id_ingredient";
+                    try (PreparedStatement statement = connection.prepareStatement("delete from " + table + " where " + column + " = ?")) {
+                        statement.setLong(1, created.getId());
+                        statement.executeUpdate();
+                    }
+                }
+            }
+        }
+    }
+
+    private static Ingredient createIngredient() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                     "insert into ingredient (name) values ('INGEST-TEST-" + System.nanoTime() + "') returning id");
+             ResultSet resultSet = statement.executeQuery()) {
+            resultSet.next();
+            Ingredient created = new Ingredient();
+            created.setId(resultSet.getLong("id"));
+            createdIngredients.add(created);
+            return created;
+        }
+    }
+
+    @Test
+    public void testIngestionKeepsTimestampsAndSkipsExistingIds() {
+        // 100 g en entrée puis une sortie de 1 g par minute ; une entrée toutes les 10 minutes
+        List<StockMovement> movements = new ArrayList<>();
+        movements.add(new StockMovement(null, ingredient, 100.0, Unit.G, StockMovementType.IN, T0));
+        for (int i = 1; i < MOVEMENTS; i++) {
+            StockMovementType type = i % 10 == 0 ? StockMovementType.IN : StockMovementType.OUT;
+            movements.add(new StockMovement(null, ingredient, 1.0, Unit.G, type, T0.plus(i, ChronoUnit.MINUTES)));
+        }
+
+        assertEquals(MOVEMENTS, stockMovementCrudOperations.ingest(movements.stream(), 1_000));
+
+        double expected = 0;
+        for (int i = 0; i < MOVEMENTS; i++) {
+            StockMovement movement = movements.get(i);
+            expected += StockMovementType.IN.equals(movement.getMovementType()) ? movement.getQuantity() : -movement.getQuantity();
+            if (i % 500 == 0) {
+                assertEquals(expected, stockMovementCrudOperations.getStockLevel(ingredient.getId(), movement.getCreationDatetime()), 1e-9,
+                        "Stock at minute " + i + " should only count movements up to that minute");
+            }
+        }
+        assertEquals(expected, stockMovementCrudOperations.getStockLevel(ingredient.getId()), 1e-9);
+
+        // Les mouvements relus portent leur id : un second passage ne réinsère rien
+        List<StockMovement> stored = stockMovementCrudOperations.findByIdIngredient(ingredient.getId());
+        assertEquals(MOVEMENTS, stored.size());
+        stored.forEach(movement -> movement.setIngredient(ingredient));
+        assertEquals(0, stockMovementCrudOperations.ingest(stored.iterator(), 700));
+        assertTrue(stockMovementCrudOperations.saveAll(stored.subList(0, 10)).isEmpty());
+        assertEquals(expected, stockMovementCrudOperations.getStockLevel(ingredient.getId()), 1e-9);
+    }
+
+    @Test
+    public void testReplayedIdWithAnotherDateIsSkipped() throws SQLException {
+        Ingredient ingredient = createIngredient();
+        Instant first = T0.minus(30, ChronoUnit.DAYS);
+        assertEquals(1, stockMovementCrudOperations.ingest(
+                List.of(new StockMovement(null, ingredient, 7.0, Unit.G, StockMovementType.IN, first)).iterator(), 10));
+        Long id = stockMovementCrudOperations.findByIdIngredient(ingredient.getId()).get(0).getId();
+
+        // Same id, other dates (another month, hence another partition): through COPY, twice in one chunk, and through saveAll
+        StockMovement replayed = new StockMovement(id, ingredient, 7.0, Unit.G, StockMovementType.IN, T0.plus(1, ChronoUnit.DAYS));
+        StockMovement undated = new StockMovement(id, ingredient, 7.0, Unit.G, StockMovementType.IN, null);
+        assertEquals(0, stockMovementCrudOperations.ingest(List.of(replayed, undated).iterator(), 10));
+        assertTrue(stockMovementCrudOperations.saveAll(List.of(undated)).isEmpty());
+
+        assertEquals(7.0, stockMovementCrudOperations.getStockLevel(ingredient.getId()), 1e-9);
+        assertEquals(1, stockMovementCrudOperations.findByIdIngredient(ingredient.getId()).size());
+    }
+}
@@ -0,0 +1,106 @@
+package edu.restaurant.app.dao.operations;
+
+import edu.restaurant.app.dao.DataSource;
+import edu.restaurant.app.dao.entity.StockMovement;
+import edu.restaurant.app.dao.entity.StockMovementType;
+
+import org.junit.jupiter.api.*;
+
+import java.sql.*;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StockSnapshotCompactorTest {
+    private static final Instant T0 = Instant.now().minus(3, ChronoUnit.DAYS).truncatedTo(ChronoUnit.SECONDS);
+
+    private static DataSource dataSource;
+    private static StockMovementCrudOperations stockMovementCrudOperations;
+    private static StockSnapshotCompactor compactor;
+    private static Long idIngredient;
+
+    @BeforeAll
+    public static void setUp() throws SQLException {
+        dataSource = new DataSource();
+        stockMovementCrudOperations = new StockMovementCrudOperations();
+        compactor = new StockSnapshotCompactor(dataSource);
+
+        try (Connection connection = dataSource.getConnection()) {
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "insert into ingredient (name) values ('SNAPSHOT-TEST-" + System.nanoTime() + "') returning id");
+                 ResultSet resultSet = statement.executeQuery()) {
+                resultSet.next();
+                idIngredient = resultSet.getLong("id");
+            }
+            insertMovement(connection, "IN", 100, T0);
+            insertMovement(connection, "OUT", 30, T0.plus(1, ChronoUnit.HOURS));
+            insertMovement(connection, "IN", 10, T0.plus(2, ChronoUnit.HOURS));
+        }
+    }
+
+    @AfterAll
+    public static void tearDown() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            for (String table : List.of("stock_movement", "stock_movement_archive", "stock_snapshot")) {
+                try (PreparedStatement statement = connection.prepareStatement("delete from " + table + " where id_ingredient = ?")) {
+                    statement.setLong(1, idIngredient);
+                    statement.executeUpdate();
+                }
+            }
+            try (PreparedStatement statement = connection.prepareStatement("delete from ingredient where id = ?")) {
+                statement.setLong(1, idIngredient);
+                statement.executeUpdate();
+            }
+        }
+    }
+
+    @Test
+    public void testStockLevelsSurviveCompaction() throws SQLException {
+        List<Instant> pointsInTime = List.of(
+                T0.minusSeconds(1), T0, T0.plus(90, ChronoUnit.MINUTES), T0.plus(2, ChronoUnit.HOURS), Instant.now());
+        Map<Instant, Double> before = levelsAt(pointsInTime);
+        assertEquals(80.0, stockMovementCrudOperations.getStockLevel(idIngredient));
+
+        Instant watermark = Instant.now().minus(1, ChronoUnit.DAYS);
+        assertTrue(compactor.compact(watermark) >= 3);
+        assertEquals(0, compactor.compact(watermark), "Un watermark déjà compacté ne fait rien");
+
+        assertEquals(before, levelsAt(pointsInTime), "Le stock à une date ne change pas après compactage");
+        assertEquals(80.0, stockMovementCrudOperations.getStockLevel(idIngredient));
+
+        // L'historique compacté revient sous la forme d'un seul mouvement d'ouverture
+        List<StockMovement> movements = stockMovementCrudOperations.findByIdIngredient(idIngredient);
+        assertEquals(1, movements.size());
+        assertNull(movements.get(0).getId());
+        assertEquals(StockMovementType.IN, movements.get(0).getMovementType());
+        assertEquals(80.0, movements.get(0).getQuantity());
+
+        // Les nouveaux mouvements s'ajoutent au point de stock
+        try (Connection connection = dataSource.getConnection()) {
+            insertMovement(connection, "OUT", 5, Instant.now().minusSeconds(60));
+        }
+        assertEquals(75.0, stockMovementCrudOperations.getStockLevel(idIngredient));
+        assertEquals(before.get(T0), stockMovementCrudOperations.getStockLevel(idIngredient, T0));
+    }
+
+    private Map<Instant, Double> levelsAt(List<Instant> pointsInTime) {
+        return pointsInTime.stream().collect(Collectors.toMap(
+                datetime -> datetime, datetime -> stockMovementCrudOperations.getStockLevel(idIngredient, datetime)));
+    }
+
+    private static void insertMovement(Connection connection, String type, double quantity, Instant datetime) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "insert into stock_movement (quantity, unit, movement_type, creation_datetime, id_ingredient)"
+                        + " values (?, 'U', ?::stock_movement_type, ?, ?)")) {
+            statement.setDouble(1, quantity);
+            statement.setString(2, type);
+            statement.setTimestamp(3, Timestamp.from(datetime));
+            statement.setLong(4, idIngredient);
+            statement.executeUpdate();
+        }
+    }
+}